@@ -92,6 +92,10 @@ import java.util.TreeSet;
  * <dt> <b>-export (DIRNAME | FILENAME)</b> </dt> <dd> to define an output
  * path to MusicXML file (or directory). Same note as for -bench.</dd>
  *
+ * <dt> <b>-server PORT</b> </dt> <dd> to run as a server, with no user
+ * interface, processing the jobs submitted on the provided local port
+ * (see {@link omr.server.OmrServer}).</dd>
+ *
  * </dd> </dl>
  *
  * @author Hervé Bitteur
@@ -168,7 +172,11 @@ public class CLI
         EXPORT(
         "Defines an output path to MusicXML file (or directory)",
         Card.SINGLE,
-        "(DIRNAME|FILENAME)");
+        "(DIRNAME|FILENAME)"),
+        SERVER(
+        "Runs as a server, processing jobs submitted on a local port",
+        Card.SINGLE,
+        "PORT");
         //~ Instance fields ----------------------------------------------------
 
         /** Info about command itself */
@@ -471,6 +479,21 @@ public class CLI
 
                     break;
 
+                case SERVER:
+                    try {
+                        params.serverPort = Integer.parseInt(token);
+                        params.batchMode = true;
+                    } catch (NumberFormatException ex) {
+                        printCommandLine();
+                        stopUsage(
+                                "Port number expected, found '" + token
+                                + "' instead");
+
+                        return null;
+                    }
+
+                    break;
+
                 default:
                 }
 
@@ -646,6 +669,9 @@ public class CLI
         /** Where printed score (PDF) is to be saved */
         String printPath = null;
 
+        /** Server port, if running as a server */
+        Integer serverPort = null;
+
         //~ Constructors -------------------------------------------------------
         private Parameters ()
         {
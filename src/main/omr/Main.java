@@ -19,6 +19,8 @@ import omr.score.Score;
 
 import omr.script.ScriptManager;
 
+import omr.server.OmrServer;
+
 import omr.step.ProcessingCancellationException;
 import omr.step.Stepping;
 
@@ -28,6 +30,7 @@ import omr.ui.symbol.MusicFont;
 import omr.util.ClassUtil;
 import omr.util.Clock;
 import omr.util.Dumping;
+import omr.util.Metrics;
 import omr.util.OmrExecutors;
 
 import org.jdesktop.application.Application;
@@ -36,6 +39,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -118,7 +122,7 @@ public class Main
             logger.debug("Main. Launching MainGui");
             Application.launch(MainGui.class, args);
         } else {
-            // For batch mode
+            // For batch or server mode
 
             // Remember if at least one task failed
             boolean failure = false;
@@ -126,6 +130,18 @@ public class Main
             // Check MusicFont is loaded
             MusicFont.checkMusicFont();
 
+            if (parameters.serverPort != null) {
+                // For server mode, jobs will come later
+                try {
+                    new OmrServer(parameters.serverPort).start();
+                } catch (IOException ex) {
+                    logger.warn("Could not start server", ex);
+                    System.exit(-1);
+                }
+
+                return;
+            }
+
             // Launch the required tasks, if any
             List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
             tasks.addAll(getFilesTasks());
@@ -135,7 +151,7 @@ public class Main
                 try {
                     logger.info("Submitting {} task(s)", tasks.size());
 
-                    List<Future<Void>> futures = OmrExecutors.getCachedLowExecutor()
+                    List<Future<Void>> futures = OmrExecutors.getScoreExecutor()
                             .invokeAll(
                             tasks,
                             constants.processTimeOut.getValue(),
@@ -161,6 +177,9 @@ public class Main
             // So shutdown immediately the executors
             OmrExecutors.shutdown(true);
 
+            // Processing metrics, if so desired
+            Metrics.store();
+
             // Store latest constant values on disk?
             if (constants.persistBatchCliConstants.getValue()) {
                 ConstantManager.getInstance()
@@ -470,7 +470,9 @@ public abstract class Constant
     /**
      * Report the current tuple data, which may imply to trigger the 
      * assignment of qualified name to the constant, in order to get 
-     * property data
+     * property data.
+     * A value found in the {@link ConstantContext} bound to the current thread,
+     * if any, takes precedence over the application-wide value.
      *
      * @return the current tuple data
      */
@@ -478,6 +480,16 @@ public abstract class Constant
     {
         checkInitialized();
 
+        final ConstantContext context = ConstantContext.getCurrent();
+
+        if (context != null) {
+            final Tuple local = context.getTuple(this);
+
+            if (local != null) {
+                return local;
+            }
+        }
+
         return tuple.get();
     }
 
@@ -894,7 +906,7 @@ public abstract class Constant
      * Class used to handle the tuple [currentString + currentValue]
      * in an atomic way.
      */
-    private static class Tuple
+    static class Tuple
     {
         //~ Instance fields ----------------------------------------------------
 
@@ -0,0 +1,262 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                       C o n s t a n t C o n t e x t                        //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.constant;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class {@code ConstantContext} is an immutable set of constant values,
+ * which override the application-wide values for the processing of one
+ * job (typically one score).
+ *
+ * <p>A context is frozen at creation time, and is bound to the threads that
+ * work on behalf of the job. While a context is bound to the current thread,
+ * {@link Constant} values are first looked up in this context, and then in
+ * the application-wide data. Lookups do not lock.
+ *
+ * <p>The context is not inherited by pool threads: any task submitted by a
+ * bound thread must be wrapped, through {@link #wrap(Callable)},
+ * {@link #wrap(Runnable)} or {@link #wrapAll}, so that it runs with the
+ * context of its submitter.
+ *
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class ConstantContext
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** The context bound to the current thread, if any. */
+    private static final ThreadLocal<ConstantContext> current = new ThreadLocal<>();
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Overriding values, as strings, sorted by constant qualified name. */
+    private final Map<String, String> strings;
+
+    /** Decoded values, populated on first use of each constant. */
+    private final ConcurrentHashMap<String, Constant.Tuple> tuples = new ConcurrentHashMap<>();
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-----------------//
+    // ConstantContext //
+    //-----------------//
+    /**
+     * Creates a new ConstantContext object.
+     *
+     * @param properties the overriding values, indexed by constant qualified
+     *                   name (such as "omr.sheet.Scale.maxFore")
+     */
+    public ConstantContext (Properties properties)
+    {
+        Map<String, String> map = new TreeMap<>();
+
+        for (String key : properties.stringPropertyNames()) {
+            map.put(key, properties.getProperty(key));
+        }
+
+        strings = Collections.unmodifiableMap(map);
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //------//
+    // bind //
+    //------//
+    /**
+     * Bind the provided context to the current thread.
+     *
+     * @param context the context to bind, or null to unbind any context
+     * @return the context previously bound, to be restored when done
+     */
+    public static ConstantContext bind (ConstantContext context)
+    {
+        final ConstantContext previous = current.get();
+
+        if (context != null) {
+            current.set(context);
+        } else {
+            current.remove();
+        }
+
+        return previous;
+    }
+
+    //------------//
+    // getCurrent //
+    //------------//
+    /**
+     * Report the context bound to the current thread.
+     *
+     * @return the current context, or null
+     */
+    public static ConstantContext getCurrent ()
+    {
+        return current.get();
+    }
+
+    //---------//
+    // getKeys //
+    //---------//
+    /**
+     * Report the qualified names of the overridden constants.
+     *
+     * @return the (unmodifiable) names
+     */
+    public Collection<String> getKeys ()
+    {
+        return strings.keySet();
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return "{Context " + strings + "}";
+    }
+
+    //------//
+    // wrap //
+    //------//
+    /**
+     * Wrap a task, so that it runs with the context currently bound
+     * to the calling thread.
+     *
+     * The absence of context is captured as well, so that the task never
+     * sees a context left over by a previous task of the same pool thread.
+     *
+     * @param <T>  the task result type
+     * @param task the task to wrap
+     * @return the wrapped task
+     */
+    public static <T> Callable<T> wrap (final Callable<T> task)
+    {
+        final ConstantContext context = current.get();
+
+        return new Callable<T>()
+        {
+            @Override
+            public T call ()
+                    throws Exception
+            {
+                final ConstantContext previous = bind(context);
+
+                try {
+                    return task.call();
+                } finally {
+                    bind(previous);
+                }
+            }
+        };
+    }
+
+    //------//
+    // wrap //
+    //------//
+    /**
+     * Wrap a task, so that it runs with the context currently bound
+     * to the calling thread.
+     *
+     * The absence of context is captured as well, so that the task never
+     * sees a context left over by a previous task of the same pool thread.
+     *
+     * @param task the task to wrap
+     * @return the wrapped task
+     */
+    public static Runnable wrap (final Runnable task)
+    {
+        final ConstantContext context = current.get();
+
+        return new Runnable()
+        {
+            @Override
+            public void run ()
+            {
+                final ConstantContext previous = bind(context);
+
+                try {
+                    task.run();
+                } finally {
+                    bind(previous);
+                }
+            }
+        };
+    }
+
+    //---------//
+    // wrapAll //
+    //---------//
+    /**
+     * Wrap a collection of tasks, so that they run with the context
+     * currently bound to the calling thread.
+     *
+     * @param <T>   the tasks result type
+     * @param tasks the tasks to wrap
+     * @return the wrapped tasks
+     */
+    public static <T> List<Callable<T>> wrapAll (Collection<? extends Callable<T>> tasks)
+    {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+
+        for (Callable<T> task : tasks) {
+            wrapped.add(wrap(task));
+        }
+
+        return wrapped;
+    }
+
+    //----------//
+    // getTuple //
+    //----------//
+    /**
+     * Report the overriding data for the provided constant.
+     *
+     * @param constant the constant at hand
+     * @return the context data, or null if the constant is not overridden
+     */
+    Constant.Tuple getTuple (Constant constant)
+    {
+        final String qName = constant.getQualifiedName();
+        Constant.Tuple tuple = tuples.get(qName);
+
+        if (tuple == null) {
+            final String str = strings.get(qName);
+
+            if (str == null) {
+                return null;
+            }
+
+            tuple = new Constant.Tuple(str, constant.decode(str));
+
+            Constant.Tuple old = tuples.putIfAbsent(qName, tuple);
+
+            if (old != null) {
+                tuple = old;
+            }
+        }
+
+        return tuple;
+    }
+}
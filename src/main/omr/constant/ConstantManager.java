@@ -29,7 +29,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.SortedMap;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -172,6 +174,85 @@ public class ConstantManager
         return props;
     }
 
+    //-------------//
+    // getConstant //
+    //-------------//
+    /**
+     * Report the constant registered with the provided qualified name.
+     * If needed, the application class which should define this constant
+     * is loaded, so that constants not used so far are found as well.
+     *
+     * @param qName the constant qualified name (such as
+     *              "omr.sheet.Scale.maxFore")
+     * @return the constant, or null if unknown
+     */
+    public Constant getConstant (String qName)
+    {
+        Constant constant = constants.get(qName);
+
+        if ((constant == null) && qName.startsWith("omr.")) {
+            final String unit = qName.substring(0, qName.lastIndexOf('.'));
+
+            try {
+                Class.forName(unit); // This loads its ConstantSet
+                UnitManager.getInstance().checkDirtySets();
+                constant = constants.get(qName);
+            } catch (ClassNotFoundException | LinkageError ex) {
+                logger.debug("No unit {} for constant {}", unit, qName);
+            }
+        }
+
+        return constant;
+    }
+
+    //-------------------//
+    // getModifiedValues //
+    //-------------------//
+    /**
+     * Report the values of all constants which may differ from their
+     * source value, whether they come from USER properties, from the CLI
+     * or from an interactive modification.
+     * The values bound to a {@link ConstantContext} are not included.
+     *
+     * <p>The result does not depend on which constants have already been
+     * registered, unless they have been modified since their registration.
+     *
+     * @return the modified values, sorted by constant qualified name
+     */
+    public SortedMap<String, String> getModifiedValues ()
+    {
+        SortedMap<String, String> values = new TreeMap<>();
+
+        for (String key : userHolder.getKeys()) {
+            values.put(key, userHolder.getProperty(key));
+        }
+
+        Properties cliConstants = Main.getCliConstants();
+
+        if (cliConstants != null) {
+            for (String key : cliConstants.stringPropertyNames()) {
+                values.put(key, cliConstants.getProperty(key));
+            }
+        }
+
+        // Values modified since registration, regardless of any context
+        ConstantContext context = ConstantContext.bind(null);
+
+        try {
+            for (Constant constant : constants.values()) {
+                if (constant.isModified()) {
+                    values.put(
+                            constant.getQualifiedName(),
+                            constant.getCurrentString());
+                }
+            }
+        } finally {
+            ConstantContext.bind(context);
+        }
+
+        return values;
+    }
+
     //-------------//
     // getInstance //
     //-------------//
@@ -13,6 +13,7 @@ package omr.glyph;
 
 import omr.WellKnowns;
 
+import omr.constant.Constant;
 import omr.constant.ConstantSet;
 
 import omr.glyph.ShapeEvaluator.Condition;
@@ -22,6 +23,8 @@ import omr.glyph.facets.Glyph;
 import omr.sheet.Scale;
 import omr.sheet.SystemInfo;
 
+import omr.util.BoundedCache;
+import omr.util.Metrics;
 import omr.util.Predicate;
 import omr.util.UriUtil;
 
@@ -67,16 +70,22 @@ public abstract class AbstractEvaluationEngine
     protected static final int shapeCount = 1
                                             + Shape.LAST_PHYSICAL_SHAPE.ordinal();
 
-    /** A special evaluation array, used to report NOISE. */
-    protected static final Evaluation[] noiseEvaluations = {
-        new Evaluation(Shape.NOISE, Evaluation.ALGORITHM)
-    };
+    /** All shapes, indexed by ordinal. */
+    private static final Shape[] shapes = Shape.values();
+
+    /** Cached grades for a noise glyph. */
+    private static final double[] NOISE_GRADES = new double[0];
 
     //~ Instance fields --------------------------------------------------------
     //
     /** The glyph checker for additional specific checks. */
     protected ShapeChecker glyphChecker = ShapeChecker.getInstance();
 
+    /** Raw grades already computed, indexed by glyph key. */
+    private final BoundedCache<ShapeDescription.Key, double[]> gradesCache = new BoundedCache<>(
+            getClass().getSimpleName(),
+            constants.maxCacheSize.getValue());
+
     //~ Methods ----------------------------------------------------------------
     //
     //----------//
@@ -90,57 +99,16 @@ public abstract class AbstractEvaluationEngine
                                   EnumSet<ShapeEvaluator.Condition> conditions,
                                   Predicate<Shape> predicate)
     {
-        List<Evaluation> best = new ArrayList<>();
-        Evaluation[] evals = getRawEvaluations(glyph);
-
-        EvalsLoop:
-        for (Evaluation eval : evals) {
-            // Bounding test?
-            if ((best.size() >= count) || (eval.grade < minGrade)) {
-                break;
-            }
-
-            // Predicate?
-            if ((predicate != null) && !predicate.check(eval.shape)) {
-                continue;
-            }
-
-            // Allowed?
-            if (conditions.contains(Condition.ALLOWED)
-                && glyph.isShapeForbidden(eval.shape)) {
-                continue;
-            }
-
-            // Successful checks?
-            if (conditions.contains(Condition.CHECKED)) {
-                Evaluation oldEval = new Evaluation(eval.shape, eval.grade);
-                double[] ins = ShapeDescription.features(glyph);
-                // This may change the eval shape...
-                glyphChecker.annotate(system, eval, glyph, ins);
-
-                if (eval.failure != null) {
-                    continue;
-                }
-
-                // In case the specific checks have changed eval shape
-                // we have to retest against the glyph blacklist
-                if ((eval.shape != oldEval.shape)
-                    && conditions.contains(Condition.ALLOWED)
-                    && glyph.isShapeForbidden(eval.shape)) {
-                    continue;
-                }
-            }
-
-            // Everything is OK, add the shape if not already in the list
-            for (Evaluation e : best) {
-                if (e.shape == eval.shape) {
-                    continue EvalsLoop;
-                }
-            }
-            best.add(eval);
-        }
-
-        return best.toArray(new Evaluation[0]);
+        Metrics.count("evaluations", null, 1);
+
+        return select(
+                glyph,
+                getCachedGrades(glyph),
+                system,
+                count,
+                minGrade,
+                conditions,
+                predicate);
     }
 
     //-------------//
@@ -214,6 +182,31 @@ public abstract class AbstractEvaluationEngine
     {
     }
 
+    //------//
+    // vote //
+    //------//
+    @Override
+    public Evaluation[] vote (List<Glyph> glyphs,
+                              SystemInfo system,
+                              double minGrade)
+    {
+        final double[][] grades = getCachedGrades(glyphs);
+        final EnumSet<Condition> conditions = EnumSet.of(ALLOWED, CHECKED);
+        final Evaluation[] votes = new Evaluation[glyphs.size()];
+        Metrics.count("evaluations", null, glyphs.size());
+
+        for (int i = 0; i < votes.length; i++) {
+            Evaluation[] evals = select(glyphs.get(i), grades[i], system, 1,
+                    minGrade, conditions, null);
+
+            if (evals.length > 0) {
+                votes[i] = evals[0];
+            }
+        }
+
+        return votes;
+    }
+
     //------//
     // Vote //
     //------//
@@ -271,6 +264,19 @@ public abstract class AbstractEvaluationEngine
         }
     }
 
+    //----------------//
+    // getGradesCache //
+    //----------------//
+    /**
+     * Report the cache of raw grades, for statistics.
+     *
+     * @return the grades cache
+     */
+    public BoundedCache<ShapeDescription.Key, double[]> getGradesCache ()
+    {
+        return gradesCache;
+    }
+
     //-------------//
     // getFileName //
     //-------------//
@@ -282,18 +288,52 @@ public abstract class AbstractEvaluationEngine
      */
     protected abstract String getFileName ();
 
-    //-------------------//
-    // getRawEvaluations //
-    //-------------------//
+    //--------------//
+    // getRawGrades //
+    //--------------//
     /**
-     * Run the evaluator with the specified glyph, and return a
-     * sequence of interpretations (ordered from best to worst) with
-     * no additional check.
+     * Run the evaluator with the specified glyph, and return the
+     * grade of each physical shape, with no additional check.
      *
      * @param glyph the glyph to be examined
-     * @return the ordered best evaluations
+     * @return the grades indexed by shape ordinal, or null if the glyph is
+     *         too small and thus just {@link Shape#NOISE}
      */
-    protected abstract Evaluation[] getRawEvaluations (Glyph glyph);
+    protected abstract double[] getRawGrades (Glyph glyph);
+
+    //--------------//
+    // getRawGrades //
+    //--------------//
+    /**
+     * Run the evaluator on a list of glyphs at once.
+     * This default implementation processes the glyphs one after the other,
+     * engines able to run batches should override it.
+     *
+     * @param glyphs the glyphs to be examined
+     * @return for each glyph, the grades indexed by shape ordinal, or null
+     */
+    protected double[][] getRawGrades (List<Glyph> glyphs)
+    {
+        final double[][] grades = new double[glyphs.size()][];
+
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = getRawGrades(glyphs.get(i));
+        }
+
+        return grades;
+    }
+
+    //-----------------//
+    // invalidateCache //
+    //-----------------//
+    /**
+     * Forget the grades computed so far, to be called whenever the
+     * underlying engine is modified.
+     */
+    protected void invalidateCache ()
+    {
+        gradesCache.clear();
+    }
 
     //---------//
     // marshal //
@@ -445,6 +485,148 @@ public abstract class AbstractEvaluationEngine
         return null;
     }
 
+    //-----------------//
+    // getCachedGrades //
+    //-----------------//
+    /**
+     * Report the raw grades of a glyph, using the cache if possible.
+     */
+    private double[] getCachedGrades (Glyph glyph)
+    {
+        if (!constants.useCache.isSet()) {
+            return getRawGrades(glyph);
+        }
+
+        final ShapeDescription.Key key = new ShapeDescription.Key(glyph);
+        double[] grades = gradesCache.get(key);
+
+        if (grades == null) {
+            grades = getRawGrades(glyph);
+            gradesCache.put(key, (grades != null) ? grades : NOISE_GRADES);
+        } else if (grades == NOISE_GRADES) {
+            grades = null;
+        }
+
+        return grades;
+    }
+
+    //-----------------//
+    // getCachedGrades //
+    //-----------------//
+    /**
+     * Report the raw grades of a list of glyphs, using the cache if
+     * possible. The glyphs not found in cache are processed as one batch.
+     */
+    private double[][] getCachedGrades (List<Glyph> glyphs)
+    {
+        if (!constants.useCache.isSet()) {
+            return getRawGrades(glyphs);
+        }
+
+        final double[][] grades = new double[glyphs.size()][];
+        final List<ShapeDescription.Key> keys = new ArrayList<>();
+        final List<Glyph> missed = new ArrayList<>();
+        final List<Integer> indices = new ArrayList<>();
+
+        for (int i = 0; i < grades.length; i++) {
+            final Glyph glyph = glyphs.get(i);
+            final ShapeDescription.Key key = new ShapeDescription.Key(glyph);
+            final double[] cached = gradesCache.get(key);
+
+            if (cached == null) {
+                keys.add(key);
+                missed.add(glyph);
+                indices.add(i);
+            } else if (cached != NOISE_GRADES) {
+                grades[i] = cached;
+            }
+        }
+
+        if (!missed.isEmpty()) {
+            final double[][] computed = getRawGrades(missed);
+
+            for (int m = 0; m < computed.length; m++) {
+                grades[indices.get(m)] = computed[m];
+                gradesCache.put(
+                        keys.get(m),
+                        (computed[m] != null) ? computed[m] : NOISE_GRADES);
+            }
+        }
+
+        return grades;
+    }
+
+    //--------//
+    // select //
+    //--------//
+    /**
+     * Select the best evaluations out of the raw grades of a glyph.
+     * Evaluations are considered from best to worst, and only as many as
+     * needed are built, rather than sorting all shapes.
+     */
+    private Evaluation[] select (Glyph glyph,
+                                 double[] grades,
+                                 SystemInfo system,
+                                 int count,
+                                 double minGrade,
+                                 EnumSet<Condition> conditions,
+                                 Predicate<Shape> predicate)
+    {
+        List<Evaluation> best = new ArrayList<>();
+        Ranking ranking = new Ranking(grades);
+
+        EvalsLoop:
+        for (Evaluation eval; (eval = ranking.next()) != null;) {
+            // Bounding test?
+            if ((best.size() >= count) || (eval.grade < minGrade)) {
+                break;
+            }
+
+            // Predicate?
+            if ((predicate != null) && !predicate.check(eval.shape)) {
+                continue;
+            }
+
+            // Allowed?
+            if (conditions.contains(Condition.ALLOWED)
+                && glyph.isShapeForbidden(eval.shape)) {
+                continue;
+            }
+
+            // Successful checks?
+            if (conditions.contains(Condition.CHECKED)) {
+                Evaluation oldEval = new Evaluation(eval.shape, eval.grade);
+                double[] ins = ShapeDescription.features(glyph);
+                // This may change the eval shape...
+                glyphChecker.annotate(system, eval, glyph, ins);
+
+                if (eval.failure != null) {
+                    continue;
+                }
+
+                // In case the specific checks have changed eval shape
+                // we have to retest against the glyph blacklist
+                if ((eval.shape != oldEval.shape)
+                    && conditions.contains(Condition.ALLOWED)
+                    && glyph.isShapeForbidden(eval.shape)) {
+                    continue;
+                }
+            }
+
+            // Everything is OK, add the shape if not already in the list
+            for (Evaluation e : best) {
+                if (e.shape == eval.shape) {
+                    continue EvalsLoop;
+                }
+            }
+            best.add(eval);
+        }
+
+        return best.toArray(new Evaluation[0]);
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
     //-----------//
     // Constants //
     //-----------//
@@ -452,8 +634,78 @@ public abstract class AbstractEvaluationEngine
             extends ConstantSet
     {
 
+        Constant.Boolean useCache = new Constant.Boolean(
+                true,
+                "Should we cache the raw grades of evaluated glyphs?");
+
+        Constant.Integer maxCacheSize = new Constant.Integer(
+                "glyphs",
+                20000,
+                "Maximum number of glyphs whose grades are cached");
+
         Scale.AreaFraction minWeight = new Scale.AreaFraction(0.08,
                 "Minimum normalized weight to be considered not a noise");
 
     }
+
+    //---------//
+    // Ranking //
+    //---------//
+    /**
+     * Delivers the evaluations of a glyph from best to worst, building
+     * them on demand. For equal grades, the shape order is kept.
+     */
+    private static class Ranking
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Remaining grades, null for a noise glyph. */
+        private final double[] grades;
+
+        /** For a noise glyph, has NOISE been delivered? */
+        private boolean noiseDelivered;
+
+        //~ Constructors -------------------------------------------------------
+        public Ranking (double[] grades)
+        {
+            this.grades = (grades != null) ? grades.clone() : null;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Report the next best evaluation.
+         *
+         * @return the next evaluation, or null if none is left
+         */
+        public Evaluation next ()
+        {
+            if (grades == null) {
+                if (noiseDelivered) {
+                    return null;
+                }
+
+                noiseDelivered = true;
+
+                return new Evaluation(Shape.NOISE, Evaluation.ALGORITHM);
+            }
+
+            int index = -1;
+            double grade = Double.NEGATIVE_INFINITY;
+
+            for (int s = 0; s < grades.length; s++) {
+                if (grades[s] > grade) {
+                    index = s;
+                    grade = grades[s];
+                }
+            }
+
+            if (index == -1) {
+                return null;
+            }
+
+            grades[index] = Double.NEGATIVE_INFINITY;
+
+            return new Evaluation(shapes[index], grade);
+        }
+    }
 }
@@ -42,6 +42,7 @@ import omr.selection.UserEvent;
 import omr.sheet.Sheet;
 import omr.sheet.SystemInfo;
 
+import omr.util.Metrics;
 import omr.util.VipUtil;
 
 import org.bushe.swing.event.EventSubscriber;
@@ -51,14 +52,18 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -132,6 +137,22 @@ public class BasicNest
     /** Collection of virtual glyphs. (with no underlying sections) */
     private Set<Glyph> virtualGlyphs = new HashSet<>();
 
+    /**
+     * Number of reasons for each glyph to be active: one per section
+     * mapped to the glyph, plus one for a virtual glyph.
+     */
+    private final Map<Glyph, Integer> activeCounts = new HashMap<>();
+
+    /** Spatial index of active glyphs, kept in sync with activeCounts. */
+    private final GlyphIndex activeIndex;
+
+    /**
+     * Glyph indexes to notify of geometry changes. (weakly referenced)
+     * Indexes are seldom added, while notifications are frequent and may
+     * come from several threads, hence a copy-on-write list.
+     */
+    private final List<WeakReference<GlyphIndex>> glyphIndexes = new CopyOnWriteArrayList<>();
+
     /** Global id to uniquely identify a glyph. */
     private final AtomicInteger globalGlyphId = new AtomicInteger(0);
 
@@ -158,6 +179,7 @@ public class BasicNest
 
         params = new Parameters();
         glyphService = new SelectionService(name, Nest.eventsWritten);
+        activeIndex = new GlyphIndex(this);
     }
 
     //~ Methods ----------------------------------------------------------------
@@ -179,6 +201,22 @@ public class BasicNest
         return glyph;
     }
 
+    //---------------//
+    // addGlyphIndex //
+    //---------------//
+    @Override
+    public void addGlyphIndex (GlyphIndex index)
+    {
+        // Purge the indexes no longer used
+        for (WeakReference<GlyphIndex> ref : glyphIndexes) {
+            if (ref.get() == null) {
+                glyphIndexes.remove(ref);
+            }
+        }
+
+        glyphIndexes.add(new WeakReference<>(index));
+    }
+
     //--------//
     // dumpOf //
     //--------//
@@ -225,6 +263,21 @@ public class BasicNest
         return Collections.unmodifiableCollection(activeGlyphs);
     }
 
+    //-----------------//
+    // geometryChanged //
+    //-----------------//
+    @Override
+    public void geometryChanged (Glyph glyph)
+    {
+        for (WeakReference<GlyphIndex> ref : glyphIndexes) {
+            final GlyphIndex index = ref.get();
+
+            if (index != null) {
+                index.geometryChanged(glyph);
+            }
+        }
+    }
+
     //--------------//
     // getAllGlyphs //
     //--------------//
@@ -347,7 +400,7 @@ public class BasicNest
     @Override
     public Set<Glyph> lookupGlyphs (Rectangle rect)
     {
-        return Glyphs.lookupGlyphs(getActiveGlyphs(), rect);
+        return Glyphs.lookupGlyphs(activeIndex.lookup(rect), rect);
     }
 
     //-------------------------//
@@ -356,7 +409,7 @@ public class BasicNest
     @Override
     public Set<Glyph> lookupIntersectedGlyphs (Rectangle rect)
     {
-        return Glyphs.lookupIntersectedGlyphs(getActiveGlyphs(), rect);
+        return Glyphs.lookupIntersectedGlyphs(activeIndex.lookup(rect), rect);
     }
 
     //--------------------//
@@ -387,10 +440,22 @@ public class BasicNest
     public synchronized void mapSection (Section section,
                                          Glyph glyph)
     {
+        Glyph old;
+
         if (glyph != null) {
-            activeMap.put(section, glyph);
+            old = activeMap.put(section, glyph);
         } else {
-            activeMap.remove(section);
+            old = activeMap.remove(section);
+        }
+
+        if (old != glyph) {
+            if (old != null) {
+                deactivate(old);
+            }
+
+            if (glyph != null) {
+                activate(glyph);
+            }
         }
 
         // Invalidate the collection of active glyphs
@@ -460,6 +525,7 @@ public class BasicNest
                 glyph.setId(id);
                 glyph.setNest(this);
                 allGlyphs.put(id, glyph);
+                Metrics.count("glyphs", null, 1);
 
                 if (isVip(glyph)) {
                     glyph.setVip();
@@ -487,7 +553,11 @@ public class BasicNest
 
         // Special for virtual glyphs
         if (glyph.isVirtual()) {
-            virtualGlyphs.add(glyph);
+            synchronized (this) {
+                if (virtualGlyphs.add(glyph)) {
+                    activate(glyph);
+                }
+            }
         }
 
         return glyph;
@@ -501,7 +571,11 @@ public class BasicNest
     {
         originals.remove(glyph.getSignature(), glyph);
         allGlyphs.remove(glyph.getId(), glyph);
-        virtualGlyphs.remove(glyph);
+
+        if (virtualGlyphs.remove(glyph)) {
+            deactivate(glyph);
+        }
+
         activeGlyphs = null;
     }
 
@@ -601,6 +675,48 @@ public class BasicNest
         return glyphService.subscribersCount(classe);
     }
 
+    //----------//
+    // activate //
+    //----------//
+    /**
+     * Record one more reason for the glyph to be active.
+     * (to be called under the nest lock)
+     */
+    private void activate (Glyph glyph)
+    {
+        Integer count = activeCounts.get(glyph);
+
+        if (count == null) {
+            activeCounts.put(glyph, 1);
+            activeIndex.insert(glyph);
+        } else {
+            activeCounts.put(glyph, count + 1);
+        }
+    }
+
+    //------------//
+    // deactivate //
+    //------------//
+    /**
+     * Record one less reason for the glyph to be active.
+     * (to be called under the nest lock)
+     */
+    private void deactivate (Glyph glyph)
+    {
+        Integer count = activeCounts.get(glyph);
+
+        if (count == null) {
+            return;
+        }
+
+        if (count > 1) {
+            activeCounts.put(glyph, count - 1);
+        } else {
+            activeCounts.remove(glyph);
+            activeIndex.remove(glyph);
+        }
+    }
+
     //------------//
     // generateId //
     //------------//
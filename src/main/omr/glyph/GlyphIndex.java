@@ -0,0 +1,227 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                            G l y p h I n d e x                             //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.glyph;
+
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
+import omr.glyph.facets.Glyph;
+
+import omr.util.GridIndex;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.awt.Rectangle;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class {@code GlyphIndex} is a spatial index on a population of
+ * glyphs, based on their bounds.
+ *
+ * <p>The index is maintained incrementally, as glyphs are inserted and
+ * removed. Since a registered glyph may still see its geometry modified, the
+ * containing nest reports each such glyph to the index, which re-inserts it
+ * with its new bounds before the next lookup.
+ *
+ * <p>Lookups report their candidates in {@link Glyph#byAbscissa} order, as
+ * a plain browsing of a sorted glyph collection would.
+ *
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class GlyphIndex
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** All indexed glyphs, including those with no bounds yet. */
+    private final Set<Glyph> glyphs = Collections.newSetFromMap(
+            new IdentityHashMap<Glyph, Boolean>());
+
+    /** Grid on glyph bounds. */
+    private final GridIndex<Glyph> grid = new GridIndex<>(
+            constants.cellSize.getValue());
+
+    /** Indexed glyphs whose geometry has changed since last lookup. */
+    private final Set<Glyph> changed = Collections.newSetFromMap(
+            new IdentityHashMap<Glyph, Boolean>());
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //------------//
+    // GlyphIndex //
+    //------------//
+    /**
+     * Creates a new GlyphIndex object, and registers it with the nest
+     * so that it gets notified of glyph geometry changes.
+     *
+     * @param nest the nest which hosts the indexed glyphs
+     */
+    public GlyphIndex (Nest nest)
+    {
+        nest.addGlyphIndex(this);
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------//
+    // clear //
+    //-------//
+    /**
+     * Remove all glyphs from the index.
+     */
+    public synchronized void clear ()
+    {
+        glyphs.clear();
+        changed.clear();
+        grid.clear();
+    }
+
+    //-----------------//
+    // geometryChanged //
+    //-----------------//
+    /**
+     * Notify the index that the geometry of a glyph has changed.
+     * If the glyph is indexed, it will be re-inserted with its new bounds
+     * before the next lookup. This is deferred since a glyph being built
+     * reports many successive changes.
+     *
+     * @param glyph the modified glyph
+     */
+    public synchronized void geometryChanged (Glyph glyph)
+    {
+        if (glyphs.contains(glyph)) {
+            changed.add(glyph);
+        }
+    }
+
+    //--------//
+    // insert //
+    //--------//
+    /**
+     * Insert a glyph into the index, or update its bounds if it is
+     * already indexed.
+     *
+     * @param glyph the glyph to insert
+     */
+    public synchronized void insert (Glyph glyph)
+    {
+        glyphs.add(glyph);
+        changed.remove(glyph);
+        reinsert(glyph);
+    }
+
+    //--------//
+    // lookup //
+    //--------//
+    /**
+     * Report the indexed glyphs whose bounds intersect the provided
+     * rectangle.
+     *
+     * @param rect the rectangle to look up
+     * @return the candidate glyphs, sorted by abscissa, perhaps empty
+     */
+    public List<Glyph> lookup (Rectangle rect)
+    {
+        List<Glyph> found;
+
+        synchronized (this) {
+            if (!changed.isEmpty()) {
+                for (Glyph glyph : changed) {
+                    reinsert(glyph);
+                }
+
+                changed.clear();
+            }
+
+            found = grid.lookup(rect);
+        }
+
+        Collections.sort(found, Glyph.byAbscissa);
+
+        return found;
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    /**
+     * Remove a glyph from the index.
+     *
+     * @param glyph the glyph to remove
+     * @return true if the glyph was actually indexed
+     */
+    public synchronized boolean remove (Glyph glyph)
+    {
+        grid.remove(glyph);
+        changed.remove(glyph);
+
+        return glyphs.remove(glyph);
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of indexed glyphs.
+     *
+     * @return the glyph count
+     */
+    public synchronized int size ()
+    {
+        return glyphs.size();
+    }
+
+    //----------//
+    // reinsert //
+    //----------//
+    /**
+     * Remove the glyph from the grid and insert it again with its
+     * current bounds, if any.
+     *
+     * @param glyph the glyph to re-insert
+     */
+    private void reinsert (Glyph glyph)
+    {
+        Rectangle box = glyph.getBounds();
+
+        if (box != null) {
+            grid.insert(glyph, box);
+        } else {
+            grid.remove(glyph);
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer cellSize = new Constant.Integer(
+                "Pixels",
+                128,
+                "Size of cells in the spatial index of glyphs");
+
+    }
+}
@@ -11,6 +11,7 @@
 // </editor-fold>
 package omr.glyph;
 
+import omr.constant.Constant;
 import omr.constant.ConstantSet;
 
 import omr.glyph.facets.Glyph;
@@ -23,14 +24,30 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 /**
  * Class {@code GlyphInspector} is at a system level, dedicated to the
  * inspection of retrieved glyphs, their recognition being usually
  * based on features used by a shape evaluator.
  *
+ * <p>When the incrementalInspection constant is set, an inspection does not
+ * process the whole system, but only the "dirty" glyphs and their
+ * neighbors. Dirty glyphs are the glyphs created, reshaped or removed since
+ * the previous inspection of the same kind (wide or not). They are detected
+ * by comparing the system glyphs with the state recorded at the end of the
+ * previous inspection, so that any modification is caught, whatever its
+ * origin (patterns, manual edition, ...).
+ *
  * @author Hervé Bitteur
  */
 public class GlyphInspector
@@ -57,6 +74,12 @@ public class GlyphInspector
     /** Dedicated system */
     private final SystemInfo system;
 
+    /** State at end of latest standard inspection */
+    private final Snapshot standardSnapshot = new Snapshot(false);
+
+    /** State at end of latest wide inspection */
+    private final Snapshot wideSnapshot = new Snapshot(true);
+
     //~ Constructors -----------------------------------------------------------
     //----------------//
     // GlyphInspector //
@@ -83,18 +106,61 @@ public class GlyphInspector
      * @param minGrade the lower limit on grade to accept an evaluation
      */
     public void evaluateGlyphs (double minGrade)
+    {
+        evaluateGlyphs(minGrade, system.getGlyphs());
+    }
+
+    //----------------//
+    // evaluateGlyphs //
+    //----------------//
+    /**
+     * Among the provided glyphs, those unassigned for which we can get a
+     * positive vote from the evaluator are assigned the voted shape.
+     *
+     * <p>Glyphs are voted and assigned one after the other, unless the
+     * batchVote constant is set. In that case, all votes are computed before
+     * any assignment, so a vote cannot depend on the shapes assigned by the
+     * previous votes.
+     *
+     * @param minGrade the lower limit on grade to accept an evaluation
+     * @param glyphs   the glyphs to process
+     */
+    public void evaluateGlyphs (double minGrade,
+                                Collection<Glyph> glyphs)
     {
         ShapeEvaluator evaluator = GlyphNetwork.getInstance();
 
-        for (Glyph glyph : system.getGlyphs()) {
-            if (glyph.getShape() == null) {
-                // Get vote
-                Evaluation vote = evaluator.vote(glyph, system, minGrade);
+        if (!constants.batchVote.isSet()) {
+            for (Glyph glyph : glyphs) {
+                if (glyph.getShape() == null) {
+                    // Get vote
+                    Evaluation vote = evaluator.vote(glyph, system, minGrade);
 
-                if (vote != null) {
-                    glyph.setEvaluation(vote);
+                    if (vote != null) {
+                        glyph.setEvaluation(vote);
+                    }
                 }
             }
+
+            return;
+        }
+
+        List<Glyph> unassigned = new ArrayList<>();
+
+        for (Glyph glyph : glyphs) {
+            if (glyph.getShape() == null) {
+                unassigned.add(glyph);
+            }
+        }
+
+        // Get votes, all at once
+        Evaluation[] votes = evaluator.vote(unassigned, system, minGrade);
+
+        for (int i = 0; i < votes.length; i++) {
+            if (votes[i] != null) {
+                unassigned.get(i)
+                        .setEvaluation(votes[i]);
+            }
         }
     }
 
@@ -114,17 +180,21 @@ public class GlyphInspector
     {
         logger.debug("S#{} inspectGlyphs start", system.getId());
 
+        final Snapshot snapshot = wide ? wideSnapshot : standardSnapshot;
+
         // For Symbols & Leaves
         system.retrieveGlyphs();
         system.removeInactiveGlyphs();
-        evaluateGlyphs(minGrade);
+        evaluateGlyphs(minGrade, snapshot.getCandidates());
         system.removeInactiveGlyphs();
 
         // For Compounds
-        retrieveCompounds(minGrade, wide);
+        retrieveCompounds(minGrade, wide, snapshot.getCandidates());
         system.removeInactiveGlyphs();
-        evaluateGlyphs(minGrade);
+        evaluateGlyphs(minGrade, snapshot.getCandidates());
         system.removeInactiveGlyphs();
+
+        snapshot.record();
     }
 
     //-------------------//
@@ -136,14 +206,16 @@ public class GlyphInspector
      *
      * @param minGrade minimum acceptable grade
      * @param wide     flag for extra wide box
+     * @param seeds    the glyphs to be used as compound seeds
      */
     private void retrieveCompounds (double minGrade,
-                                    boolean wide)
+                                    boolean wide,
+                                    Collection<Glyph> seeds)
     {
         // Use a copy to avoid concurrent modifications
         List<Glyph> glyphs = new ArrayList<>(system.getGlyphs());
 
-        for (Glyph seed : glyphs) {
+        for (Glyph seed : new ArrayList<>(seeds)) {
             // Now process this seed, by looking at neighbors
             BasicAdapter adapter = new BasicAdapter(system, minGrade, seed, wide);
 
@@ -170,6 +242,14 @@ public class GlyphInspector
                 0.5,
                 "Box special abscissa margin to check intersection with compound");
 
+        Constant.Boolean batchVote = new Constant.Boolean(
+                false,
+                "Should we vote all unassigned glyphs at once, before assigning them?");
+
+        Constant.Boolean incrementalInspection = new Constant.Boolean(
+                false,
+                "Should we inspect only the glyphs modified since previous inspection, with their neighbors?");
+
     }
 
     //--------------//
@@ -282,4 +362,159 @@ public class GlyphInspector
             }
         }
     }
+
+    //----------//
+    // Snapshot //
+    //----------//
+    /**
+     * Class {@code Snapshot} records the system glyphs, with their
+     * evaluation, at the end of an inspection, to later determine the
+     * glyphs that the next inspection of the same kind must process.
+     */
+    private class Snapshot
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Flag for extra wide neighborhood. */
+        private final boolean wide;
+
+        /** Evaluation of each glyph, null if no inspection was recorded. */
+        private Map<Glyph, Evaluation> evaluations;
+
+        /** Neighborhood of dirty glyphs, for the current inspection. */
+        private Set<Glyph> neighbors;
+
+        //~ Constructors -------------------------------------------------------
+        public Snapshot (boolean wide)
+        {
+            this.wide = wide;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        //---------------//
+        // getCandidates //
+        //---------------//
+        /**
+         * Report the glyphs to process, that is the dirty glyphs and
+         * the glyphs in their neighborhood.
+         * The neighborhood is computed only once per inspection, later calls
+         * just add the glyphs created since then.
+         *
+         * @return the glyphs to process (all glyphs when there is no
+         *         previous inspection or when incremental inspection is off)
+         */
+        public SortedSet<Glyph> getCandidates ()
+        {
+            if ((evaluations == null)
+                || !constants.incrementalInspection.isSet()) {
+                return system.getGlyphs();
+            }
+
+            final Collection<Glyph> current = system.getGlyphs();
+
+            if (neighbors == null) {
+                neighbors = getNeighbors(current);
+            }
+
+            final SortedSet<Glyph> candidates = new TreeSet<>(Glyph.byAbscissa);
+
+            for (Glyph glyph : current) {
+                if (neighbors.contains(glyph)
+                    || !evaluations.containsKey(glyph)) {
+                    candidates.add(glyph);
+                }
+            }
+
+            logger.debug("S#{} {} inspection of {}/{} glyphs",
+                    system.getId(), wide ? "wide" : "standard",
+                    candidates.size(), current.size());
+
+            return candidates;
+        }
+
+        //--------------//
+        // getNeighbors //
+        //--------------//
+        /**
+         * Report the glyphs in the neighborhood of the glyphs created,
+         * reshaped or removed since the previous inspection.
+         *
+         * @param current the current system glyphs
+         * @return the neighboring glyphs
+         */
+        private Set<Glyph> getNeighbors (Collection<Glyph> current)
+        {
+            final List<Rectangle> areas = new ArrayList<>();
+
+            // Glyphs created or reshaped
+            for (Glyph glyph : current) {
+                if (!evaluations.containsKey(glyph)
+                    || (evaluations.get(glyph) != glyph.getEvaluation())) {
+                    addArea(areas, glyph);
+                }
+            }
+
+            // Glyphs removed, their neighbors have changed
+            final Set<Glyph> present = new HashSet<>(current);
+
+            for (Entry<Glyph, Evaluation> entry : evaluations.entrySet()) {
+                if (!present.contains(entry.getKey())) {
+                    addArea(areas, entry.getKey());
+                }
+            }
+
+            // Extend to neighbors
+            final Scale scale = system.getScoreSystem().getScale();
+            final int margin = scale.toPixels(constants.boxMargin);
+            final int widen = wide ? scale.toPixels(constants.boxWiden)
+                              : margin;
+            final Set<Glyph> found = new HashSet<>();
+
+            for (Rectangle area : areas) {
+                area.grow(widen, margin);
+                found.addAll(system.lookupIntersectedGlyphs(area));
+            }
+
+            return found;
+        }
+
+        //---------//
+        // addArea //
+        //---------//
+        /**
+         * Add the bounds of the provided glyph, if any.
+         */
+        private void addArea (List<Rectangle> areas,
+                              Glyph glyph)
+        {
+            final Rectangle bounds = glyph.getBounds();
+
+            if (bounds != null) {
+                areas.add(bounds);
+            }
+        }
+
+        //--------//
+        // record //
+        //--------//
+        /**
+         * Record the current state of system glyphs.
+         */
+        public void record ()
+        {
+            neighbors = null;
+
+            if (!constants.incrementalInspection.isSet()) {
+                evaluations = null;
+
+                return;
+            }
+
+            evaluations = new HashMap<>();
+
+            for (Glyph glyph : system.getGlyphs()) {
+                evaluations.put(glyph, glyph.getEvaluation());
+            }
+        }
+    }
 }
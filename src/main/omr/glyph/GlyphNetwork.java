@@ -17,6 +17,7 @@ import omr.constant.ConstantSet;
 import omr.glyph.facets.Glyph;
 
 import omr.math.NeuralNetwork;
+import omr.math.ParallelTrainer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -383,6 +384,17 @@ public class GlyphNetwork
             list.add(glyph);
         }
 
+        // Starting options
+        if (mode == StartingMode.SCRATCH) {
+            engine = createNetwork();
+        }
+
+        if (constants.useParallelTraining.isSet()) {
+            trainInParallel(shapeGlyphs, quorum, monitor);
+
+            return;
+        }
+
         List<Glyph> newGlyphs = new ArrayList<>();
 
         for (List<Glyph> list : shapeGlyphs.values()) {
@@ -427,13 +439,70 @@ public class GlyphNetwork
             ig++;
         }
 
-        // Starting options
-        if (mode == StartingMode.SCRATCH) {
-            engine = createNetwork();
+        // Train on the patterns
+        try {
+            engine.train(inputs, desiredOutputs, monitor);
+        } finally {
+            // Grades computed by the former engine are now obsolete
+            invalidateCache();
         }
+    }
 
-        // Train on the patterns
-        engine.train(inputs, desiredOutputs, monitor);
+    //-----------------//
+    // trainInParallel //
+    //-----------------//
+    /**
+     * Train the network by parallel mini-batches.
+     * Rather than being duplicated up to the quorum, the glyphs of a rare
+     * shape get a higher weight.
+     *
+     * @param shapeGlyphs the training glyphs, per shape
+     * @param quorum      the minimum number of glyphs per shape
+     * @param monitor     the monitoring entity if any
+     */
+    private void trainInParallel (EnumMap<Shape, List<Glyph>> shapeGlyphs,
+                                  int quorum,
+                                  Monitor monitor)
+    {
+        List<double[]> inputs = new ArrayList<>();
+        List<double[]> desiredOutputs = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+
+        for (List<Glyph> list : shapeGlyphs.values()) {
+            double weight = Math.max(1.0, (double) quorum / list.size());
+
+            for (Glyph glyph : list) {
+                inputs.add(ShapeDescription.features(glyph));
+
+                double[] des = new double[shapeCount];
+                des[glyph.getShape().getPhysicalShape().ordinal()] = 1;
+                desiredOutputs.add(des);
+                weights.add(weight);
+            }
+        }
+
+        double[] ws = new double[weights.size()];
+
+        for (int i = 0; i < ws.length; i++) {
+            ws[i] = weights.get(i);
+        }
+
+        ParallelTrainer trainer = new ParallelTrainer(engine);
+        trainer.setBatchSize(constants.batchSize.getValue());
+        trainer.setValidationRatio(constants.validationRatio.getValue());
+        trainer.setPatience(constants.patience.getValue());
+        trainer.setSnapshotPeriod(constants.snapshotPeriod.getValue());
+
+        try {
+            trainer.train(
+                    inputs.toArray(new double[inputs.size()][]),
+                    desiredOutputs.toArray(new double[desiredOutputs.size()][]),
+                    ws,
+                    monitor);
+        } finally {
+            // Grades computed by the former engine are now obsolete
+            invalidateCache();
+        }
     }
 
     //-------------//
@@ -445,34 +514,66 @@ public class GlyphNetwork
         return FILE_NAME;
     }
 
-    //-------------------//
-    // getRawEvaluations //
-    //-------------------//
+    //--------------//
+    // getRawGrades //
+    //--------------//
     @Override
-    protected Evaluation[] getRawEvaluations (Glyph glyph)
+    protected double[] getRawGrades (Glyph glyph)
     {
         // If too small, it's just NOISE
         if (!isBigEnough(glyph)) {
-            return noiseEvaluations;
+            return null;
         } else {
             double[] ins = ShapeDescription.features(glyph);
-            double[] outs = new double[shapeCount];
-            Evaluation[] evals = new Evaluation[shapeCount];
-            Shape[] values = Shape.values();
-
-            engine.run(ins, null, outs);
+            double[] outs = engine.run(ins, null, null);
 
+            // Use a grade in 0 .. 100 range
             for (int s = 0; s < shapeCount; s++) {
-                Shape shape = values[s];
-                // Use a grade in 0 .. 100 range
-                evals[s] = new Evaluation(shape, 100 * outs[s]);
+                outs[s] *= 100;
+            }
+
+            return outs;
+        }
+    }
+
+    //--------------//
+    // getRawGrades //
+    //--------------//
+    /**
+     * Run the network on a whole block of glyphs at once.
+     */
+    @Override
+    protected double[][] getRawGrades (List<Glyph> glyphs)
+    {
+        final double[][] grades = new double[glyphs.size()][];
+
+        // Only glyphs big enough are given to the network
+        final List<Integer> indices = new ArrayList<>(glyphs.size());
+
+        for (int i = 0; i < grades.length; i++) {
+            if (isBigEnough(glyphs.get(i))) {
+                indices.add(i);
             }
+        }
+
+        final double[][] ins = new double[indices.size()][];
+
+        for (int b = 0; b < ins.length; b++) {
+            ins[b] = ShapeDescription.features(glyphs.get(indices.get(b)));
+        }
 
-            // Order the evals from best to worst
-            Arrays.sort(evals);
+        final double[][] outs = engine.run(ins);
 
-            return evals;
+        for (int b = 0; b < outs.length; b++) {
+            // Use a grade in 0 .. 100 range
+            for (int s = 0; s < shapeCount; s++) {
+                outs[b][s] *= 100;
+            }
+
+            grades[indices.get(b)] = outs[b];
         }
+
+        return grades;
     }
 
     //---------//
@@ -547,5 +648,28 @@ public class GlyphNetwork
 
         Constant.Ratio momentum = new Constant.Ratio(0.2, "Training momentum");
 
+        Constant.Boolean useParallelTraining = new Constant.Boolean(
+                false,
+                "Should we train by parallel mini-batches?");
+
+        Constant.Integer batchSize = new Constant.Integer(
+                "Glyphs",
+                64,
+                "Number of glyphs per mini-batch, in parallel training");
+
+        Constant.Ratio validationRatio = new Constant.Ratio(
+                0.1,
+                "Ratio of glyphs kept for validation, in parallel training");
+
+        Constant.Integer patience = new Constant.Integer(
+                "Epochs",
+                100,
+                "Epochs without validation progress before stopping (0 for no limit)");
+
+        Constant.Integer snapshotPeriod = new Constant.Integer(
+                "Epochs",
+                50,
+                "Epochs between network snapshots, in parallel training");
+
     }
 }
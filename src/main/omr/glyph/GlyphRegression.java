@@ -63,6 +63,15 @@ public class GlyphRegression
     /** The singleton */
     private static volatile GlyphRegression INSTANCE;
 
+    /** Category names, in shape order */
+    private static final String[] shapeNames = new String[shapeCount];
+
+    static {
+        for (int s = 0; s < shapeCount; s++) {
+            shapeNames[s] = Shape.values()[s].toString();
+        }
+    }
+
     //~ Instance fields --------------------------------------------------------
     /** The encapsulated linear evaluator */
     private LinearEvaluator engine;
@@ -525,7 +534,12 @@ public class GlyphRegression
         }
 
         // Do the training
-        engine.train(samples);
+        try {
+            engine.train(samples);
+        } finally {
+            // Grades computed by the former engine are now obsolete
+            invalidateCache();
+        }
 
         // Save to disk
         marshal();
@@ -540,31 +554,24 @@ public class GlyphRegression
         return BACKUP_FILE_NAME;
     }
 
-    //-------------------//
-    // getRawEvaluations //
-    //-------------------//
+    //--------------//
+    // getRawGrades //
+    //--------------//
     @Override
-    protected Evaluation[] getRawEvaluations (Glyph glyph)
+    protected double[] getRawGrades (Glyph glyph)
     {
         // If too small, it's just NOISE
         if (!isBigEnough(glyph)) {
-            return noiseEvaluations;
+            return null;
         } else {
             double[] ins = ShapeDescription.features(glyph);
-            Evaluation[] evals = new Evaluation[shapeCount];
-            Shape[] values = Shape.values();
+            double[] grades = engine.categoryDistances(ins, shapeNames);
 
             for (int s = 0; s < shapeCount; s++) {
-                Shape shape = values[s];
-                evals[s] = new Evaluation(
-                        shape,
-                        1d / measureDistance(ins, shape));
+                grades[s] = 1d / grades[s];
             }
 
-            // Order the evals from best to worst
-            Arrays.sort(evals);
-
-            return evals;
+            return grades;
         }
     }
 
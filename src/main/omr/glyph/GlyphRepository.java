@@ -13,6 +13,9 @@ package omr.glyph;
 
 import omr.WellKnowns;
 
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
 import omr.glyph.facets.BasicGlyph;
 import omr.glyph.facets.Glyph;
 import omr.glyph.facets.GlyphValue;
@@ -41,10 +44,12 @@ import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -72,6 +77,16 @@ import javax.xml.bind.Unmarshaller;
  * These bases are accessible respectively by {@link #getWholeBase} and
  * {@link #getCoreBase} methods.
  *
+ * <p> The sheets and samples folders can also be read from packed
+ * {@link SampleArchive} files, which are (re)built from the XML files whenever
+ * the folder or one of its sheet directories is more recent. Glyphs can then
+ * be read concurrently, without parsing any XML.
+ * Since only directory dates are checked, a glyph file edited in place by
+ * hand requires its directory to be touched (the repository does so when it
+ * writes glyph files, as does the black list).
+ * Each new archive is written under a new version number, so that an older
+ * archive still mapped in memory is never overwritten.
+ *
  * @author Hervé Bitteur
  */
 public class GlyphRepository
@@ -82,6 +97,9 @@ public class GlyphRepository
     private static final Logger logger = LoggerFactory.getLogger(
             GlyphRepository.class);
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** The single instance of this class */
     private static volatile GlyphRepository INSTANCE;
 
@@ -147,10 +165,13 @@ public class GlyphRepository
      * Map of all glyphs deserialized so far, using full glyph name as
      * key. Full glyph name format is : sheetName/Shape.id.xml
      */
-    private final Map<String, Glyph> glyphsMap = new TreeMap<>();
+    private final ConcurrentMap<String, Glyph> glyphsMap = new ConcurrentSkipListMap<>();
 
     /** Inverse map */
-    private final Map<Glyph, String> namesMap = new HashMap<>();
+    private final Map<Glyph, String> namesMap = new ConcurrentHashMap<>();
+
+    /** Sample archives opened so far, per folder name */
+    private final ConcurrentMap<String, SampleArchive> archives = new ConcurrentHashMap<>();
 
     //~ Constructors -----------------------------------------------------------
     /** Private singleton constructor */
@@ -207,6 +228,55 @@ public class GlyphRepository
         }
     }
 
+    //---------------//
+    // exportArchive //
+    //---------------//
+    /**
+     * Write back the XML file of every glyph of a folder archive, when
+     * this file does not exist.
+     *
+     * @param folder the folder whose archive is exported
+     * @return the number of XML files written
+     * @throws IOException if the archive could not be read
+     */
+    public int exportArchive (File folder)
+            throws IOException
+    {
+        File archiveFile = archiveFileOf(folder);
+
+        if (archiveFile == null) {
+            throw new IOException("No archive for " + folder);
+        }
+
+        SampleArchive archive = SampleArchive.open(archiveFile);
+        int count = 0;
+
+        for (String gName : archive.getNames()) {
+            File file = new File(WellKnowns.TRAIN_FOLDER, gName);
+
+            if (file.exists()) {
+                continue;
+            }
+
+            file.getParentFile()
+                    .mkdirs();
+
+            try (OutputStream os = new FileOutputStream(file)) {
+                jaxbMarshal(archive.getGlyph(gName), os);
+                count++;
+            } catch (Exception ex) {
+                logger.warn("Error exporting " + gName, ex);
+            }
+        }
+
+        // Archive and XML files are now in sync
+        archiveFile.setLastModified(System.currentTimeMillis());
+
+        logger.info("{} glyphs exported from {}", count, archiveFile);
+
+        return count;
+    }
+
     //-------------//
     // getCoreBase //
     //-------------//
@@ -235,37 +305,49 @@ public class GlyphRepository
      * Return a glyph knowing its full glyph name, which is the name of
      * the corresponding training material.
      * If not already done, the glyph is deserialized from the training file,
-     * searching first in the icons area, then the train area.
+     * searching first in the icons area, then the sample archives, then the
+     * train area.
+     * This method can be called concurrently.
      *
      * @param gName   the full glyph name (format is: sheetName/Shape.id.xml)
      * @param monitor the monitor, if any, to be kept informed of glyph loading
      * @return the glyph instance if found, null otherwise
      */
-    public synchronized Glyph getGlyph (String gName,
-                                        Monitor monitor)
+    public Glyph getGlyph (String gName,
+                           Monitor monitor)
     {
         // First, try the map of glyphs
         Glyph glyph = glyphsMap.get(gName);
 
         if (glyph == null) {
-            // If failed, actually load the glyph from XML backup file.
+            // If failed, actually load the glyph from archive or XML file.
             if (isIcon(gName)) {
                 glyph = buildSymbolGlyph(gName);
             } else {
-                File file = new File(WellKnowns.TRAIN_FOLDER, gName);
+                glyph = getArchivedGlyph(gName);
 
-                if (!file.exists()) {
-                    logger.warn("Unable to find file for glyph {}", gName);
+                if (glyph == null) {
+                    File file = new File(WellKnowns.TRAIN_FOLDER, gName);
 
-                    return null;
-                }
+                    if (!file.exists()) {
+                        logger.warn("Unable to find file for glyph {}", gName);
 
-                glyph = buildGlyph(gName, file);
+                        return null;
+                    }
+
+                    glyph = buildGlyph(gName, file);
+                }
             }
 
             if (glyph != null) {
-                glyphsMap.put(gName, glyph);
-                namesMap.put(glyph, gName);
+                // Another thread may have loaded the same glyph meanwhile
+                Glyph old = glyphsMap.putIfAbsent(gName, glyph);
+
+                if (old != null) {
+                    glyph = old;
+                } else {
+                    namesMap.put(glyph, gName);
+                }
             }
 
             if (monitor != null) {
@@ -400,6 +482,64 @@ public class GlyphRepository
         return wholeBase;
     }
 
+    //---------------//
+    // importArchive //
+    //---------------//
+    /**
+     * Build the archive of a folder out of its (legal) XML files, and
+     * make it the current archive for this folder.
+     * The new archive file gets a new version number, and the older files
+     * are deleted unless they are still in use.
+     *
+     * @param folder the folder to archive
+     * @return the new archive
+     * @throws IOException if the archive could not be written
+     */
+    public SampleArchive importArchive (File folder)
+            throws IOException
+    {
+        List<File> files = new ArrayList<>(4000);
+        loadDirectory(folder, files);
+
+        Map<String, Glyph> glyphs = new LinkedHashMap<>(2 * files.size());
+
+        for (File file : files) {
+            if (FileUtil.getExtension(file).equals(FILE_EXTENSION)) {
+                Glyph glyph = buildGlyph(glyphNameOf(file), file);
+
+                if (glyph != null) {
+                    glyphs.put(glyphNameOf(file), glyph);
+                }
+            }
+        }
+
+        // Never overwrite an archive file, which may still be mapped
+        File oldFile = archiveFileOf(folder);
+        long version = System.currentTimeMillis();
+
+        if (oldFile != null) {
+            version = Math.max(version, versionOf(folder, oldFile) + 1);
+        }
+
+        File archiveFile = new File(
+                WellKnowns.TRAIN_FOLDER,
+                folder.getName() + "-" + version
+                + SampleArchive.ARCHIVE_EXTENSION);
+        SampleArchive.write(archiveFile, glyphs);
+
+        SampleArchive archive = SampleArchive.open(archiveFile);
+        archives.put(folder.getName(), archive);
+
+        // Purge older versions, a mapped file may resist until next time
+        for (File file : listArchiveFiles(folder)) {
+            if (!file.equals(archiveFile) && !file.delete()) {
+                logger.debug("Could not delete {}", file);
+            }
+        }
+
+        return archive;
+    }
+
     //--------//
     // isIcon //
     //--------//
@@ -635,6 +775,30 @@ public class GlyphRepository
         }
     }
 
+    //---------------//
+    // archiveFileOf //
+    //---------------//
+    /**
+     * Report the current archive file of a folder, that is the one with
+     * the highest version.
+     *
+     * @param folder the archived folder
+     * @return the current archive file, or null if none
+     */
+    private File archiveFileOf (File folder)
+    {
+        File current = null;
+
+        for (File file : listArchiveFiles(folder)) {
+            if ((current == null)
+                || (versionOf(folder, file) > versionOf(folder, current))) {
+                current = file;
+            }
+        }
+
+        return current;
+    }
+
     //------------//
     // buildGlyph //
     //------------//
@@ -737,6 +901,64 @@ public class GlyphRepository
         }
     }
 
+    //------------//
+    // getArchive //
+    //------------//
+    /**
+     * Report the up-to-date archive of a folder, rebuilding it if the
+     * folder or any of its directories is more recent.
+     *
+     * @param folder the archived folder
+     * @return the archive, or null if it could not be used
+     */
+    private SampleArchive getArchive (File folder)
+    {
+        try {
+            File archiveFile = archiveFileOf(folder);
+
+            if ((archiveFile == null)
+                || (lastModified(folder) > archiveFile.lastModified())) {
+                return importArchive(folder);
+            }
+
+            SampleArchive archive = archives.get(folder.getName());
+
+            if ((archive == null) || !archive.getFile()
+                    .equals(archiveFile)) {
+                archive = SampleArchive.open(archiveFile);
+                archives.put(folder.getName(), archive);
+            }
+
+            return archive;
+        } catch (IOException ex) {
+            logger.warn("Could not use archive for " + folder, ex);
+
+            return null;
+        }
+    }
+
+    //------------------//
+    // getArchivedGlyph //
+    //------------------//
+    /**
+     * Build the glyph from the archive of its folder, if any.
+     *
+     * @param gName the glyph name
+     * @return the glyph, or null if not archived
+     */
+    private Glyph getArchivedGlyph (String gName)
+    {
+        int sep = gName.indexOf(File.separator);
+
+        if (sep == -1) {
+            return null;
+        }
+
+        SampleArchive archive = archives.get(gName.substring(0, sep));
+
+        return (archive != null) ? archive.getGlyph(gName) : null;
+    }
+
     //----------------//
     // getJaxbContext //
     //----------------//
@@ -814,6 +1036,15 @@ public class GlyphRepository
         }
     }
 
+    //------------//
+    // isArchived //
+    //------------//
+    private boolean isArchived (File folder)
+    {
+        return constants.useArchives.isSet()
+               && (folder.equals(sheetsFolder) || folder.equals(samplesFolder));
+    }
+
     //--------//
     // isIcon //
     //--------//
@@ -848,6 +1079,58 @@ public class GlyphRepository
         return new BasicGlyph(value);
     }
 
+    //--------------//
+    // lastModified //
+    //--------------//
+    /**
+     * Report the latest modification of an archived folder, using only
+     * the dates of the folder and of its direct entries (the sheet
+     * directories), which change when glyph files are added or removed, or
+     * when the directory is stamped after a file is rewritten in place.
+     * Glyph files themselves are not looked at.
+     *
+     * @param folder the archived folder
+     * @return the latest modification time
+     */
+    private long lastModified (File folder)
+    {
+        long last = folder.lastModified();
+        File[] files = folder.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                last = Math.max(last, file.lastModified());
+            }
+        }
+
+        return last;
+    }
+
+    //------------------//
+    // listArchiveFiles //
+    //------------------//
+    /**
+     * Report all the archive files of a folder, whatever their version.
+     *
+     * @param folder the archived folder
+     * @return the archive files found
+     */
+    private List<File> listArchiveFiles (File folder)
+    {
+        List<File> list = new ArrayList<>();
+        File[] files = WellKnowns.TRAIN_FOLDER.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                if (versionOf(folder, file) != -1) {
+                    list.add(file);
+                }
+            }
+        }
+
+        return list;
+    }
+
     //----------------//
     // listLegalFiles //
     //----------------//
@@ -870,25 +1153,29 @@ public class GlyphRepository
     private synchronized List<String> loadBase (File[] paths,
                                                 Monitor monitor)
     {
-        // Files in the provided directory & its subdirectories
-        List<File> files = new ArrayList<>(4000);
+        List<String> base = new ArrayList<>(4000);
 
         for (File path : paths) {
-            loadDirectory(path, files);
-        }
+            SampleArchive archive = isArchived(path) ? getArchive(path) : null;
 
-        if (monitor != null) {
-            monitor.setTotalGlyphs(files.size());
-        }
+            if (archive != null) {
+                base.addAll(archive.getNames());
+            } else {
+                // Files in the provided directory & its subdirectories
+                List<File> files = new ArrayList<>(4000);
+                loadDirectory(path, files);
 
-        // Now, collect the glyphs names
-        List<String> base = new ArrayList<>(files.size());
+                for (File file : files) {
+                    base.add(glyphNameOf(file));
+                }
+            }
+        }
 
-        for (File file : files) {
-            base.add(glyphNameOf(file));
+        if (monitor != null) {
+            monitor.setTotalGlyphs(base.size());
         }
 
-        logger.debug("{} glyphs names collected", files.size());
+        logger.debug("{} glyphs names collected", base.size());
 
         return base;
     }
@@ -989,6 +1276,9 @@ public class GlyphRepository
             os = new FileOutputStream(glyphFile);
             jaxbMarshal(glyph, os);
 
+            // Rewriting a file does not change the date of its directory
+            dir.setLastModified(System.currentTimeMillis());
+
             return 1;
         } catch (Throwable ex) {
             logger.warn("Error storing " + glyph, ex);
@@ -1033,6 +1323,37 @@ public class GlyphRepository
         }
     }
 
+    //-----------//
+    // versionOf //
+    //-----------//
+    /**
+     * Report the version of an archive file of a folder.
+     *
+     * @param folder the archived folder
+     * @param file   the file to check (ex: sheets-1364470000000.archive)
+     * @return the archive version, or -1 if not an archive of this folder
+     */
+    private long versionOf (File folder,
+                            File file)
+    {
+        final String prefix = folder.getName() + "-";
+        final String name = file.getName();
+
+        if (!name.startsWith(prefix)
+            || !name.endsWith(SampleArchive.ARCHIVE_EXTENSION)) {
+            return -1;
+        }
+
+        try {
+            return Long.parseLong(
+                    name.substring(
+                    prefix.length(),
+                    name.length() - SampleArchive.ARCHIVE_EXTENSION.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
     //~ Inner Interfaces -------------------------------------------------------
     //---------//
     // Monitor //
@@ -1068,4 +1389,20 @@ public class GlyphRepository
          */
         void setTotalGlyphs (int total);
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useArchives = new Constant.Boolean(
+                false,
+                "Should we read sheets and samples glyphs from packed archives?");
+
+    }
 }
@@ -19,7 +19,9 @@ import omr.moments.GeometricMoments;
  * Class {@code GlyphSignature} is used to implement a map of glyphs,
  * based only on their physical properties.
  *
- * <p>The signature is implemented using the glyph moments.</p>
+ * <p>The signature is implemented using the glyph moments.
+ * Comparisons work on primitive values and the hash code is computed once,
+ * since signatures are heavily used as map keys.</p>
  *
  * @author Hervé Bitteur
  */
@@ -34,6 +36,9 @@ public class GlyphSignature
     /** Glyph normalized moments */
     private GeometricMoments moments;
 
+    /** Cached hash code */
+    private int hash;
+
     //~ Constructors -----------------------------------------------------------
     //----------------//
     // GlyphSignature //
@@ -47,6 +52,7 @@ public class GlyphSignature
     {
         weight = glyph.getWeight();
         moments = new GeometricMoments(glyph.getGeometricMoments());
+        hash = (41 * ((41 * 7) + weight)) + moments.hashCode();
     }
 
     //----------------//
@@ -74,8 +80,8 @@ public class GlyphSignature
             return 1;
         }
 
-        final Double[] values = moments.getValues();
-        final Double[] otherValues = other.moments.getValues();
+        final double[] values = moments.getValues();
+        final double[] otherValues = other.moments.getValues();
 
         for (int i = 0; i < values.length; i++) {
             int cmp = Double.compare(values[i], otherValues[i]);
@@ -99,7 +105,9 @@ public class GlyphSignature
         }
 
         if (obj instanceof GlyphSignature) {
-            return compareTo((GlyphSignature) obj) == 0;
+            final GlyphSignature that = (GlyphSignature) obj;
+
+            return (hash == that.hash) && (compareTo(that) == 0);
         } else {
             return false;
         }
@@ -119,9 +127,6 @@ public class GlyphSignature
     @Override
     public int hashCode ()
     {
-        int hash = 7;
-        hash = (41 * hash) + this.weight;
-
         return hash;
     }
 
@@ -73,6 +73,14 @@ public interface Nest
      */
     Glyph addGlyph (Glyph glyph);
 
+    /**
+     * Register a spatial index on some glyphs of this nest, so that it
+     * gets notified of any glyph geometry change.
+     *
+     * @param index the glyph index to register
+     */
+    void addGlyphIndex (GlyphIndex index);
+
     /**
      * Remove link and subscription to locationService
      *
@@ -166,6 +174,14 @@ public interface Nest
      */
     Set<Glyph> getSelectedGlyphSet ();
 
+    /**
+     * Notify the nest that the geometry of one of its registered glyphs
+     * has been modified, so that the glyph indexes can update its bounds.
+     *
+     * @param glyph the modified glyph
+     */
+    void geometryChanged (Glyph glyph);
+
     /**
      * Check whether the provided glyph is among the VIP ones
      *
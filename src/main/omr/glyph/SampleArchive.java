@@ -0,0 +1,504 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                         S a m p l e A r c h i v e                          //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.glyph;
+
+import omr.glyph.facets.BasicGlyph;
+import omr.glyph.facets.Glyph;
+import omr.glyph.facets.GlyphValue;
+
+import omr.lag.BasicSection;
+import omr.lag.Section;
+
+import omr.run.Orientation;
+import omr.run.Run;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Class {@code SampleArchive} is a packed, read-only store of training
+ * glyphs, meant to replace the loading of thousands of individual XML
+ * files.
+ *
+ * <p>An archive file begins with a header and an index which maps each glyph
+ * name to the offset of its record. Each record holds the glyph attributes,
+ * its sections with their runs, and optionally the glyph features as computed
+ * by {@link ShapeDescription} at archive creation.
+ * Features are ignored on reading if the current feature labels no longer
+ * match those used when the archive was written.
+ *
+ * <p>The file is memory-mapped once and all reads use absolute positions,
+ * hence the same archive can be read concurrently without synchronization.
+ *
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class SampleArchive
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            SampleArchive.class);
+
+    /** Extension for archive files */
+    public static final String ARCHIVE_EXTENSION = ".archive";
+
+    /** Magic number, for "OMRA" */
+    private static final int MAGIC = 0x4F4D5241;
+
+    /** Current format version */
+    private static final int VERSION = 1;
+
+    /** Charset for names */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    //~ Instance fields --------------------------------------------------------
+
+    /** The archive file */
+    private final File file;
+
+    /** The mapped file content */
+    private final MappedByteBuffer buffer;
+
+    /** Record offset, per glyph name, in archive order */
+    private final Map<String, Integer> index;
+
+    /** Are the stored features compatible with current descriptor? */
+    private final boolean featuresValid;
+
+    /** Length of stored features */
+    private final int featuresLength;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //---------------//
+    // SampleArchive //
+    //---------------//
+    private SampleArchive (File file,
+                           MappedByteBuffer buffer)
+            throws IOException
+    {
+        this.file = file;
+        this.buffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a sample archive: " + file);
+        }
+
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive version in " + file);
+        }
+
+        featuresLength = buffer.getInt(8);
+        featuresValid = (featuresLength == ShapeDescription.length())
+                        && (buffer.getInt(12) == labelsHash());
+
+        final int count = buffer.getInt(16);
+        final Map<String, Integer> map = new LinkedHashMap<>(2 * count);
+        int pos = 20;
+
+        for (int i = 0; i < count; i++) {
+            String name = getString(pos);
+            pos += (4 + buffer.getInt(pos));
+            map.put(name, buffer.getInt(pos));
+            pos += 4;
+        }
+
+        // Record offsets are relative to the end of the index
+        for (Map.Entry<String, Integer> entry : map.entrySet()) {
+            entry.setValue(entry.getValue() + pos);
+        }
+
+        index = Collections.unmodifiableMap(map);
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //------//
+    // open //
+    //------//
+    /**
+     * Map an existing archive file.
+     *
+     * @param file the archive file
+     * @return the archive, ready for reading
+     * @throws IOException if the file is not a valid archive
+     */
+    public static SampleArchive open (File file)
+            throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    0,
+                    channel.size());
+
+            return new SampleArchive(file, buffer);
+        }
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write an archive file with the provided glyphs, together with
+     * their features.
+     * The file is first written aside, then renamed, so that a reader never
+     * sees a partial archive.
+     *
+     * @param file   the archive file to write
+     * @param glyphs the glyphs to store, mapped by glyph name
+     * @throws IOException if writing failed
+     */
+    public static void write (File file,
+                              Map<String, Glyph> glyphs)
+            throws IOException
+    {
+        final int length = ShapeDescription.length();
+
+        // Records first, to know their offsets
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                1024 * glyphs.size());
+        DataOutputStream records = new DataOutputStream(bytes);
+        List<Integer> offsets = new ArrayList<>(glyphs.size());
+
+        for (Glyph glyph : glyphs.values()) {
+            offsets.add(records.size());
+            writeRecord(records, glyph, ShapeDescription.features(glyph));
+        }
+
+        records.flush();
+
+        File tmp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(length);
+            out.writeInt(labelsHash());
+            out.writeInt(glyphs.size());
+
+            int i = 0;
+
+            for (String name : glyphs.keySet()) {
+                byte[] chars = name.getBytes(UTF8);
+                out.writeInt(chars.length);
+                out.write(chars);
+                out.writeInt(offsets.get(i++));
+            }
+
+            bytes.writeTo(out);
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Could not replace " + file);
+        }
+
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not rename " + tmp + " as " + file);
+        }
+
+        logger.info("Archived {} glyphs in {}", glyphs.size(), file);
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    /**
+     * Tell whether the archive holds the provided glyph.
+     *
+     * @param gName the glyph name
+     * @return true if found
+     */
+    public boolean contains (String gName)
+    {
+        return index.containsKey(gName);
+    }
+
+    //-------------//
+    // getFeatures //
+    //-------------//
+    /**
+     * Report the features stored for a glyph.
+     *
+     * @param gName the glyph name
+     * @return a fresh array of features, or null if not available
+     */
+    public double[] getFeatures (String gName)
+    {
+        Integer offset = index.get(gName);
+
+        if ((offset == null) || !featuresValid) {
+            return null;
+        }
+
+        return readFeatures(skipGlyph(offset));
+    }
+
+    //---------//
+    // getFile //
+    //---------//
+    /**
+     * Report the underlying file.
+     *
+     * @return the archive file
+     */
+    public File getFile ()
+    {
+        return file;
+    }
+
+    //----------//
+    // getGlyph //
+    //----------//
+    /**
+     * Build a new glyph instance out of the archive.
+     *
+     * @param gName the glyph name
+     * @return the glyph, or null if not found
+     */
+    public Glyph getGlyph (String gName)
+    {
+        Integer offset = index.get(gName);
+
+        if (offset == null) {
+            return null;
+        }
+
+        int pos = offset;
+        final int id = buffer.getInt(pos);
+        final int interline = buffer.getInt(pos + 4);
+        final String shapeName = getString(pos + 8);
+        pos += (12 + buffer.getInt(pos + 8));
+
+        final int stemNumber = buffer.getInt(pos);
+        final boolean withLedger = buffer.get(pos + 4) != 0;
+        final double pitchPosition = buffer.getDouble(pos + 5);
+        final int sectionCount = buffer.getInt(pos + 13);
+        pos += 17;
+
+        SortedSet<Section> members = new TreeSet<>();
+
+        for (int s = 0; s < sectionCount; s++) {
+            Orientation orientation = (buffer.get(pos) != 0)
+                                      ? Orientation.VERTICAL
+                                      : Orientation.HORIZONTAL;
+            BasicSection section = new BasicSection(orientation);
+            section.setFirstPos(buffer.getInt(pos + 1));
+
+            final int runCount = buffer.getInt(pos + 5);
+            pos += 9;
+
+            for (int r = 0; r < runCount; r++) {
+                section.append(
+                        new Run(
+                        buffer.getInt(pos),
+                        buffer.getInt(pos + 4),
+                        buffer.getInt(pos + 8)));
+                pos += 12;
+            }
+
+            members.add(section);
+        }
+
+        Shape shape = shapeName.isEmpty() ? null : Shape.valueOf(shapeName);
+
+        Glyph glyph = new BasicGlyph(
+                new GlyphValue(
+                shape,
+                interline,
+                id,
+                stemNumber,
+                withLedger,
+                pitchPosition,
+                members));
+
+        if (featuresValid) {
+            double[] features = readFeatures(pos);
+
+            if (features != null) {
+                ShapeDescription.preload(glyph, features);
+            }
+        }
+
+        return glyph;
+    }
+
+    //----------//
+    // getNames //
+    //----------//
+    /**
+     * Report the names of all archived glyphs, in archive order.
+     *
+     * @return the glyph names
+     */
+    public List<String> getNames ()
+    {
+        return new ArrayList<>(index.keySet());
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of archived glyphs.
+     *
+     * @return the archive size
+     */
+    public int size ()
+    {
+        return index.size();
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return "{SampleArchive " + file + " glyphs:" + index.size() + "}";
+    }
+
+    //------------//
+    // labelsHash //
+    //------------//
+    private static int labelsHash ()
+    {
+        return Arrays.hashCode(ShapeDescription.getParameterLabels());
+    }
+
+    //-------------//
+    // writeRecord //
+    //-------------//
+    private static void writeRecord (DataOutputStream out,
+                                     Glyph glyph,
+                                     double[] features)
+            throws IOException
+    {
+        Shape shape = glyph.getShape();
+        byte[] shapeName = ((shape != null)
+                            ? shape.getPhysicalShape().name() : "").getBytes(
+                UTF8);
+
+        out.writeInt(glyph.getId());
+        out.writeInt(glyph.getInterline());
+        out.writeInt(shapeName.length);
+        out.write(shapeName);
+        out.writeInt(glyph.getStemNumber());
+        out.writeBoolean(glyph.isWithLedger());
+        out.writeDouble(glyph.getPitchPosition());
+        out.writeInt(glyph.getMembers().size());
+
+        for (Section section : glyph.getMembers()) {
+            out.writeBoolean(section.isVertical());
+            out.writeInt(section.getFirstPos());
+            out.writeInt(section.getRuns().size());
+
+            for (Run run : section.getRuns()) {
+                out.writeInt(run.getStart());
+                out.writeInt(run.getLength());
+                out.writeInt(run.getLevel());
+            }
+        }
+
+        out.writeBoolean(features != null);
+
+        if (features != null) {
+            for (double feature : features) {
+                out.writeDouble(feature);
+            }
+        }
+    }
+
+    //-----------//
+    // getString //
+    //-----------//
+    private String getString (int pos)
+    {
+        final int length = buffer.getInt(pos);
+        final byte[] chars = new byte[length];
+
+        for (int i = 0; i < length; i++) {
+            chars[i] = buffer.get(pos + 4 + i);
+        }
+
+        return new String(chars, UTF8);
+    }
+
+    //--------------//
+    // readFeatures //
+    //--------------//
+    private double[] readFeatures (int pos)
+    {
+        if (buffer.get(pos) == 0) {
+            return null;
+        }
+
+        final double[] features = new double[featuresLength];
+        pos++;
+
+        for (int i = 0; i < featuresLength; i++) {
+            features[i] = buffer.getDouble(pos);
+            pos += 8;
+        }
+
+        return features;
+    }
+
+    //-----------//
+    // skipGlyph //
+    //-----------//
+    /**
+     * Skip the glyph part of a record.
+     *
+     * @param offset the record offset
+     * @return the offset of the features part
+     */
+    private int skipGlyph (int offset)
+    {
+        int pos = offset + 8;
+        pos += (4 + buffer.getInt(pos)); // Shape name
+
+        final int sectionCount = buffer.getInt(pos + 13);
+        pos += 17;
+
+        for (int s = 0; s < sectionCount; s++) {
+            pos += (9 + (12 * buffer.getInt(pos + 5)));
+        }
+
+        return pos;
+    }
+}
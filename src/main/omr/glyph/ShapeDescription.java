@@ -11,21 +11,40 @@
 // </editor-fold>
 package omr.glyph;
 
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
 import omr.glyph.facets.Glyph;
 
+import omr.run.Orientation;
+
+import omr.util.BoundedCache;
+
 /**
  * Class {@code ShapeDescription} builds the glyphs features to be used
  * by an evaluator.
  *
+ * <p>Since the computation of moments is costly, and since the same pixels
+ * are often described again through transient glyphs, the features are
+ * cached by glyph {@link Key}.
+ *
  * @author Hervé Bitteur
  */
 public abstract class ShapeDescription
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     ///private static final Descriptor INSTANCE = new ShapeDescriptorGeo();
     private static final Descriptor INSTANCE = new ShapeDescriptorART();
 
+    /** Features already computed, indexed by glyph key. */
+    private static final BoundedCache<Key, double[]> cache = new BoundedCache<>(
+            "features",
+            constants.maxCacheSize.getValue());
+
     //~ Constructors -----------------------------------------------------------
     private ShapeDescription ()
     {
@@ -51,7 +70,33 @@ public abstract class ShapeDescription
      */
     public static double[] features (Glyph glyph)
     {
-        return INSTANCE.features(glyph);
+        if (!constants.useCache.isSet()) {
+            return INSTANCE.features(glyph);
+        }
+
+        final Key key = new Key(glyph);
+        double[] features = cache.get(key);
+
+        if (features == null) {
+            features = INSTANCE.features(glyph);
+            cache.put(key, features);
+        }
+
+        // Callers are free to modify their copy
+        return features.clone();
+    }
+
+    //----------//
+    // getCache //
+    //----------//
+    /**
+     * Report the cache of features, for statistics.
+     *
+     * @return the features cache
+     */
+    public static BoundedCache<Key, double[]> getCache ()
+    {
+        return cache;
     }
 
     //-------------------//
@@ -94,6 +139,25 @@ public abstract class ShapeDescription
         return INSTANCE.length();
     }
 
+    //---------//
+    // preload //
+    //---------//
+    /**
+     * Record the features of a glyph, when they are already known,
+     * typically because they were stored along with the glyph.
+     * Features of the wrong length are ignored.
+     *
+     * @param glyph    the glyph at hand
+     * @param features the glyph features
+     */
+    public static void preload (Glyph glyph,
+                                double[] features)
+    {
+        if (constants.useCache.isSet() && (features.length == length())) {
+            cache.put(new Key(glyph), features.clone());
+        }
+    }
+
     //~ Inner Interfaces -------------------------------------------------------
     //
     //------------//
@@ -134,4 +198,116 @@ public abstract class ShapeDescription
          */
         int length ();
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useCache = new Constant.Boolean(
+                true,
+                "Should we cache the glyph features?");
+
+        //
+        Constant.Integer maxCacheSize = new Constant.Integer(
+                "glyphs",
+                20000,
+                "Maximum number of glyphs whose features are cached");
+
+    }
+
+    //-----//
+    // Key //
+    //-----//
+    /**
+     * Identifies the features of a glyph, regardless of the glyph
+     * instance.
+     * Besides the pixels, which are identified by the glyph signature, the
+     * key contains the features which depend on the glyph environment:
+     * the weight normalized by sheet scale, the number of stems attached
+     * and the aspect.
+     * It must be kept consistent with the inputs of the descriptor in use.
+     */
+    public static final class Key
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final GlyphSignature signature;
+
+        private final double normalizedWeight;
+
+        private final int stemNumber;
+
+        private final double aspect;
+
+        //~ Constructors -------------------------------------------------------
+        //
+        //-----//
+        // Key //
+        //-----//
+        /**
+         * Creates the key for the provided glyph.
+         *
+         * @param glyph the glyph at hand
+         */
+        public Key (Glyph glyph)
+        {
+            signature = glyph.getSignature();
+            normalizedWeight = glyph.getNormalizedWeight();
+            stemNumber = glyph.getStemNumber();
+            aspect = glyph.getAspect(Orientation.VERTICAL);
+        }
+
+        //~ Methods ------------------------------------------------------------
+        //
+        //--------//
+        // equals //
+        //--------//
+        @Override
+        public boolean equals (Object obj)
+        {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key that = (Key) obj;
+
+            return (stemNumber == that.stemNumber)
+                   && (Double.compare(normalizedWeight, that.normalizedWeight) == 0)
+                   && (Double.compare(aspect, that.aspect) == 0)
+                   && signature.equals(that.signature);
+        }
+
+        //----------//
+        // hashCode //
+        //----------//
+        @Override
+        public int hashCode ()
+        {
+            int hash = signature.hashCode();
+            hash = (31 * hash) + stemNumber;
+            hash = (31 * hash) + Double.valueOf(aspect).hashCode();
+
+            return hash;
+        }
+
+        //----------//
+        // toString //
+        //----------//
+        @Override
+        public String toString ()
+        {
+            return "{Key " + signature + " nw:" + normalizedWeight + " stems:"
+                   + stemNumber + " aspect:" + aspect + "}";
+        }
+    }
 }
@@ -18,6 +18,7 @@ import omr.sheet.SystemInfo;
 import omr.util.Predicate;
 
 import java.util.EnumSet;
+import java.util.List;
 
 /**
  * Interface {@code ShapeEvaluator} defines the features of a glyph
@@ -97,6 +98,23 @@ public interface ShapeEvaluator
                         double minGrade,
                         Predicate<Shape> predicate);
 
+    /**
+     * Report the best evaluation of each provided glyph, under the
+     * ALLOWED and CHECKED conditions.
+     * This is equivalent to a {@link #vote(Glyph, SystemInfo, double)} call
+     * per glyph, but lets the evaluator process all glyphs in one batch.
+     * All votes are computed before any of them gets assigned.
+     *
+     * @param glyphs   the glyphs to evaluate
+     * @param system   the system containing the glyphs to evaluate
+     * @param minGrade the minimum evaluation grade to be acceptable
+     * @return the best acceptable evaluation (or null) for each glyph, in
+     *         the glyphs order
+     */
+    Evaluation[] vote (List<Glyph> glyphs,
+                       SystemInfo system,
+                       double minGrade);
+
     /**
      * Report the best of all evaluations found by the evaluator on the
      * provided glyph, under the ALLOWED and CHECKED conditions.
@@ -434,16 +434,36 @@ class BasicGeometry
     {
         // Retrieve glyph foreground points
         PointsCollector collector = glyph.getPointsCollector();
+        int[] xx = collector.getXValues();
+        int[] yy = collector.getYValues();
+        int size = collector.getSize();
 
         // Then compute the ART moments with this collector
-        artMoments = new BasicARTMoments();
-
+        ARTMoments moments = new BasicARTMoments();
         BasicARTExtractor extractor = new BasicARTExtractor();
-        extractor.setDescriptor(artMoments);
-        extractor.extract(
-                collector.getXValues(),
-                collector.getYValues(),
-                collector.getSize());
+        extractor.setDescriptor(moments);
+
+        if (geometricMoments != null) {
+            // Reuse mass center & radius
+            extractor.extract(xx, yy, size, geometricMoments);
+        } else {
+            // Compute both kinds of moments in a single pass
+            try {
+                geometricMoments = new GeometricMoments(
+                        xx,
+                        yy,
+                        size,
+                        getInterline(),
+                        extractor);
+            } catch (Exception ex) {
+                logger.warn(
+                        "Glyph #{} Cannot compute moments with unit set to 0",
+                        glyph.getId());
+                extractor.extract(xx, yy, size);
+            }
+        }
+
+        artMoments = moments;
     }
 
     //-------------------------//
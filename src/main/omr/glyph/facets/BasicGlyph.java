@@ -693,6 +693,15 @@ public class BasicGlyph
         for (GlyphFacet facet : facets) {
             facet.invalidateCache();
         }
+
+        // Let spatial indexes know about the new geometry
+        if (administration != null) {
+            Nest nest = administration.getNest();
+
+            if (nest != null) {
+                nest.geometryChanged(this);
+            }
+        }
     }
 
     @Override
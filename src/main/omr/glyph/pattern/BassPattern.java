@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.EnumSet;
 
 /**
  * Class {@code BassPattern} checks for segmented bass clefs, in the
@@ -65,6 +66,15 @@ public class BassPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return EnumSet.of(Shape.DOT_set);
+    }
+
     //------------//
     // runPattern //
     //------------//
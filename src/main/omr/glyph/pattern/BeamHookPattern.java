@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
+import java.util.EnumSet;
 
 /**
  * Class {@code BeamHookPattern} removes beam hooks for which the
@@ -55,6 +56,15 @@ public class BeamHookPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return EnumSet.of(Shape.BEAM_HOOK);
+    }
+
     //------------//
     // runPattern //
     //------------//
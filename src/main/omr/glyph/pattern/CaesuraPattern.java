@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
+import java.util.EnumSet;
 
 /**
  * Class {@code CaesuraPattern} checks that a caesura in a measure
@@ -55,6 +56,15 @@ public class CaesuraPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return EnumSet.of(Shape.CAESURA);
+    }
+
     //------------//
     // runPattern //
     //------------//
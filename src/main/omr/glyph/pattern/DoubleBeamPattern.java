@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Set;
 
 /**
@@ -59,6 +60,15 @@ public class DoubleBeamPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return EnumSet.of(Shape.BEAM);
+    }
+
     //------------//
     // runPattern //
     //------------//
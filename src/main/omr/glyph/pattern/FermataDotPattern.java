@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -64,6 +65,15 @@ public class FermataDotPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return EnumSet.of(Shape.FERMATA, Shape.FERMATA_BELOW);
+    }
+
     //------------//
     // runPattern //
     //------------//
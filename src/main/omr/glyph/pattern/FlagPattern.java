@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
+import java.util.EnumSet;
 
 /**
  * Class {@code FlagPattern} removes flags for which the related stem
@@ -60,6 +61,15 @@ public class FlagPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return ShapeSet.Flags.getShapes();
+    }
+
     //------------//
     // runPattern //
     //------------//
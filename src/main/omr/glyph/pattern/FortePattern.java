@@ -62,6 +62,15 @@ public class FortePattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return EnumSet.of(Shape.DYNAMICS_F);
+    }
+
     //------------//
     // runPattern //
     //------------//
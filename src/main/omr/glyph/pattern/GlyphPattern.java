@@ -11,9 +11,13 @@
 // </editor-fold>
 package omr.glyph.pattern;
 
+import omr.glyph.Shape;
+
 import omr.sheet.Scale;
 import omr.sheet.SystemInfo;
 
+import java.util.EnumSet;
+
 /**
  * Class {@code GlyphPattern} describes a specific pattern applied on
  * glyphs of a given system.
@@ -54,6 +58,22 @@ public abstract class GlyphPattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    /**
+     * Report the shapes this pattern starts from, if any.
+     * When none of these shapes is present in the system, the pattern has
+     * nothing to process and may be skipped.
+     *
+     * @return the triggering shapes, or null if the pattern has no such
+     *         precondition
+     */
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return null;
+    }
+
     //------------//
     // runPattern //
     //------------//
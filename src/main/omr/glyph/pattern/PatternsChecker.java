@@ -11,26 +11,57 @@
 // </editor-fold>
 package omr.glyph.pattern;
 
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
 import omr.glyph.Grades;
+import omr.glyph.Shape;
+import omr.glyph.facets.Glyph;
 
 import omr.sheet.SystemInfo;
 
 import omr.text.TextPattern;
 
+import omr.util.Metrics;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
+import java.util.Locale;
+
 /**
  * Class {@code PatternsChecker} gathers for a given system a series of
  * specific patterns to process (verify, recognize, fix, ...) glyphs
  * in their sheet environment.
  *
+ * <p>The same checker is meant to be used for all the patterns iterations
+ * on a system, so that it can gather statistics per pattern (runs, skips,
+ * modifications and time spent), printed when the printStatistics constant
+ * is set, and fed to {@link Metrics} as "pattern" timers and counters.
+ *
+ * <p>When the adaptivePatterns constant is set, the checker avoids useless
+ * work:
+ * <ul>
+ * <li>A pattern is skipped when none of its
+ * {@link GlyphPattern#getRequiredShapes() required shapes} is present in the
+ * system.</li>
+ * <li>A glyphs inspection is skipped when no pattern has modified anything
+ * since the previous inspection of the same kind.</li>
+ * </ul>
+ * Since any modification may give work to any other pattern, all patterns
+ * are run again on each iteration, and iterations stop only after a whole
+ * iteration with no modification.
+ *
  * @author Hervé Bitteur
  */
 public class PatternsChecker
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(
             PatternsChecker.class);
@@ -43,6 +74,18 @@ public class PatternsChecker
     /** Dedicated system. */
     private final SystemInfo system;
 
+    /** Statistics, parallel to patterns. */
+    private final Stats[] stats;
+
+    /** Are we in adaptive mode? */
+    private final boolean adaptive = constants.adaptivePatterns.isSet();
+
+    /** Shapes currently present in system, null if not known. */
+    private EnumSet<Shape> presentShapes;
+
+    /** Kind of last inspection with no modification since, if any. */
+    private Boolean lastInspection;
+
     //~ Constructors -----------------------------------------------------------
     //
     //-----------------//
@@ -80,24 +123,67 @@ public class PatternsChecker
             ///new SegmentationPattern(system),
             new LeftOverPattern(system)
         };
+
+        stats = new Stats[patterns.length];
+
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
     }
 
     //~ Methods ----------------------------------------------------------------
     //
+    //-----------------//
+    // printStatistics //
+    //-----------------//
+    /**
+     * Print the statistics of each pattern on this system, if so
+     * desired.
+     */
+    public void printStatistics ()
+    {
+        if (!constants.printStatistics.isSet()) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(system.getLogPrefix())
+                .append("S#")
+                .append(system.getId())
+                .append(" patterns (runs/skips modifs ms modifs/ms):");
+
+        for (int i = 0; i < patterns.length; i++) {
+            final Stats st = stats[i];
+            final double ms = st.nanos / 1e6;
+            sb.append(
+                    String.format(
+                    Locale.US,
+                    "%n %-12s %2d/%-2d %4d %8.1f %7.3f",
+                    patterns[i].name,
+                    st.runs,
+                    st.skips,
+                    st.modifs,
+                    ms,
+                    (ms > 0) ? (st.modifs / ms) : 0));
+        }
+
+        logger.info(sb.toString());
+    }
+
     //-------------//
     // runPatterns //
     //-------------//
     /**
      * Run the sequence of pattern on the dedicated system
      *
-     * @return the number of modifications made
+     * @return true if some progress has been made
      */
     public boolean runPatterns ()
     {
         int totalModifs = 0;
         StringBuilder sb = new StringBuilder();
 
-        system.inspectGlyphs(Grades.symbolMinGrade, false);
+        inspect(false);
 
         //        final Step symbolsStep = Steps.valueOf(Steps.SYMBOLS);
         //
@@ -111,13 +197,27 @@ public class PatternsChecker
         //                        symbolsStep.displayUI(system.getSheet());
         //                    }
         //                });
-        for (GlyphPattern pattern : patterns) {
-            logger.debug("Starting {}", pattern);
+        for (int i = 0; i < patterns.length; i++) {
+            final GlyphPattern pattern = patterns[i];
+            final Stats st = stats[i];
 
             system.removeInactiveGlyphs();
 
+            if (adaptive && !isWorthRunning(pattern)) {
+                logger.debug("Skipping {}", pattern);
+                st.skips++;
+                Metrics.count("pattern_skips", pattern.name, 1);
+
+                continue;
+            }
+
+            logger.debug("Starting {}", pattern);
+
+            final Metrics.Sample sample = Metrics.start();
+            int modifs = 0;
+
             try {
-                int modifs = pattern.runPattern();
+                modifs = pattern.runPattern();
 
                 if (logger.isDebugEnabled()) {
                     sb.append(" ")
@@ -132,10 +232,19 @@ public class PatternsChecker
                         system.getLogPrefix() + " error running pattern "
                         + pattern.name,
                         ex);
+            } finally {
+                st.nanos += sample.stop("pattern", pattern.name);
+                st.runs++;
+                st.modifs += modifs;
+            }
+
+            if (modifs != 0) {
+                Metrics.count("pattern_modifications", pattern.name, modifs);
+                modified();
             }
         }
 
-        system.inspectGlyphs(Grades.symbolMinGrade, false);
+        inspect(false);
 
         if (totalModifs > 0) {
             logger.debug("S#{} Patterns{}", system.getId(), sb);
@@ -144,15 +253,111 @@ public class PatternsChecker
         return totalModifs != 0;
     }
 
+    //---------//
+    // inspect //
+    //---------//
+    /**
+     * Inspect the system glyphs, unless in adaptive mode nothing
+     * has been modified since the previous inspection of the same kind.
+     *
+     * @param wide true for a wide inspection
+     */
+    private void inspect (boolean wide)
+    {
+        if (adaptive && (lastInspection != null)
+            && (lastInspection == wide)) {
+            logger.debug("S#{} no need to inspect", system.getId());
+
+            return;
+        }
+
+        system.inspectGlyphs(Grades.symbolMinGrade, wide);
+        presentShapes = null;
+        lastInspection = wide;
+    }
+
+    //----------------//
+    // isWorthRunning //
+    //----------------//
+    /**
+     * In adaptive mode, check whether the provided pattern may have
+     * something to process.
+     *
+     * @param pattern the pattern at hand
+     * @return true if the pattern is to be run
+     */
+    private boolean isWorthRunning (GlyphPattern pattern)
+    {
+        // Inspections decide on their own
+        if (pattern instanceof RefreshPattern) {
+            return true;
+        }
+
+        final EnumSet<Shape> required = pattern.getRequiredShapes();
+
+        if (required == null) {
+            return true;
+        }
+
+        if (presentShapes == null) {
+            presentShapes = EnumSet.noneOf(Shape.class);
+
+            for (Glyph glyph : system.getGlyphs()) {
+                if (glyph.getShape() != null) {
+                    presentShapes.add(glyph.getShape());
+                }
+            }
+        }
+
+        for (Shape shape : required) {
+            if (presentShapes.contains(shape)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //----------//
+    // modified //
+    //----------//
+    /**
+     * Record that glyphs have been modified.
+     */
+    private void modified ()
+    {
+        presentShapes = null;
+        lastInspection = null;
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean adaptivePatterns = new Constant.Boolean(
+                false,
+                "Should we skip patterns and inspections that cannot progress?");
+
+        //
+        Constant.Boolean printStatistics = new Constant.Boolean(
+                false,
+                "Should we print patterns statistics per system?");
+
+    }
+
     //----------------//
     // RefreshPattern //
     //----------------//
     /**
      * Dummy pattern, just to refresh the system glyphs.
      */
-    private static class RefreshPattern
+    private class RefreshPattern
             extends GlyphPattern
     {
         //~ Instance fields ----------------------------------------------------
@@ -163,7 +368,7 @@ public class PatternsChecker
         public RefreshPattern (SystemInfo system,
                                boolean wide)
         {
-            super("Refresh", system);
+            super(wide ? "WideRefresh" : "Refresh", system);
             this.wide = wide;
         }
 
@@ -171,9 +376,33 @@ public class PatternsChecker
         @Override
         public int runPattern ()
         {
-            system.inspectGlyphs(Grades.symbolMinGrade, wide);
+            inspect(wide);
 
             return 0;
         }
     }
+
+    //-------//
+    // Stats //
+    //-------//
+    /**
+     * Statistics of one pattern on the system.
+     */
+    private static class Stats
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Number of actual runs. */
+        int runs;
+
+        /** Number of skipped runs. */
+        int skips;
+
+        /** Total number of modifications. */
+        int modifs;
+
+        /** Total time spent, in nanoseconds. */
+        long nanos;
+
+    }
 }
@@ -75,6 +75,15 @@ public class TimePattern
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------------------//
+    // getRequiredShapes //
+    //-------------------//
+    @Override
+    public EnumSet<Shape> getRequiredShapes ()
+    {
+        return ShapeSet.Times.getShapes();
+    }
+
     //------------//
     // runPattern //
     //------------//
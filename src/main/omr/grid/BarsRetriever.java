@@ -45,6 +45,7 @@ import omr.step.StepException;
 import omr.ui.Colors;
 import omr.ui.util.UIUtil;
 
+import omr.util.Metrics;
 import omr.util.HorizontalSide;
 import static omr.util.HorizontalSide.*;
 import omr.util.VipUtil;
@@ -163,6 +164,7 @@ public class BarsRetriever
         sectionsBuilder.createSections(vertTable);
 
         sheet.setVerticalLag(vLag);
+        Metrics.count("sections", vLag.getName(), vLag.getVertexCount());
 
         // Debug sections VIPs
         for (int id : params.vipSections) {
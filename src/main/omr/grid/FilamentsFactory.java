@@ -42,10 +42,13 @@ import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class {@code FilamentsFactory} builds filaments (long series of
@@ -683,6 +686,10 @@ public class FilamentsFactory
                 }
             }
 
+            // Index glyphs by oriented position, unless a plain scan is desired
+            final PosIndex index = constants.sweepExpansion.isSet()
+                                   ? new PosIndex(glyphs) : null;
+
             // List of filaments, sorted by decreasing length
             Collections.sort(
                     filaments,
@@ -695,42 +702,45 @@ public class FilamentsFactory
                         fil.getBounds());
                 filBounds.grow(params.maxCoordGap, params.maxPosGap);
 
+                // Only the glyphs that intersect the fat box are relevant
+                List<Glyph> candidates = (index != null)
+                                         ? index.lookup(fil, filBounds)
+                                         : scanGlyphs(glyphs, fil, filBounds);
                 boolean expanding = true;
 
                 do {
                     expanding = false;
 
-                    for (Iterator<Glyph> it = glyphs.iterator(); it.hasNext();) {
+                    for (Iterator<Glyph> it = candidates.iterator();
+                            it.hasNext();) {
                         Glyph glyph = it.next();
-                        Rectangle glyphBounds = orientation.oriented(
-                                glyph.getBounds());
 
-                        if (filBounds.intersects(glyphBounds)) {
-                            // Check more closely
-                            if (canMerge(fil, glyph, true)) {
-                                if (logger.isDebugEnabled()
-                                    || fil.isVip()
-                                    || glyph.isVip()) {
-                                    logger.info("Merging {} w/ {}",
-                                            fil,
-                                            Sections.toString(glyph.getMembers()));
-
-                                    if (glyph.isVip()) {
-                                        fil.setVip();
-                                    }
+                        // Check more closely
+                        if (canMerge(fil, glyph, true)) {
+                            if (logger.isDebugEnabled()
+                                || fil.isVip()
+                                || glyph.isVip()) {
+                                logger.info("Merging {} w/ {}",
+                                        fil,
+                                        Sections.toString(glyph.getMembers()));
+
+                                if (glyph.isVip()) {
+                                    fil.setVip();
                                 }
+                            }
 
-                                fil.stealSections(glyph);
-                                it.remove();
-                                expanding = true;
+                            fil.stealSections(glyph);
+                            it.remove();
 
-                                break;
-                            }
-                        } else {
-                            if (fil.isVip() && glyph.isVip()) {
-                                logger.info("No intersection between {} and {}",
-                                        fil, glyph);
+                            if (index != null) {
+                                index.remove(glyph);
+                            } else {
+                                glyphs.remove(glyph);
                             }
+
+                            expanding = true;
+
+                            break;
                         }
                     }
                 } while (expanding);
@@ -848,6 +858,35 @@ public class FilamentsFactory
         }
     }
 
+    //------------//
+    // scanGlyphs //
+    //------------//
+    /**
+     * Browse all the provided glyphs for those whose oriented bounds
+     * intersect the filament fat box.
+     *
+     * @param glyphs the remaining glyphs
+     * @param fil    the filament being expanded
+     * @param box    the oriented fat box of the filament
+     * @return the modifiable list of intersecting glyphs, in original order
+     */
+    private List<Glyph> scanGlyphs (List<Glyph> glyphs,
+                                    Glyph fil,
+                                    Rectangle box)
+    {
+        List<Glyph> candidates = new ArrayList<>();
+
+        for (Glyph glyph : glyphs) {
+            if (box.intersects(orientation.oriented(glyph.getBounds()))) {
+                candidates.add(glyph);
+            } else if (fil.isVip() && glyph.isVip()) {
+                logger.info("No intersection between {} and {}", fil, glyph);
+            }
+        }
+
+        return candidates;
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //-----------//
     // Constants //
@@ -866,6 +905,10 @@ public class FilamentsFactory
                 false,
                 "Should we print out the stop watch?");
 
+        Constant.Boolean sweepExpansion = new Constant.Boolean(
+                true,
+                "Should we sweep expansion glyphs by position, rather than scan them all?");
+
         Constant.Ratio minSectionAspect = new Constant.Ratio(
                 3,
                 "Minimum section aspect (length / thixkness)");
@@ -1004,4 +1047,145 @@ public class FilamentsFactory
             }
         }
     }
+
+    //----------//
+    // PosIndex //
+    //----------//
+    /**
+     * Class {@code PosIndex} sorts the expansion glyphs by oriented
+     * position, so that the glyphs intersecting a filament fat box can be
+     * retrieved by a binary search on position followed by a short sweep,
+     * rather than by browsing the whole population of glyphs.
+     *
+     * <p>Candidates are reported in the order of the original list of glyphs,
+     * so that expansion merges exactly the same glyphs as an exhaustive scan.
+     */
+    private class PosIndex
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Indexed glyphs, in their original order. */
+        private final List<Glyph> glyphs;
+
+        /** Oriented bounds, per glyph. */
+        private final Rectangle[] boxes;
+
+        /** Glyph indices, sorted by oriented position. */
+        private final int[] order;
+
+        /** Oriented position, in the order of sorted glyphs. */
+        private final int[] positions;
+
+        /** Glyphs already merged into some filament. */
+        private final boolean[] removed;
+
+        /** Glyph rank in original list. */
+        private final Map<Glyph, Integer> ranks = new IdentityHashMap<>();
+
+        /** Maximum oriented thickness of all glyphs. */
+        private int maxThickness;
+
+        //~ Constructors -------------------------------------------------------
+        public PosIndex (List<Glyph> glyphs)
+        {
+            this.glyphs = glyphs;
+
+            final int size = glyphs.size();
+            boxes = new Rectangle[size];
+            order = new int[size];
+            positions = new int[size];
+            removed = new boolean[size];
+
+            // Sort (position, index) pairs packed as longs
+            final long[] keys = new long[size];
+
+            for (int i = 0; i < size; i++) {
+                Glyph glyph = glyphs.get(i);
+                boxes[i] = orientation.oriented(glyph.getBounds());
+                maxThickness = Math.max(maxThickness, boxes[i].height);
+                keys[i] = ((long) boxes[i].y << 32) | i;
+                ranks.put(glyph, i);
+            }
+
+            Arrays.sort(keys);
+
+            for (int k = 0; k < size; k++) {
+                order[k] = (int) keys[k];
+                positions[k] = boxes[order[k]].y;
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Report the remaining glyphs whose oriented bounds intersect
+         * the provided oriented box.
+         *
+         * @param fil the filament being expanded
+         * @param box the oriented fat box of the filament
+         * @return the modifiable list of intersecting glyphs, in original order
+         */
+        public List<Glyph> lookup (Glyph fil,
+                                   Rectangle box)
+        {
+            // Any intersecting glyph starts within [posMin .. posMax[
+            final int posMin = (box.y - maxThickness) + 1;
+            final int posMax = box.y + box.height;
+            int lo = 0;
+            int hi = positions.length;
+
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+
+                if (positions[mid] < posMin) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            final int[] found = new int[positions.length - lo];
+            int count = 0;
+
+            for (int k = lo; (k < positions.length) && (positions[k] < posMax);
+                    k++) {
+                final int i = order[k];
+
+                if (!removed[i] && boxes[i].intersects(box)) {
+                    found[count++] = i;
+                }
+            }
+
+            Arrays.sort(found, 0, count);
+
+            List<Glyph> candidates = new ArrayList<>(count);
+
+            for (int c = 0; c < count; c++) {
+                candidates.add(glyphs.get(found[c]));
+            }
+
+            if (fil.isVip()) {
+                for (int i = 0; i < boxes.length; i++) {
+                    Glyph glyph = glyphs.get(i);
+
+                    if (!removed[i] && glyph.isVip()
+                        && !boxes[i].intersects(box)) {
+                        logger.info("No intersection between {} and {}",
+                                fil, glyph);
+                    }
+                }
+            }
+
+            return candidates;
+        }
+
+        /**
+         * Discard a glyph, once merged into a filament.
+         *
+         * @param glyph the merged glyph
+         */
+        public void remove (Glyph glyph)
+        {
+            removed[ranks.get(glyph)] = true;
+        }
+    }
 }
@@ -40,6 +40,7 @@ import omr.sheet.SystemInfo;
 import omr.ui.Colors;
 import omr.ui.util.UIUtil;
 import static omr.util.HorizontalSide.*;
+import omr.util.Metrics;
 import omr.util.Predicate;
 import omr.util.StopWatch;
 import omr.util.VipUtil;
@@ -229,6 +230,7 @@ public class LinesRetriever
         sectionsBuilder.createSections(longHoriTable);
 
         sheet.setHorizontalLag(hLag);
+        Metrics.count("sections", hLag.getName(), hLag.getVertexCount());
 
         setVipSections();
 
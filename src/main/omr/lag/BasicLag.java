@@ -16,6 +16,9 @@ import omr.glyph.ui.ViewParameters;
 
 import omr.graph.BasicDigraph;
 
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
 import omr.run.Orientation;
 import omr.run.Run;
 import omr.run.RunsTable;
@@ -32,6 +35,7 @@ import omr.selection.SelectionHint;
 import omr.selection.SelectionService;
 import omr.selection.UserEvent;
 
+import omr.util.GridIndex;
 import omr.util.Predicate;
 
 import org.bushe.swing.event.EventSubscriber;
@@ -42,14 +46,23 @@ import org.slf4j.LoggerFactory;
 import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class {@code BasicLag} is a basic implementation of {@link Lag}
  * interface.
  *
+ * <p>Rectangle lookups are served by a spatial index on section bounds.
+ * The index is updated incrementally: a removed section leaves the index at
+ * once, while a created or modified section is recorded and re-inserted with
+ * its current bounds on the next lookup.
+ *
  * @author Hervé Bitteur
  */
 public class BasicLag
@@ -59,9 +72,23 @@ public class BasicLag
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(BasicLag.class);
 
+    /** To order lookup results by section id */
+    private static final Comparator<Section> byId = new Comparator<Section>()
+    {
+        @Override
+        public int compare (Section s1,
+                            Section s2)
+        {
+            return Integer.compare(s1.getId(), s2.getId());
+        }
+    };
+
     /** Events read on location service */
     public static final Class[] locEventsRead = new Class<?>[]{LocationEvent.class};
 
@@ -90,6 +117,14 @@ public class BasicLag
     /** Scene service */
     private SelectionService glyphService;
 
+    /** Spatial index on section bounds, guarded by itself */
+    private final GridIndex<Section> index = new GridIndex<>(
+            constants.indexCellSize.getValue());
+
+    /** Sections to be (re-)inserted into the spatial index */
+    private final Set<Section> changedSections = Collections.newSetFromMap(
+            new ConcurrentHashMap<Section, Boolean>());
+
     //~ Constructors -----------------------------------------------------------
     //----------//
     // BasicLag //
@@ -125,6 +160,16 @@ public class BasicLag
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-----------//
+    // addVertex //
+    //-----------//
+    @Override
+    public void addVertex (Section vertex)
+    {
+        super.addVertex(vertex);
+        sectionChanged(vertex);
+    }
+
     //---------//
     // addRuns //
     //---------//
@@ -251,7 +296,7 @@ public class BasicLag
     @Override
     public Set<Section> lookupIntersectedSections (Rectangle rect)
     {
-        return Sections.lookupIntersectedSections(rect, getSections());
+        return Sections.lookupIntersectedSections(rect, getCandidates(rect));
     }
 
     //----------------//
@@ -260,7 +305,7 @@ public class BasicLag
     @Override
     public Set<Section> lookupSections (Rectangle rect)
     {
-        return Sections.lookupSections(rect, getSections());
+        return Sections.lookupSections(rect, getCandidates(rect));
     }
 
     //---------//
@@ -328,6 +373,39 @@ public class BasicLag
         locationService.publish(locationEvent);
     }
 
+    //--------------//
+    // removeVertex //
+    //--------------//
+    @Override
+    public void removeVertex (Section vertex)
+    {
+        super.removeVertex(vertex);
+
+        synchronized (index) {
+            changedSections.remove(vertex);
+            index.remove(vertex);
+        }
+    }
+
+    //---------------//
+    // restoreVertex //
+    //---------------//
+    @Override
+    public void restoreVertex (Section vertex)
+    {
+        super.restoreVertex(vertex);
+        sectionChanged(vertex);
+    }
+
+    //----------------//
+    // sectionChanged //
+    //----------------//
+    @Override
+    public void sectionChanged (Section section)
+    {
+        changedSections.add(section);
+    }
+
     //---------------//
     // purgeSections //
     //---------------//
@@ -440,6 +518,44 @@ public class BasicLag
         return sb.toString();
     }
 
+    //---------------//
+    // getCandidates //
+    //---------------//
+    /**
+     * Report the sections whose bounds intersect the provided
+     * rectangle, using the spatial index.
+     *
+     * @param rect the provided rectangle
+     * @return the candidate sections, ordered by id
+     */
+    private List<Section> getCandidates (Rectangle rect)
+    {
+        List<Section> candidates;
+
+        synchronized (index) {
+            // Re-insert only the sections changed since last lookup
+            for (Iterator<Section> it = changedSections.iterator();
+                    it.hasNext();) {
+                Section section = it.next();
+
+                // Remove it first, to catch any concurrent modification
+                it.remove();
+
+                if (getVertexById(section.getId()) == section) {
+                    index.insert(section, section.getBounds());
+                } else {
+                    index.remove(section);
+                }
+            }
+
+            candidates = index.lookup(rect);
+        }
+
+        Collections.sort(candidates, byId);
+
+        return candidates;
+    }
+
     //-------------//
     // handleEvent //
     //-------------//
@@ -613,4 +729,21 @@ public class BasicLag
             }
         }
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer indexCellSize = new Constant.Integer(
+                "Pixels",
+                64,
+                "Size of cells in the spatial index of sections");
+
+    }
 }
@@ -96,11 +96,13 @@ public class BasicRoi
         final int maxCoord = (oriInter.x + oriInter.width) - 1;
 
         for (int pos = minPos; pos <= maxPos; pos++) {
-            List<Run> seq = table.getSequence(pos);
-
-            for (Run run : seq) {
-                final int cMin = Math.max(minCoord, run.getStart());
-                final int cMax = Math.min(maxCoord, run.getStop());
+            for (int ir = 0, size = table.getSequenceSize(pos); ir < size;
+                    ir++) {
+                final int start = table.getRunStart(pos, ir);
+                final int cMin = Math.max(minCoord, start);
+                final int cMax = Math.min(
+                        maxCoord,
+                        (start + table.getRunLength(pos, ir)) - 1);
 
                 // Clipping on coord
                 if (cMin <= cMax) {
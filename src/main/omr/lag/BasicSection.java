@@ -168,6 +168,20 @@ public class BasicSection
     {
     }
 
+    //--------------//
+    // BasicSection //
+    //--------------//
+    /**
+     * Creates a new BasicSection, out of any lag.
+     * This is meant for sections read from a storage, like a sample archive.
+     *
+     * @param orientation the section orientation
+     */
+    public BasicSection (Orientation orientation)
+    {
+        this.orientation = orientation;
+    }
+
     //~ Methods ----------------------------------------------------------------
     //---------------//
     // allocateTable //
@@ -1590,6 +1604,13 @@ public class BasicSection
         polygon = null;
         bounds = null;
         orientedLine = null;
+
+        // Section is now outdated in lag spatial index
+        Lag lag = getGraph();
+
+        if (lag != null) {
+            lag.sectionChanged(this);
+        }
     }
 
     //--------//
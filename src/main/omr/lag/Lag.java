@@ -142,6 +142,14 @@ public interface Lag
      */
     Set<Section> getSelectedSectionSet ();
 
+    /**
+     * Notify that the geometry of a section has changed, so that
+     * the spatial index on sections can update this section.
+     *
+     * @param section the modified section
+     */
+    void sectionChanged (Section section);
+
     /**
      * Lookup for lag sections that are <b>intersected</b> by the
      * provided rectangle.
@@ -18,6 +18,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -54,6 +55,10 @@ import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
  * <p>The evaluator data can be marshalled to and unmarshalled from an XML
  * formatted stream.
  *
+ * <p>Distances to categories are computed without any lock, from an immutable
+ * snapshot of the category means and weights, which is replaced as a whole
+ * whenever the evaluator is trained.
+ *
  * @author Hervé Bitteur
  */
 @XmlAccessorType(XmlAccessType.NONE)
@@ -93,6 +98,9 @@ public class LinearEvaluator
      */
     private boolean dataModified = false;
 
+    /** Snapshot of categories means and weights, for distance computation */
+    private volatile Model model;
+
     //~ Constructors -----------------------------------------------------------
     //-----------------//
     // LinearEvaluator //
@@ -199,7 +207,38 @@ public class LinearEvaluator
     public double categoryDistance (double[] pattern,
                                     String categoryId)
     {
-        return checkArguments(pattern, categoryId).distance(pattern, parameters);
+        checkPattern(pattern);
+
+        final Model m = getModel();
+
+        return m.distance(m.indexOf(categoryId), pattern);
+    }
+
+    //-------------------//
+    // categoryDistances //
+    //-------------------//
+    /**
+     * Measure the "distance" information between a given pattern and
+     * each of the provided categories.
+     *
+     * @param pattern     the value for each parameter of the pattern to
+     *                    evaluate
+     * @param categoryIds the ids of the categories to measure distance from
+     * @return the measured distances, in the order of categoryIds
+     */
+    public double[] categoryDistances (double[] pattern,
+                                       String[] categoryIds)
+    {
+        checkPattern(pattern);
+
+        final Model m = getModel();
+        final double[] distances = new double[categoryIds.length];
+
+        for (int i = 0; i < categoryIds.length; i++) {
+            distances[i] = m.distance(m.indexOf(categoryIds[i]), pattern);
+        }
+
+        return distances;
     }
 
     //------//
@@ -338,6 +377,52 @@ public class LinearEvaluator
         logger.debug("LinearEvaluator marshalled");
     }
 
+    //-------------------//
+    // nearestCategories //
+    //-------------------//
+    /**
+     * Report the categories nearest to a given pattern, measuring all
+     * category distances in one pass.
+     *
+     * @param pattern the value for each parameter of the pattern to evaluate
+     * @param k       the maximum number of categories to report
+     * @return the (at most k) nearest categories, sorted by increasing
+     *         distance
+     */
+    public CategoryDistance[] nearestCategories (double[] pattern,
+                                                 int k)
+    {
+        checkPattern(pattern);
+
+        final Model m = getModel();
+        final CategoryDistance[] best = new CategoryDistance[Math.max(
+                0,
+                Math.min(k, m.ids.length))];
+        int count = 0;
+
+        for (int c = 0; c < m.ids.length; c++) {
+            final double dist = m.distance(c, pattern);
+
+            // Skip this category if it cannot enter the best ones
+            if ((count == best.length)
+                && ((count == 0) || !(dist < best[count - 1].distance))) {
+                continue;
+            }
+
+            // Insertion sort, keeping category order for equal distances
+            int i = (count < best.length) ? count++ : (count - 1);
+
+            while ((i > 0) && (dist < best[i - 1].distance)) {
+                best[i] = best[i - 1];
+                i--;
+            }
+
+            best[i] = new CategoryDistance(m.ids[c], dist);
+        }
+
+        return (count == best.length) ? best : Arrays.copyOf(best, count);
+    }
+
     //-----------------//
     // patternDistance //
     //-----------------//
@@ -448,27 +533,16 @@ public class LinearEvaluator
         return jaxbContext;
     }
 
-    //----------------//
-    // checkArguments //
-    //----------------//
-    private Category checkArguments (double[] pattern,
-                                     String categoryId)
+    //--------------//
+    // checkPattern //
+    //--------------//
+    private void checkPattern (double[] pattern)
     {
         // Check sizes
         if ((pattern == null) || (pattern.length != getInputSize())) {
             throw new IllegalArgumentException(
                     "Pattern is null or inconsistent with the LinearEvaluator");
         }
-
-        // Check category label
-        Category category = categories.get(categoryId);
-
-        if (category == null) {
-            throw new IllegalArgumentException(
-                    "Unknown category: " + categoryId);
-        }
-
-        return category;
     }
 
     //-------------------------//
@@ -504,6 +578,9 @@ public class LinearEvaluator
                 }
             }
         }
+
+        // Publish the new snapshot
+        model = new Model(categories.values(), parameters);
     }
 
     //------------------//
@@ -523,6 +600,32 @@ public class LinearEvaluator
         return category.params[paramIndex];
     }
 
+    //----------//
+    // getModel //
+    //----------//
+    /**
+     * Report the current snapshot, building it if needed (typically
+     * right after unmarshalling).
+     *
+     * @return the current model
+     */
+    private Model getModel ()
+    {
+        Model m = model;
+
+        if (m == null) {
+            synchronized (this) {
+                m = model;
+
+                if (m == null) {
+                    model = m = new Model(categories.values(), parameters);
+                }
+            }
+        }
+
+        return m;
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //--------//
     // Sample //
@@ -563,6 +666,38 @@ public class LinearEvaluator
         }
     }
 
+    //------------------//
+    // CategoryDistance //
+    //------------------//
+    /**
+     * Meant to report the distance between a pattern and a category.
+     */
+    public static class CategoryDistance
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** The category id */
+        public final String category;
+
+        /** The measured distance */
+        public final double distance;
+
+        //~ Constructors -------------------------------------------------------
+        public CategoryDistance (String category,
+                                 double distance)
+        {
+            this.category = category;
+            this.distance = distance;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public String toString ()
+        {
+            return "{" + category + " " + distance + "}";
+        }
+    }
+
     //---------//
     // Printer //
     //---------//
@@ -711,23 +846,7 @@ public class LinearEvaluator
             }
         }
 
-        public synchronized double distance (double[] pattern,
-                                             Parameter[] parameters)
-        {
-            double dist = 0;
-
-            for (int p = 0; p < params.length; p++) {
-                dist += params[p].weightedDelta(
-                        pattern[p],
-                        parameters[p].defaultWeight);
-            }
-
-            dist /= params.length;
-
-            return dist;
-        }
-
-        public synchronized void dump ()
+        public void dump ()
         {
             System.out.println(
                     "\ncategory:" + id + " cardinality:" + getCardinality());
@@ -737,8 +856,8 @@ public class LinearEvaluator
             }
         }
 
-        public synchronized double dumpDistance (double[] pattern,
-                                                 Parameter[] parameters)
+        public double dumpDistance (double[] pattern,
+                                    Parameter[] parameters)
         {
             if ((pattern == null) || (pattern.length != params.length)) {
                 throw new IllegalArgumentException(
@@ -1074,6 +1193,114 @@ public class LinearEvaluator
         }
     }
 
+    //-------//
+    // Model //
+    //-------//
+    /**
+     * Immutable snapshot of the means and weights of all categories,
+     * meant for lock-free distance computation.
+     */
+    private static final class Model
+    {
+        //~ Static fields/initializers -----------------------------------------
+
+        /** Weight value to flag an untrained parameter */
+        private static final double UNTRAINED = -1;
+
+        //~ Instance fields ----------------------------------------------------
+
+        /** Category ids, in categories order */
+        final String[] ids;
+
+        /** Category index, per category id */
+        final Map<String, Integer> indices;
+
+        /** Mean value, per category and parameter */
+        final double[][] means;
+
+        /** Effective weight, per category and parameter */
+        final double[][] weights;
+
+        //~ Constructors -------------------------------------------------------
+        Model (Collection<Category> categories,
+               Parameter[] parameters)
+        {
+            final int count = categories.size();
+            ids = new String[count];
+            indices = new HashMap<>(2 * count);
+            means = new double[count][];
+            weights = new double[count][];
+
+            int c = 0;
+
+            for (Category category : categories) {
+                ids[c] = category.getId();
+                indices.put(ids[c], c);
+                means[c] = new double[category.params.length];
+                weights[c] = new double[category.params.length];
+
+                for (int p = 0; p < category.params.length; p++) {
+                    CategoryParam param = category.params[p];
+                    means[c][p] = param.mean;
+
+                    if (param.training == CategoryParam.TrainingStatus.NONE) {
+                        weights[c][p] = UNTRAINED;
+                    } else {
+                        weights[c][p] = param.getWeight(
+                                parameters[p].defaultWeight);
+                    }
+                }
+
+                c++;
+            }
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Report the distance between a pattern and a category.
+         *
+         * @param c       the category index
+         * @param pattern the pattern at hand
+         * @return the distance (average of weighted square deltas)
+         */
+        double distance (int c,
+                         double[] pattern)
+        {
+            final double[] mean = means[c];
+            final double[] weight = weights[c];
+            double dist = 0;
+
+            for (int p = 0; p < mean.length; p++) {
+                if (weight[p] == UNTRAINED) {
+                    dist += INFINITE_DISTANCE;
+                } else {
+                    double dif = mean[p] - pattern[p];
+                    dist += (dif * dif * weight[p]);
+                }
+            }
+
+            return dist / mean.length;
+        }
+
+        /**
+         * Report the index of a category.
+         *
+         * @param categoryId the category id
+         * @return the category index
+         */
+        int indexOf (String categoryId)
+        {
+            Integer index = indices.get(categoryId);
+
+            if (index == null) {
+                throw new IllegalArgumentException(
+                        "Unknown category: " + categoryId);
+            }
+
+            return index;
+        }
+    }
+
     //-----------//
     // Parameter //
     //-----------//
@@ -0,0 +1,650 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        P a r a l l e l T r a i n e r                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.math;
+
+import omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code ParallelTrainer} trains a {@link NeuralNetwork} by
+ * mini-batches, the patterns of each batch being processed in parallel.
+ *
+ * <p>Each worker accumulates the gradients of its share of the batch in its
+ * own buffers, the weights are then updated once per batch, using the
+ * network learning rate and momentum.
+ *
+ * <p>A part of the patterns may be kept aside for validation: the error
+ * reported to the {@link NeuralNetwork.Monitor} is then the validation error,
+ * training stops when this error has not improved for a number of epochs,
+ * and the network is left with its best weights.
+ * The training error of an epoch is cumulated while the weights are being
+ * updated, so no additional pass over the training patterns is needed.
+ *
+ * <p>Snapshots of the network are regularly taken, through
+ * {@link NeuralNetwork#backup}, to recover from a diverging training.
+ *
+ * @author Hervé Bitteur
+ */
+public class ParallelTrainer
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            ParallelTrainer.class);
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** The network to train. */
+    private final NeuralNetwork network;
+
+    /** Number of patterns per batch. */
+    private int batchSize = 64;
+
+    /** Ratio of patterns kept for validation. */
+    private double validationRatio = 0.1;
+
+    /** Number of epochs without improvement before stopping, 0 for no limit. */
+    private int patience = 100;
+
+    /** Number of epochs between snapshots, 0 for none. */
+    private int snapshotPeriod = 50;
+
+    /** Random generator for shuffling. */
+    private final Random random = new Random();
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-----------------//
+    // ParallelTrainer //
+    //-----------------//
+    /**
+     * Creates a new ParallelTrainer object.
+     *
+     * @param network the network to train
+     */
+    public ParallelTrainer (NeuralNetwork network)
+    {
+        this.network = network;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //--------------//
+    // setBatchSize //
+    //--------------//
+    /**
+     * Set the number of patterns per batch.
+     *
+     * @param batchSize the batch size, at least 1
+     */
+    public void setBatchSize (int batchSize)
+    {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    //-------------//
+    // setPatience //
+    //-------------//
+    /**
+     * Set the number of epochs without improvement of validation error
+     * after which training is stopped.
+     *
+     * @param patience the number of epochs, 0 for no early stopping
+     */
+    public void setPatience (int patience)
+    {
+        this.patience = patience;
+    }
+
+    //-------------------//
+    // setSnapshotPeriod //
+    //-------------------//
+    /**
+     * Set the number of epochs between two snapshots of the network.
+     *
+     * @param snapshotPeriod the number of epochs, 0 for no snapshot
+     */
+    public void setSnapshotPeriod (int snapshotPeriod)
+    {
+        this.snapshotPeriod = snapshotPeriod;
+    }
+
+    //--------------------//
+    // setValidationRatio //
+    //--------------------//
+    /**
+     * Set the ratio of patterns kept aside for validation.
+     *
+     * @param validationRatio the ratio, in [0..1), 0 for no validation
+     */
+    public void setValidationRatio (double validationRatio)
+    {
+        this.validationRatio = validationRatio;
+    }
+
+    //-------//
+    // train //
+    //-------//
+    /**
+     * Train the network on a collection of input patterns.
+     *
+     * @param inputs         the provided patterns of values for input cells
+     * @param desiredOutputs the corresponding desired values for output cells
+     * @param weights        the relative weight of each pattern, or null
+     * @param monitor        a monitor interface to be kept informed (or null)
+     * @return the final mean square error, on validation patterns if any
+     */
+    public double train (double[][] inputs,
+                         double[][] desiredOutputs,
+                         double[] weights,
+                         NeuralNetwork.Monitor monitor)
+    {
+        if ((inputs == null) || (desiredOutputs == null)) {
+            throw new IllegalArgumentException("Null training patterns");
+        }
+
+        if ((inputs.length != desiredOutputs.length)
+            || ((weights != null) && (weights.length != inputs.length))) {
+            throw new IllegalArgumentException("Inconsistent training patterns");
+        }
+
+        final long startTime = System.currentTimeMillis();
+        network.startTraining();
+
+        // Split patterns between training and validation
+        final int[] order = shuffled(inputs.length);
+        final int validNb = (inputs.length > 1)
+                            ? (int) Math.floor(validationRatio * inputs.length)
+                            : 0;
+        final int trainNb = inputs.length - validNb;
+        final int[] train = new int[trainNb];
+        final int[] valid = new int[validNb];
+        System.arraycopy(order, 0, train, 0, trainNb);
+        System.arraycopy(order, trainNb, valid, 0, validNb);
+
+        // One worker per thread
+        final int workerNb = Math.max(
+                1,
+                Math.min(OmrExecutors.getParallelism(), batchSize));
+        final List<Worker> workers = new ArrayList<>(workerNb);
+
+        for (int w = 0; w < workerNb; w++) {
+            workers.add(new Worker(inputs, desiredOutputs, weights, train));
+        }
+
+        final Batch batch = new Batch(workers);
+
+        // Starting error
+        double mse = (validNb > 0)
+                     ? error(valid, inputs, desiredOutputs)
+                     : error(train, inputs, desiredOutputs);
+
+        if (monitor != null) {
+            monitor.trainingStarted(0, mse);
+        }
+
+        final double maxError = network.getMaxError();
+        final int epochs = network.getEpochs();
+        double rate = network.getLearningRate();
+        double bestMse = mse;
+        int bestEpoch = -1;
+        NeuralNetwork.Backup best = (validNb > 0) ? network.backup() : null;
+        NeuralNetwork.Backup snapshot = network.backup();
+        int ie = 0;
+
+        for (; ie < epochs; ie++) {
+            // Have we been told to stop?
+            if (network.isStopping()) {
+                logger.debug("Network stopped.");
+
+                break;
+            }
+
+            shuffle(train);
+
+            double sse = 0;
+
+            for (int start = 0; start < trainNb; start += batchSize) {
+                sse += batch.process(
+                        start,
+                        Math.min(start + batchSize, trainNb),
+                        rate);
+            }
+
+            network.weightsModified();
+
+            double trainMse = Math.sqrt(sse / trainNb);
+            mse = (validNb > 0) ? error(valid, inputs, desiredOutputs) : trainMse;
+
+            if (Double.isNaN(mse) || Double.isInfinite(mse)) {
+                // Training is diverging, go back to last snapshot
+                rate /= 2;
+                logger.warn(
+                        "Network diverging at epoch {}, learning rate now {}",
+                        ie,
+                        rate);
+                network.restore(snapshot);
+                batch.resetMomentum();
+
+                continue;
+            }
+
+            if (monitor != null) {
+                monitor.epochEnded(ie, mse);
+            }
+
+            if (mse < bestMse) {
+                bestMse = mse;
+                bestEpoch = ie;
+
+                if (best != null) {
+                    best = network.backup();
+                }
+            } else if ((best != null) && (patience > 0)
+                       && ((ie - bestEpoch) >= patience)) {
+                logger.info(
+                        "Network exiting training, no improvement since epoch {}",
+                        bestEpoch);
+
+                break;
+            }
+
+            if ((snapshotPeriod > 0) && (((ie + 1) % snapshotPeriod) == 0)) {
+                snapshot = network.backup();
+            }
+
+            if (mse <= maxError) {
+                logger.info(
+                        "Network exiting training, remaining error limit reached");
+                logger.info("Network remaining error was : {}", mse);
+
+                break;
+            }
+        }
+
+        // Keep the best validated weights
+        if ((best != null) && (bestMse < mse)) {
+            network.restore(best);
+            mse = bestMse;
+        }
+
+        network.weightsModified();
+
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    String.format(
+                    "Duration  %,d seconds, %d epochs on %d patterns, %d workers",
+                    (System.currentTimeMillis() - startTime) / 1000,
+                    ie,
+                    trainNb,
+                    workerNb));
+        }
+
+        return mse;
+    }
+
+    //-------//
+    // error //
+    //-------//
+    /**
+     * Compute the error of the network on the provided patterns, with
+     * the same definition as {@link NeuralNetwork#train}.
+     */
+    private double error (int[] indices,
+                          double[][] inputs,
+                          double[][] desiredOutputs)
+    {
+        if (indices.length == 0) {
+            return 0;
+        }
+
+        final double[][] ins = new double[indices.length][];
+
+        for (int i = 0; i < indices.length; i++) {
+            ins[i] = inputs[indices[i]];
+        }
+
+        final double[][] outs = network.run(ins);
+        double sse = 0;
+
+        for (int i = 0; i < indices.length; i++) {
+            final double[] desired = desiredOutputs[indices[i]];
+
+            for (int o = desired.length - 1; o >= 0; o--) {
+                double dif = desired[o] - outs[i][o];
+                sse += (dif * dif);
+            }
+        }
+
+        return Math.sqrt(sse / indices.length);
+    }
+
+    //---------//
+    // shuffle //
+    //---------//
+    private void shuffle (int[] array)
+    {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    //----------//
+    // shuffled //
+    //----------//
+    private int[] shuffled (int count)
+    {
+        final int[] array = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            array[i] = i;
+        }
+
+        shuffle(array);
+
+        return array;
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-------//
+    // Batch //
+    //-------//
+    /**
+     * Processes one batch, by sharing its patterns among the workers,
+     * and then updates the weights with the summed gradients.
+     */
+    private class Batch
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final List<Worker> workers;
+
+        /** Previous changes of hidden weights, for momentum. */
+        private final double[][] hiddenDeltas;
+
+        /** Previous changes of output weights, for momentum. */
+        private final double[][] outputDeltas;
+
+        //~ Constructors -------------------------------------------------------
+        public Batch (List<Worker> workers)
+        {
+            this.workers = workers;
+
+            final int hiddenSize = network.getHiddenSize();
+            hiddenDeltas = new double[hiddenSize][network.getInputSize() + 1];
+            outputDeltas = new double[network.getOutputSize()][hiddenSize + 1];
+        }
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Process the training patterns [start..stop[.
+         *
+         * @return the sum of square errors, before weights update
+         */
+        public double process (int start,
+                               int stop,
+                               double rate)
+        {
+            // Share the patterns among workers
+            final int count = stop - start;
+            final int share = (count + workers.size() - 1) / workers.size();
+            final List<Worker> active = new ArrayList<>(workers.size());
+
+            for (Worker worker : workers) {
+                if (start < stop) {
+                    worker.setRange(start, Math.min(start + share, stop));
+                    active.add(worker);
+                    start += share;
+                }
+            }
+
+            // Run them
+            if (active.size() == 1) {
+                active.get(0)
+                        .call();
+            } else {
+                try {
+                    for (Future<Double> future : OmrExecutors.getHighExecutor()
+                            .invokeAll(active)) {
+                        future.get();
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread()
+                            .interrupt();
+                    network.stop();
+                } catch (ExecutionException ex) {
+                    throw new RuntimeException("Error in training worker", ex);
+                }
+            }
+
+            // Sum up results
+            double sse = 0;
+            double mass = 0;
+
+            for (Worker worker : active) {
+                sse += worker.sse;
+                mass += worker.mass;
+            }
+
+            if (mass > 0) {
+                update(network.getHiddenWeights(), hiddenDeltas, active, true,
+                        rate / mass);
+                update(network.getOutputWeights(), outputDeltas, active, false,
+                        rate / mass);
+            }
+
+            return sse;
+        }
+
+        /**
+         * Forget the previous changes, for example after a restore.
+         */
+        public void resetMomentum ()
+        {
+            for (double[] row : hiddenDeltas) {
+                Arrays.fill(row, 0);
+            }
+
+            for (double[] row : outputDeltas) {
+                Arrays.fill(row, 0);
+            }
+        }
+
+        private void update (double[][] weights,
+                             double[][] deltas,
+                             List<Worker> active,
+                             boolean hidden,
+                             double factor)
+        {
+            final double momentum = network.getMomentum();
+
+            for (int r = weights.length - 1; r >= 0; r--) {
+                final double[] ws = weights[r];
+                final double[] ds = deltas[r];
+
+                for (int c = ws.length - 1; c >= 0; c--) {
+                    double grad = 0;
+
+                    for (Worker worker : active) {
+                        grad += (hidden ? worker.hiddenGrads : worker.outputGrads)[r][c];
+                    }
+
+                    double dw = (factor * grad) + (momentum * ds[c]);
+                    ws[c] += dw;
+                    ds[c] = dw;
+                }
+            }
+        }
+    }
+
+    //--------//
+    // Worker //
+    //--------//
+    /**
+     * Accumulates the gradients of a range of training patterns,
+     * in its own buffers.
+     */
+    private class Worker
+            implements Callable<Double>
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final double[][] inputs;
+
+        private final double[][] desiredOutputs;
+
+        private final double[] weights;
+
+        /** Training patterns indices, shuffled at each epoch. */
+        private final int[] train;
+
+        private final double[] hiddens;
+
+        private final double[] outputs;
+
+        private final double[] hiddenErrs;
+
+        private final double[] outputErrs;
+
+        /** Accumulated gradients for hidden weights. */
+        final double[][] hiddenGrads;
+
+        /** Accumulated gradients for output weights. */
+        final double[][] outputGrads;
+
+        /** Sum of square errors over the range. */
+        double sse;
+
+        /** Sum of pattern weights over the range. */
+        double mass;
+
+        private int start;
+
+        private int stop;
+
+        //~ Constructors -------------------------------------------------------
+        public Worker (double[][] inputs,
+                       double[][] desiredOutputs,
+                       double[] weights,
+                       int[] train)
+        {
+            this.inputs = inputs;
+            this.desiredOutputs = desiredOutputs;
+            this.weights = weights;
+            this.train = train;
+
+            final int inputSize = network.getInputSize();
+            final int hiddenSize = network.getHiddenSize();
+            final int outputSize = network.getOutputSize();
+            hiddens = new double[hiddenSize];
+            outputs = new double[outputSize];
+            hiddenErrs = new double[hiddenSize];
+            outputErrs = new double[outputSize];
+            hiddenGrads = new double[hiddenSize][inputSize + 1];
+            outputGrads = new double[outputSize][hiddenSize + 1];
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public Double call ()
+        {
+            final double[][] outputWeights = network.getOutputWeights();
+
+            for (double[] row : hiddenGrads) {
+                Arrays.fill(row, 0);
+            }
+
+            for (double[] row : outputGrads) {
+                Arrays.fill(row, 0);
+            }
+
+            sse = 0;
+            mass = 0;
+
+            for (int ip = start; ip < stop; ip++) {
+                final int p = train[ip];
+                final double[] ins = inputs[p];
+                final double[] desired = desiredOutputs[p];
+                final double w = (weights != null) ? weights[p] : 1;
+                mass += w;
+
+                network.run(ins, hiddens, outputs);
+
+                // Output layer error terms
+                for (int o = outputs.length - 1; o >= 0; o--) {
+                    double out = outputs[o];
+                    double dif = desired[o] - out;
+                    sse += (dif * dif);
+                    outputErrs[o] = w * dif * out * (1 - out);
+                }
+
+                // Hidden layer error terms
+                for (int h = hiddens.length - 1; h >= 0; h--) {
+                    double sum = 0;
+                    double hid = hiddens[h];
+
+                    for (int o = outputs.length - 1; o >= 0; o--) {
+                        sum += (outputErrs[o] * outputWeights[o][h + 1]);
+                    }
+
+                    hiddenErrs[h] = sum * hid * (1 - hid);
+                }
+
+                // Cumulate output gradients
+                for (int o = outputs.length - 1; o >= 0; o--) {
+                    final double[] grads = outputGrads[o];
+
+                    for (int h = hiddens.length - 1; h >= 0; h--) {
+                        grads[h + 1] += (outputErrs[o] * hiddens[h]);
+                    }
+
+                    grads[0] += outputErrs[o]; // Bias
+                }
+
+                // Cumulate hidden gradients
+                for (int h = hiddens.length - 1; h >= 0; h--) {
+                    final double[] grads = hiddenGrads[h];
+
+                    for (int i = ins.length - 1; i >= 0; i--) {
+                        grads[i + 1] += (hiddenErrs[h] * ins[i]);
+                    }
+
+                    grads[0] += hiddenErrs[h]; // Bias
+                }
+            }
+
+            return sse;
+        }
+
+        public void setRange (int start,
+                              int stop)
+        {
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+}
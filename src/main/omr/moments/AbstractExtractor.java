@@ -53,28 +53,35 @@ public abstract class AbstractExtractor<D extends OrthogonalMoments<D>>
                          int[] yy,
                          int mass)
     {
-        // Check arguments
-        if ((xx == null) || (yy == null)) {
-            throw new IllegalArgumentException(
-                    getClass().getSimpleName() + " cannot process a null array");
-        }
+        setInput(xx, yy, mass);
 
-        if ((mass <= 0) || (mass > xx.length) || (mass > yy.length)) {
-            throw new IllegalArgumentException(
-                    getClass().getSimpleName() + " on inconsistent input");
-        }
+        findCenterOfMass();
+        findRadius();
 
-        if (descriptor == null) {
-            throw new IllegalArgumentException(
-                    getClass().getSimpleName() + " has no target descriptor");
-        }
+        extractMoments();
+    }
 
-        this.xx = xx;
-        this.yy = yy;
-        this.mass = mass;
+    //---------//
+    // extract //
+    //---------//
+    /**
+     * Extract moments from the provided points, reusing the mass center
+     * and radius already known from their geometric moments.
+     *
+     * @param xx       the array of abscissa values
+     * @param yy       the array of ordinate values
+     * @param mass     the number of points
+     * @param geometry the geometric moments of the same points
+     */
+    public void extract (int[] xx,
+                         int[] yy,
+                         int mass,
+                         GeometricMoments geometry)
+    {
+        setInput(xx, yy, mass);
 
-        findCenterOfMass();
-        findRadius();
+        center = geometry.getMassCenter();
+        radius = Math.max(geometry.getRadius(), Double.MIN_VALUE);
 
         extractMoments();
     }
@@ -96,6 +103,37 @@ public abstract class AbstractExtractor<D extends OrthogonalMoments<D>>
      */
     protected abstract void extractMoments ();
 
+    //----------//
+    // setInput //
+    //----------//
+    /**
+     * Check and record the input points.
+     */
+    private void setInput (int[] xx,
+                           int[] yy,
+                           int mass)
+    {
+        // Check arguments
+        if ((xx == null) || (yy == null)) {
+            throw new IllegalArgumentException(
+                    getClass().getSimpleName() + " cannot process a null array");
+        }
+
+        if ((mass <= 0) || (mass > xx.length) || (mass > yy.length)) {
+            throw new IllegalArgumentException(
+                    getClass().getSimpleName() + " on inconsistent input");
+        }
+
+        if (descriptor == null) {
+            throw new IllegalArgumentException(
+                    getClass().getSimpleName() + " has no target descriptor");
+        }
+
+        this.xx = xx;
+        this.yy = yy;
+        this.mass = mass;
+    }
+
     //------------------//
     // findCenterOfMass //
     //------------------//
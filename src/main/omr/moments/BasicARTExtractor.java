@@ -41,6 +41,26 @@ public class BasicARTExtractor
         initLUT();
     }
 
+    /** Any LUT, used as template for coordinates mapping. */
+    private static final LUT anyLut = realLuts[0][0];
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Mass center abscissa, during extraction. */
+    private double centerX;
+
+    /** Mass center ordinate, during extraction. */
+    private double centerY;
+
+    /** LUT radius, during extraction. */
+    private double lutRadius;
+
+    /** Coefficients, real part, during extraction. */
+    private double[][] coeffReal;
+
+    /** Coefficients, imaginary part, during extraction. */
+    private double[][] coeffImag;
+
     //~ Constructors -----------------------------------------------------------
     /**
      * Creates a new BasicARTExtractor object and process
@@ -63,33 +83,85 @@ public class BasicARTExtractor
     @Override
     protected void extractMoments ()
     {
-        final LUT anyLut = realLuts[0][0]; // Just for template
-        final int lutRadius = anyLut.getRadius();
-        final double centerX = center.getX();
-        final double centerY = center.getY();
-
-        // Coefficients, real part & imaginary part
-        final double[][] coeffReal = new double[ANGULAR][RADIAL];
-        final double[][] coeffImag = new double[ANGULAR][RADIAL];
+        begin(center.getX(), center.getY(), radius);
 
         for (int i = 0; i < mass; i++) {
-            // Map image coordinate to LUT coordinates
-            double x = xx[i] - centerX;
-            double y = yy[i] - centerY;
-            double lx = ((x * lutRadius) / radius) + lutRadius;
-            double ly = ((y * lutRadius) / radius) + lutRadius;
-
-            // Summation of basis function
-            if (anyLut.contains(lx, ly)) {
-                for (int p = 0; p < ANGULAR; p++) {
-                    for (int r = 0; r < RADIAL; r++) {
-                        coeffReal[p][r] += realLuts[p][r].interpolate(lx, ly);
-                        coeffImag[p][r] -= imagLuts[p][r].interpolate(lx, ly);
-                    }
+            accumulate(xx[i], yy[i]);
+        }
+
+        end(mass);
+    }
+
+    //-------//
+    // begin //
+    //-------//
+    /**
+     * Start an extraction, point after point.
+     * This allows the extraction to be driven by another computation,
+     * such as the one of {@link GeometricMoments}, in a single pass over
+     * the points.
+     *
+     * @param centerX mass center abscissa
+     * @param centerY mass center ordinate
+     * @param radius  largest coordinate distance from mass center
+     */
+    void begin (double centerX,
+                double centerY,
+                double radius)
+    {
+        if (descriptor == null) {
+            throw new IllegalArgumentException(
+                    getClass().getSimpleName() + " has no target descriptor");
+        }
+
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.radius = Math.max(radius, Double.MIN_VALUE);
+        lutRadius = anyLut.getRadius();
+
+        coeffReal = new double[ANGULAR][RADIAL];
+        coeffImag = new double[ANGULAR][RADIAL];
+    }
+
+    //------------//
+    // accumulate //
+    //------------//
+    /**
+     * Add the contribution of one point.
+     *
+     * @param px point abscissa
+     * @param py point ordinate
+     */
+    void accumulate (int px,
+                     int py)
+    {
+        // Map image coordinate to LUT coordinates
+        final double x = px - centerX;
+        final double y = py - centerY;
+        final double lx = ((x * lutRadius) / radius) + lutRadius;
+        final double ly = ((y * lutRadius) / radius) + lutRadius;
+
+        // Summation of basis function
+        if (anyLut.contains(lx, ly)) {
+            for (int p = 0; p < ANGULAR; p++) {
+                for (int r = 0; r < RADIAL; r++) {
+                    coeffReal[p][r] += realLuts[p][r].interpolate(lx, ly);
+                    coeffImag[p][r] -= imagLuts[p][r].interpolate(lx, ly);
                 }
             }
         }
+    }
 
+    //-----//
+    // end //
+    //-----//
+    /**
+     * Finish an extraction, by saving the moments to the descriptor.
+     *
+     * @param mass the number of points processed
+     */
+    void end (int mass)
+    {
         // Save to descriptor
         for (int p = 0; p < ANGULAR; p++) {
             for (int r = 0; r < RADIAL; r++) {
@@ -102,6 +174,9 @@ public class BasicARTExtractor
                 //                descriptor.setImag(p, r, imag);
             }
         }
+
+        coeffReal = null;
+        coeffImag = null;
     }
 
     //---------//
@@ -15,6 +15,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
+import java.awt.geom.Point2D;
+import java.util.Arrays;
 
 /**
  * Class {@code GeometricMoments} encapsulates the set of all
@@ -22,6 +24,9 @@ import java.awt.Point;
  *
  * We use only central moments (invariant Hu moments are disabled by default).
  *
+ * <p>Values are kept as primitive doubles, and the hash code is cached, so
+ * that moments can be compared and hashed without any allocation.
+ *
  * @author Hervé Bitteur
  */
 public class GeometricMoments
@@ -75,7 +80,13 @@ public class GeometricMoments
 
     //~ Instance fields --------------------------------------------------------
     /** The various moments, implemented as an array of double's. */
-    private final Double[] k = new Double[size];
+    private final double[] k = new double[size];
+
+    /** Largest coordinate distance from mass center, in pixels. */
+    private double radius;
+
+    /** Cached hash code, 0 if not yet computed. */
+    private int hash;
 
     //~ Constructors -----------------------------------------------------------
     //------------------//
@@ -89,6 +100,8 @@ public class GeometricMoments
     public GeometricMoments (GeometricMoments that)
     {
         System.arraycopy(that.k, 0, this.k, 0, size);
+        radius = that.radius;
+        hash = that.hash;
     }
 
     //------------------//
@@ -108,6 +121,28 @@ public class GeometricMoments
                              int[] yy,
                              int dim,
                              int unit)
+    {
+        this(xx, yy, dim, unit, null);
+    }
+
+    //------------------//
+    // GeometricMoments //
+    //------------------//
+    /**
+     * Compute the moments for a set of points, and in the same pass the
+     * ART moments of these points if an ART extractor is provided.
+     *
+     * @param xx   the array of abscissa values
+     * @param yy   the array of ordinate values
+     * @param dim  the number of points
+     * @param unit the length (number of pixels) of normalizing unit
+     * @param art  the ART extractor, with its target descriptor, or null
+     */
+    public GeometricMoments (int[] xx,
+                             int[] yy,
+                             int dim,
+                             int unit,
+                             BasicARTExtractor art)
     {
         // Safety check
         if (unit == 0) {
@@ -163,8 +198,19 @@ public class GeometricMoments
 
         n10 /= dim;
         n01 /= dim;
+        radius = Math.max(
+                Math.max(xMax - n10, n10 - xMin),
+                Math.max(yMax - n01, n01 - yMin));
+
+        if (art != null) {
+            art.begin(n10, n01, radius);
+        }
+
+        for (int i = 0; i < dim; i++) {
+            if (art != null) {
+                art.accumulate(xx[i], yy[i]);
+            }
 
-        for (int i = dim - 1; i >= 0; i--) {
             // Coordinates centered around center of mass
             double x = xx[i] - n10;
             double y = yy[i] - n01;
@@ -209,6 +255,10 @@ public class GeometricMoments
         k[10] = n10; // xBar
         k[11] = n01; // yBar
 
+        if (art != null) {
+            art.end(dim);
+        }
+
         if (useHuCoefficients) {
             // Orthogonals moments (Hu set)
             // (Invariant to translation / scaling / rotation)
@@ -257,6 +307,25 @@ public class GeometricMoments
     }
 
     //~ Methods ----------------------------------------------------------------
+    //--------//
+    // equals //
+    //--------//
+    @Override
+    public boolean equals (Object obj)
+    {
+        if (obj == this) {
+            return true;
+        }
+
+        if (obj instanceof GeometricMoments) {
+            final GeometricMoments that = (GeometricMoments) obj;
+
+            return (hashCode() == that.hashCode()) && Arrays.equals(k, that.k);
+        } else {
+            return false;
+        }
+    }
+
     //----------//
     // getLabel //
     //----------//
@@ -292,7 +361,7 @@ public class GeometricMoments
      *
      * @return the normalized height
      */
-    public Double getHeight ()
+    public double getHeight ()
     {
         return k[2];
     }
@@ -305,7 +374,7 @@ public class GeometricMoments
      *
      * @return the n11 moment
      */
-    public Double getN11 ()
+    public double getN11 ()
     {
         return k[4];
     }
@@ -318,7 +387,7 @@ public class GeometricMoments
      *
      * @return the n12 moment
      */
-    public Double getN12 ()
+    public double getN12 ()
     {
         return k[8];
     }
@@ -331,20 +400,48 @@ public class GeometricMoments
      *
      * @return the n21 moment
      */
-    public Double getN21 ()
+    public double getN21 ()
     {
         return k[7];
     }
 
+    //---------------//
+    // getMassCenter //
+    //---------------//
+    /**
+     * Report the precise mass center of the glyph.
+     *
+     * @return the mass center
+     */
+    public Point2D getMassCenter ()
+    {
+        return new Point2D.Double(k[10], k[11]);
+    }
+
+    //-----------//
+    // getRadius //
+    //-----------//
+    /**
+     * Report the largest distance, along x or y, between a point and the
+     * mass center.
+     *
+     * @return the radius, in pixels
+     */
+    public double getRadius ()
+    {
+        return radius;
+    }
+
     //-----------//
     // getValues //
     //-----------//
     /**
      * Report the array of moment values.
+     * This is a view on the internal data, which must not be modified.
      *
      * @return the moment values
      */
-    public Double[] getValues ()
+    public double[] getValues ()
     {
         return k;
     }
@@ -357,7 +454,7 @@ public class GeometricMoments
      *
      * @return the normalized weight
      */
-    public Double getWeight ()
+    public double getWeight ()
     {
         return k[0];
     }
@@ -370,11 +467,27 @@ public class GeometricMoments
      *
      * @return the normalized width
      */
-    public Double getWidth ()
+    public double getWidth ()
     {
         return k[1];
     }
 
+    //----------//
+    // hashCode //
+    //----------//
+    @Override
+    public int hashCode ()
+    {
+        int h = hash;
+
+        if (h == 0) {
+            h = Arrays.hashCode(k);
+            hash = h;
+        }
+
+        return h;
+    }
+
     //----------//
     // toString //
     //----------//
@@ -84,7 +84,8 @@ public class AdaptiveDescriptor
         if ((obj instanceof AdaptiveDescriptor) && super.equals(obj)) {
             AdaptiveDescriptor that = (AdaptiveDescriptor) obj;
 
-            return (this.meanCoeff == that.meanCoeff)
+            return (this.getKind() == that.getKind())
+                   && (this.meanCoeff == that.meanCoeff)
                    && (this.stdDevCoeff == that.stdDevCoeff);
         }
 
@@ -159,6 +159,40 @@ public class AdaptiveFilter
         }
     }
 
+    //---------------//
+    // getForeColumn //
+    //---------------//
+    @Override
+    public void getForeColumn (int x,
+                               int yMin,
+                               int yMax,
+                               int[] levels,
+                               boolean[] fores)
+    {
+        source.getColumn(x, yMin, yMax, levels);
+
+        for (int y = yMin; y <= yMax; y++) {
+            fores[y] = levels[y] <= getThreshold(x, y);
+        }
+    }
+
+    //------------//
+    // getForeRow //
+    //------------//
+    @Override
+    public void getForeRow (int y,
+                            int xMin,
+                            int xMax,
+                            int[] levels,
+                            boolean[] fores)
+    {
+        source.getRow(y, xMin, xMax, levels);
+
+        for (int x = xMin; x <= xMax; x++) {
+            fores[x] = levels[x] <= getThreshold(x, y);
+        }
+    }
+
     //---------------------//
     // getDefaultMeanCoeff //
     //---------------------//
@@ -183,15 +217,8 @@ public class AdaptiveFilter
     public boolean isFore (int x,
                            int y)
     {
-        double mean = tile.getMean(x, y);
-        double sqrMean = sqrTile.getMean(x, y);
-        double var = Math.abs(sqrMean - (mean * mean));
-        double stdDev = Math.sqrt(var);
-
-        double threshold = getThreshold(mean, stdDev);
-
         int pixValue = source.getPixel(x, y);
-        boolean isFore = pixValue <= threshold;
+        boolean isFore = pixValue <= getThreshold(x, y);
 
         return isFore;
     }
@@ -228,6 +255,27 @@ public class AdaptiveFilter
         }
     }
 
+    //--------------//
+    // getThreshold //
+    //--------------//
+    /**
+     * Compute the local threshold around the provided location.
+     *
+     * @param x provided abscissa
+     * @param y provided ordinate
+     * @return the threshold value
+     */
+    private double getThreshold (int x,
+                                 int y)
+    {
+        double mean = tile.getMean(x, y);
+        double sqrMean = sqrTile.getMean(x, y);
+        double var = Math.abs(sqrMean - (mean * mean));
+        double stdDev = Math.sqrt(var);
+
+        return getThreshold(mean, stdDev);
+    }
+
     //--------------//
     // getThreshold //
     //--------------//
@@ -290,6 +338,9 @@ public class AdaptiveFilter
         /** Circular buffer for integrals. */
         protected final long[][] sums;
 
+        /** Buffer for the pixels of one column. */
+        private final int[] levels;
+
         //~ Constructors -------------------------------------------------------
         /**
          * Create a tile instance.
@@ -308,6 +359,7 @@ public class AdaptiveFilter
 
             // Allocate buffer of integrals
             sums = new long[TILE_WIDTH][height];
+            levels = new int[height];
 
             // Initialize the "previous" column
             Arrays.fill(sums[TILE_WIDTH - 1], 0);
@@ -378,10 +430,13 @@ public class AdaptiveFilter
             long top = 0;
             long topLeft = 0;
 
+            // Read the whole column at once
+            getColumn(x, 0, height - 1, levels);
+
             for (int y = 0; y < height; y++) {
                 long left = prevColumn[y];
 
-                long pix = getPixel(x, y);
+                long pix = levels[y];
 
                 if (squared) {
                     pix *= pix;
@@ -0,0 +1,389 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          B i t o n a l F i l t e r                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.run;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.awt.image.Raster;
+import java.util.Arrays;
+
+/**
+ * Class {@code BitonalFilter} is a pixel source and filter for images
+ * which are already bitonal (1 bit per pixel), so that no binarization is
+ * needed.
+ *
+ * <p>Pixels are kept as packed bit rows, one bit per pixel, using 64-bit
+ * words. A set bit denotes a foreground pixel.
+ * As a pixel source, it reports level 0 for foreground and 255 for
+ * background.
+ *
+ * <p>Besides the usual pixel by pixel access, {@link #createTable} builds
+ * a runs table directly, by word-level scans of the packed rows.
+ *
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class BitonalFilter
+        implements PixelFilter
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            BitonalFilter.class);
+
+    /** Level of foreground pixels. */
+    private static final int FORE_LEVEL = 0;
+
+    /** Level of background pixels. */
+    private static final int BACK_LEVEL = 255;
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Image width. */
+    private final int width;
+
+    /** Image height. */
+    private final int height;
+
+    /** Number of words per image row. */
+    private final int wordsPerRow;
+
+    /** Packed bits, row after row, set for foreground. */
+    private final long[] bits;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //---------------//
+    // BitonalFilter //
+    //---------------//
+    /**
+     * Creates a new BitonalFilter object out of a raster with a single
+     * band.
+     *
+     * @param raster     the raster to read samples from
+     * @param foreSample the sample value of foreground pixels
+     */
+    public BitonalFilter (Raster raster,
+                          int foreSample)
+    {
+        width = raster.getWidth();
+        height = raster.getHeight();
+        wordsPerRow = (width + 63) >>> 6;
+        bits = new long[wordsPerRow * height];
+
+        final int minX = raster.getMinX();
+        final int minY = raster.getMinY();
+        final int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(minX, minY + y, width, 1, 0, row);
+
+            final int offset = y * wordsPerRow;
+
+            for (int x = 0; x < width; x++) {
+                if (row[x] == foreSample) {
+                    bits[offset + (x >>> 6)] |= (1L << (x & 63));
+                }
+            }
+        }
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------------//
+    // createTable //
+    //-------------//
+    /**
+     * Build the runs table of foreground pixels, without going through
+     * a {@link RunsTableFactory}.
+     * The result is the same as the one of a factory working on this filter.
+     *
+     * @param name        the name to be assigned to the table
+     * @param orientation the desired orientation of runs
+     * @param minLength   the minimum length for each run
+     * @return a populated RunsTable
+     */
+    public RunsTable createTable (String name,
+                                  Orientation orientation,
+                                  int minLength)
+    {
+        final RunsCollector collector;
+
+        if (orientation.isVertical()) {
+            collector = new RunsCollector(width, minLength);
+            collectVerticalRuns(collector);
+        } else {
+            collector = new RunsCollector(height, minLength);
+            collectHorizontalRuns(collector);
+        }
+
+        RunsTable table = new RunsTable(
+                name,
+                orientation,
+                new Dimension(width, height),
+                new PackedRuns(collector.triplets, collector.counts));
+        logger.debug("{} Retrieved runs: {}", table, table.getRunCount());
+
+        return table;
+    }
+
+    //------------//
+    // getContext //
+    //------------//
+    @Override
+    public Context getContext (int x,
+                               int y)
+    {
+        return new Context((FORE_LEVEL + BACK_LEVEL) / 2);
+    }
+
+    //-----------//
+    // getColumn //
+    //-----------//
+    @Override
+    public void getColumn (int x,
+                           int yMin,
+                           int yMax,
+                           int[] levels)
+    {
+        for (int y = yMin; y <= yMax; y++) {
+            levels[y] = isFore(x, y) ? FORE_LEVEL : BACK_LEVEL;
+        }
+    }
+
+    //---------------//
+    // getForeColumn //
+    //---------------//
+    @Override
+    public void getForeColumn (int x,
+                               int yMin,
+                               int yMax,
+                               int[] levels,
+                               boolean[] fores)
+    {
+        for (int y = yMin; y <= yMax; y++) {
+            final boolean fore = isFore(x, y);
+            fores[y] = fore;
+            levels[y] = fore ? FORE_LEVEL : BACK_LEVEL;
+        }
+    }
+
+    //------------//
+    // getForeRow //
+    //------------//
+    @Override
+    public void getForeRow (int y,
+                            int xMin,
+                            int xMax,
+                            int[] levels,
+                            boolean[] fores)
+    {
+        final int offset = y * wordsPerRow;
+
+        for (int x = xMin; x <= xMax; x++) {
+            final boolean fore = ((bits[offset + (x >>> 6)] >>> (x & 63)) & 1L) != 0;
+            fores[x] = fore;
+            levels[x] = fore ? FORE_LEVEL : BACK_LEVEL;
+        }
+    }
+
+    //-----------//
+    // getHeight //
+    //-----------//
+    @Override
+    public int getHeight ()
+    {
+        return height;
+    }
+
+    //----------//
+    // getPixel //
+    //----------//
+    @Override
+    public int getPixel (int x,
+                         int y)
+    {
+        return isFore(x, y) ? FORE_LEVEL : BACK_LEVEL;
+    }
+
+    //--------//
+    // getRow //
+    //--------//
+    @Override
+    public void getRow (int y,
+                        int xMin,
+                        int xMax,
+                        int[] levels)
+    {
+        final int offset = y * wordsPerRow;
+
+        for (int x = xMin; x <= xMax; x++) {
+            levels[x] = (((bits[offset + (x >>> 6)] >>> (x & 63)) & 1L) != 0)
+                        ? FORE_LEVEL : BACK_LEVEL;
+        }
+    }
+
+    //----------//
+    // getWidth //
+    //----------//
+    @Override
+    public int getWidth ()
+    {
+        return width;
+    }
+
+    //--------//
+    // isFore //
+    //--------//
+    @Override
+    public boolean isFore (int x,
+                           int y)
+    {
+        return ((bits[(y * wordsPerRow) + (x >>> 6)] >>> (x & 63)) & 1L) != 0;
+    }
+
+    //-----------------------//
+    // collectHorizontalRuns //
+    //-----------------------//
+    /**
+     * Retrieve the runs of each row, jumping from one transition to the
+     * next one within each word.
+     */
+    private void collectHorizontalRuns (RunsCollector collector)
+    {
+        for (int y = 0; y < height; y++) {
+            final int offset = y * wordsPerRow;
+            int start = -1; // Start of pending run, if any
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                final long word = bits[offset + w];
+                final int base = w << 6;
+
+                // Bits which differ from the previous pixel in row
+                final long carry = (start == -1) ? 0 : 1;
+                long changes = word ^ ((word << 1) | carry);
+
+                while (changes != 0) {
+                    final int bit = Long.numberOfTrailingZeros(changes);
+                    changes &= (changes - 1);
+
+                    if (start == -1) {
+                        start = base + bit;
+                    } else {
+                        collector.add(y, start, base + bit - start);
+                        start = -1;
+                    }
+                }
+            }
+
+            // Padding bits are clear, so this concerns full last word only
+            if (start != -1) {
+                collector.add(y, start, width - start);
+            }
+        }
+    }
+
+    //---------------------//
+    // collectVerticalRuns //
+    //---------------------//
+    /**
+     * Retrieve the runs of all columns in one pass over the rows,
+     * handling only the bits which differ from the previous row.
+     */
+    private void collectVerticalRuns (RunsCollector collector)
+    {
+        // Start of pending run, per column
+        final int[] starts = new int[width];
+
+        for (int y = 0; y <= height; y++) {
+            final int offset = y * wordsPerRow;
+
+            for (int w = 0; w < wordsPerRow; w++) {
+                final long word = (y < height) ? bits[offset + w] : 0;
+                final long prev = (y > 0) ? bits[(offset - wordsPerRow) + w] : 0;
+                long changes = word ^ prev;
+
+                while (changes != 0) {
+                    final int bit = Long.numberOfTrailingZeros(changes);
+                    changes &= (changes - 1);
+
+                    final int x = (w << 6) + bit;
+
+                    if (((word >>> bit) & 1L) != 0) {
+                        starts[x] = y;
+                    } else {
+                        collector.add(x, starts[x], y - starts[x]);
+                    }
+                }
+            }
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //---------------//
+    // RunsCollector //
+    //---------------//
+    /**
+     * Collects the (start, length, level) triplets of runs, per
+     * position.
+     */
+    private static class RunsCollector
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Minimum run length. */
+        private final int minLength;
+
+        /** Per position, the (start, length, level) triplets of runs. */
+        private final int[][] triplets;
+
+        /** Per position, the number of runs. */
+        private final int[] counts;
+
+        //~ Constructors -------------------------------------------------------
+        public RunsCollector (int size,
+                              int minLength)
+        {
+            this.minLength = minLength;
+            triplets = new int[size][];
+            counts = new int[size];
+        }
+
+        //~ Methods ------------------------------------------------------------
+        public void add (int pos,
+                         int start,
+                         int length)
+        {
+            if (length >= minLength) {
+                final int index = 3 * counts[pos];
+                int[] seq = triplets[pos];
+
+                if (seq == null) {
+                    seq = triplets[pos] = new int[12];
+                } else if (index == seq.length) {
+                    seq = triplets[pos] = Arrays.copyOf(seq, 2 * index);
+                }
+
+                seq[index] = start;
+                seq[index + 1] = length;
+                seq[index + 2] = FORE_LEVEL;
+                counts[pos]++;
+            }
+        }
+    }
+}
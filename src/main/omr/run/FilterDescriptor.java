@@ -187,6 +187,7 @@ public abstract class FilterDescriptor
                     GlobalFilter.setDefaultThreshold(gDesc.threshold);
                     break;
                 case ADAPTIVE:
+                case STRIP:
                     AdaptiveDescriptor aDesc = (AdaptiveDescriptor) specific;
                     AdaptiveFilter.setDefaultMeanCoeff(aDesc.meanCoeff);
                     AdaptiveFilter.setDefaultStdDevCoeff(aDesc.stdDevCoeff);
@@ -24,7 +24,10 @@ public enum FilterKind
     GLOBAL("Basic filter using a global threshold", GlobalFilter.class),
     ADAPTIVE(
     "Adaptive filter using a local threshold",
-    AdaptiveFilter.getImplementationClass());
+    AdaptiveFilter.getImplementationClass()),
+    STRIP(
+    "Adaptive filter computed by parallel strips",
+    StripFilter.class);
 
     /** Description. */
     public final String description;
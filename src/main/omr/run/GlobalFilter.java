@@ -91,6 +91,40 @@ public class GlobalFilter
         return new Context(threshold);
     }
 
+    //---------------//
+    // getForeColumn //
+    //---------------//
+    @Override
+    public void getForeColumn (int x,
+                               int yMin,
+                               int yMax,
+                               int[] levels,
+                               boolean[] fores)
+    {
+        source.getColumn(x, yMin, yMax, levels);
+
+        for (int y = yMin; y <= yMax; y++) {
+            fores[y] = levels[y] <= threshold;
+        }
+    }
+
+    //------------//
+    // getForeRow //
+    //------------//
+    @Override
+    public void getForeRow (int y,
+                            int xMin,
+                            int xMax,
+                            int[] levels,
+                            boolean[] fores)
+    {
+        source.getRow(y, xMin, xMax, levels);
+
+        for (int x = xMin; x <= xMax; x++) {
+            fores[x] = levels[x] <= threshold;
+        }
+    }
+
     //
     // -------//
     // isFore //
@@ -0,0 +1,235 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                            P a c k e d R u n s                             //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.run;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class {@code PackedRuns} is a compact storage of all the run
+ * sequences of a {@link RunsTable}, using primitive arrays rather than
+ * one {@link Run} instance per run.
+ *
+ * <p>The runs of all positions are stored one after the other, in parallel
+ * arrays of starts, lengths and levels. For each position, we record the
+ * index of its first run and its current number of runs. The number of runs
+ * of a position may decrease (when runs are purged) but never increase.
+ *
+ * @author Hervé Bitteur
+ */
+class PackedRuns
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Index of first run, per position. */
+    private final int[] offsets;
+
+    /** Number of runs, per position. */
+    private final int[] sizes;
+
+    /** Start coordinate of each run. */
+    private final int[] starts;
+
+    /** Length of each run. */
+    private final int[] lengths;
+
+    /** Average gray level of each run, as an unsigned byte. */
+    private final byte[] levels;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //------------//
+    // PackedRuns //
+    //------------//
+    /**
+     * Creates a new PackedRuns object, out of the runs collected
+     * for each position.
+     *
+     * @param triplets for each position, a sequence of (start, length, level)
+     *                 triplets, or null if there is no run at this position
+     * @param counts   for each position, the number of triplets
+     */
+    PackedRuns (int[][] triplets,
+                int[] counts)
+    {
+        final int size = counts.length;
+        offsets = new int[size];
+        sizes = Arrays.copyOf(counts, size);
+
+        int total = 0;
+
+        for (int pos = 0; pos < size; pos++) {
+            offsets[pos] = total;
+            total += counts[pos];
+        }
+
+        starts = new int[total];
+        lengths = new int[total];
+        levels = new byte[total];
+
+        for (int pos = 0; pos < size; pos++) {
+            final int[] seq = triplets[pos];
+            int index = offsets[pos];
+
+            for (int i = 0; i < counts[pos]; i++, index++) {
+                starts[index] = seq[3 * i];
+                lengths[index] = seq[(3 * i) + 1];
+                levels[index] = (byte) seq[(3 * i) + 2];
+            }
+        }
+    }
+
+    //------------//
+    // PackedRuns //
+    //------------//
+    /**
+     * Creates a deep copy of another PackedRuns object.
+     *
+     * @param that the instance to copy
+     */
+    PackedRuns (PackedRuns that)
+    {
+        offsets = that.offsets.clone();
+        sizes = that.sizes.clone();
+        starts = that.starts.clone();
+        lengths = that.lengths.clone();
+        levels = that.levels.clone();
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-----------//
+    // getLength //
+    //-----------//
+    /**
+     * Report the length of a run.
+     *
+     * @param pos   the run position
+     * @param index the run index within its position
+     * @return the run length
+     */
+    final int getLength (int pos,
+                         int index)
+    {
+        return lengths[offsets[pos] + index];
+    }
+
+    //----------//
+    // getLevel //
+    //----------//
+    /**
+     * Report the average gray level of a run.
+     *
+     * @param pos   the run position
+     * @param index the run index within its position
+     * @return the run level, within 0..255
+     */
+    final int getLevel (int pos,
+                        int index)
+    {
+        return levels[offsets[pos] + index] & 0xFF;
+    }
+
+    //---------//
+    // getRuns //
+    //---------//
+    /**
+     * Build a modifiable list of brand new Run instances for a given
+     * position.
+     *
+     * @param pos the desired position
+     * @return the list of runs at this position
+     */
+    List<Run> getRuns (int pos)
+    {
+        final int size = sizes[pos];
+        final List<Run> runs = new ArrayList<>(size);
+
+        for (int i = 0, index = offsets[pos]; i < size; i++, index++) {
+            runs.add(new Run(starts[index], lengths[index], levels[index] & 0xFF));
+        }
+
+        return runs;
+    }
+
+    //---------//
+    // getSize //
+    //---------//
+    /**
+     * Report the number of runs at a given position.
+     *
+     * @param pos the desired position
+     * @return the number of runs
+     */
+    final int getSize (int pos)
+    {
+        return sizes[pos];
+    }
+
+    //----------//
+    // getStart //
+    //----------//
+    /**
+     * Report the start coordinate of a run.
+     *
+     * @param pos   the run position
+     * @param index the run index within its position
+     * @return the run start
+     */
+    final int getStart (int pos,
+                        int index)
+    {
+        return starts[offsets[pos] + index];
+    }
+
+    //-----//
+    // set //
+    //-----//
+    /**
+     * Overwrite the run at a given index.
+     * This is meant for in-place compaction only, the provided index must not
+     * exceed the current number of runs at this position.
+     *
+     * @param pos    the run position
+     * @param index  the run index within its position
+     * @param start  the new start
+     * @param length the new length
+     * @param level  the new level
+     */
+    final void set (int pos,
+                    int index,
+                    int start,
+                    int length,
+                    int level)
+    {
+        final int i = offsets[pos] + index;
+        starts[i] = start;
+        lengths[i] = length;
+        levels[i] = (byte) level;
+    }
+
+    //----------//
+    // truncate //
+    //----------//
+    /**
+     * Reduce the number of runs at a given position.
+     *
+     * @param pos  the run position
+     * @param size the new number of runs, not larger than the current one
+     */
+    final void truncate (int pos,
+                         int size)
+    {
+        sizes[pos] = size;
+    }
+}
@@ -34,6 +34,40 @@ public interface PixelFilter
     Context getContext (int x,
                         int y);
 
+    /**
+     * Bulk version of {@link #isFore} for column x, between ordinates
+     * yMin and yMax.
+     *
+     * @param x      abscissa value
+     * @param yMin   first ordinate
+     * @param yMax   last ordinate (included)
+     * @param levels the array to fill with pixel values, indexed by ordinate
+     * @param fores  the array to fill with foreground flags, indexed by
+     *               ordinate
+     */
+    void getForeColumn (int x,
+                        int yMin,
+                        int yMax,
+                        int[] levels,
+                        boolean[] fores);
+
+    /**
+     * Bulk version of {@link #isFore} for row y, between abscissae
+     * xMin and xMax.
+     *
+     * @param y      ordinate value
+     * @param xMin   first abscissa
+     * @param xMax   last abscissa (included)
+     * @param levels the array to fill with pixel values, indexed by abscissa
+     * @param fores  the array to fill with foreground flags, indexed by
+     *               abscissa
+     */
+    void getForeRow (int y,
+                     int xMin,
+                     int xMax,
+                     int[] levels,
+                     boolean[] fores);
+
     /**
      * Report whether the pixel at location (x,y) is a foreground pixel
      * or not.
@@ -28,6 +28,23 @@ public interface PixelSource
     public static final int BACKGROUND = 255;
 
     //~ Methods ----------------------------------------------------------------
+    /**
+     * Fill the provided array with the pixels of column x, between
+     * ordinates yMin and yMax.
+     * This is meant for bulk access, and should be much more efficient than
+     * successive calls to {@link #getPixel}.
+     *
+     * @param x      abscissa value
+     * @param yMin   first ordinate
+     * @param yMax   last ordinate (included)
+     * @param levels the array to fill, indexed by ordinate:
+     *               levels[y] receives the pixel value at (x, y)
+     */
+    void getColumn (int x,
+                    int yMin,
+                    int yMax,
+                    int[] levels);
+
     /**
      * Report the height of the rectangular source
      *
@@ -48,6 +65,23 @@ public interface PixelSource
     int getPixel (int x,
                   int y);
 
+    /**
+     * Fill the provided array with the pixels of row y, between
+     * abscissae xMin and xMax.
+     * This is meant for bulk access, and should be much more efficient than
+     * successive calls to {@link #getPixel}.
+     *
+     * @param y      ordinate value
+     * @param xMin   first abscissa
+     * @param xMax   last abscissa (included)
+     * @param levels the array to fill, indexed by abscissa:
+     *               levels[x] receives the pixel value at (x, y)
+     */
+    void getRow (int y,
+                 int xMin,
+                 int xMax,
+                 int[] levels);
+
     /**
      * Report the width of the rectangular source.
      *
@@ -61,6 +61,20 @@ public class PixelsBuffer
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-----------//
+    // getColumn //
+    //-----------//
+    @Override
+    public void getColumn (int x,
+                           int yMin,
+                           int yMax,
+                           int[] levels)
+    {
+        for (int y = yMin, i = (yMin * width) + x; y <= yMax; y++, i += width) {
+            levels[y] = buffer[i];
+        }
+    }
+
     //------------//
     // getContext //
     //------------//
@@ -71,6 +85,40 @@ public class PixelsBuffer
         return new Context(BACKGROUND / 2);
     }
 
+    //---------------//
+    // getForeColumn //
+    //---------------//
+    @Override
+    public void getForeColumn (int x,
+                               int yMin,
+                               int yMax,
+                               int[] levels,
+                               boolean[] fores)
+    {
+        getColumn(x, yMin, yMax, levels);
+
+        for (int y = yMin; y <= yMax; y++) {
+            fores[y] = levels[y] != BACKGROUND;
+        }
+    }
+
+    //------------//
+    // getForeRow //
+    //------------//
+    @Override
+    public void getForeRow (int y,
+                            int xMin,
+                            int xMax,
+                            int[] levels,
+                            boolean[] fores)
+    {
+        getRow(y, xMin, xMax, levels);
+
+        for (int x = xMin; x <= xMax; x++) {
+            fores[x] = levels[x] != BACKGROUND;
+        }
+    }
+
     //-----------//
     // getHeight //
     //-----------//
@@ -90,6 +138,22 @@ public class PixelsBuffer
         return buffer[(y * width) + x];
     }
 
+    //--------//
+    // getRow //
+    //--------//
+    @Override
+    public void getRow (int y,
+                        int xMin,
+                        int xMax,
+                        int[] levels)
+    {
+        final int offset = y * width;
+
+        for (int x = xMin; x <= xMax; x++) {
+            levels[x] = buffer[offset + x];
+        }
+    }
+
     //----------//
     // getWidth //
     //----------//
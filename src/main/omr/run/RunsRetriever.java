@@ -11,6 +11,10 @@
 // </editor-fold>
 package omr.run;
 
+import omr.constant.Constant;
+import omr.constant.ConstantContext;
+import omr.constant.ConstantSet;
+
 import omr.step.ProcessingCancellationException;
 
 import omr.util.Concurrency;
@@ -36,6 +40,9 @@ public class RunsRetriever
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(RunsRetriever.class);
 
@@ -97,14 +104,21 @@ public class RunsRetriever
      * Process the pixels in position 'p' between coordinates 'cMin'
      * and 'cMax'
      *
-     * @param p    the position in the pixels array (x for vertical)
-     * @param cMin the starting coordinate (y for vertical)
-     * @param cMax the ending coordinate
+     * @param p      the position in the pixels array (x for vertical)
+     * @param cMin   the starting coordinate (y for vertical)
+     * @param cMax   the ending coordinate
+     * @param levels buffer for pixel levels, indexed by coordinate
+     * @param fores  buffer for foreground flags, indexed by coordinate
      */
     private void processPosition (int p,
                                   int cMin,
-                                  int cMax)
+                                  int cMax,
+                                  int[] levels,
+                                  boolean[] fores)
     {
+        // Read the whole line at once
+        adapter.getLine(p, cMin, cMax, levels, fores);
+
         // Current run is FOREGROUND or BACKGROUND
         boolean isFore = false;
 
@@ -116,10 +130,9 @@ public class RunsRetriever
 
         // Browse other dimension
         for (int c = cMin; c <= cMax; c++) {
-            final int level = adapter.getLevel(c, p);
+            final int level = levels[c];
 
-            ///logger.info("p:" + p + " c:" + c + " level:" + level);
-            if (adapter.isFore(c, p)) {
+            if (fores[c]) {
                 // We are on a foreground pixel
                 if (isFore) {
                     // Append to the foreground run in progress
@@ -160,6 +173,31 @@ public class RunsRetriever
         }
     }
 
+    //--------------//
+    // processChunk //
+    //--------------//
+    /**
+     * Process a chunk of consecutive positions, with line buffers
+     * allocated once for the whole chunk.
+     *
+     * @param pMin first position of the chunk
+     * @param pMax last position of the chunk
+     * @param cMin the starting coordinate
+     * @param cMax the ending coordinate
+     */
+    private void processChunk (int pMin,
+                               int pMax,
+                               int cMin,
+                               int cMax)
+    {
+        final int[] levels = new int[cMax + 1];
+        final boolean[] fores = new boolean[cMax + 1];
+
+        for (int p = pMin; p <= pMax; p++) {
+            processPosition(p, cMin, cMax, levels, fores);
+        }
+    }
+
     //-------------------//
     // rowBasedRetrieval //
     //-------------------//
@@ -167,27 +205,36 @@ public class RunsRetriever
      * Retrieve runs row by row.
      * This method handles the pixels run either in a parallel or a serial way,
      * according to the possibilities of the high OMR executor.
+     *
+     * <p>In parallel mode, positions are split into chunks of consecutive
+     * rows, a few chunks per CPU, rather than one task per row.
+     * Since each position belongs to exactly one chunk, the adapter
+     * call-backs of different chunks never address the same position.
      */
     private void rowBasedRetrieval (int pMin,
                                     int pMax,
                                     final int cMin,
                                     final int cMax)
     {
-        if (OmrExecutors.defaultParallelism.getSpecific() == false
-            || !adapter.isThreadSafe()) {
+        final int count = pMax - pMin + 1;
+        final int chunkCount = Math.min(
+                count,
+                OmrExecutors.getParallelism()
+                * Math.max(1, constants.chunksPerCpu.getValue()));
+
+        if ((OmrExecutors.defaultParallelism.getSpecific() == false)
+            || !adapter.isThreadSafe() || (chunkCount <= 1)) {
             // Sequential
-            for (int p = pMin; p <= pMax; p++) {
-                processPosition(p, cMin, cMax);
-            }
+            processChunk(pMin, pMax, cMin, cMax);
         } else {
-            // Parallel (TODO: should use Java 7 fork/join someday...)
+            // Parallel, by chunks of consecutive positions
             try {
-                // Browse one dimension
-                List<Callable<Void>> tasks = new ArrayList<>(
-                        pMax - pMin + 1);
+                List<Callable<Void>> tasks = new ArrayList<>(chunkCount);
+                final int chunkSize = ((count + chunkCount) - 1) / chunkCount;
 
-                for (int p = pMin; p <= pMax; p++) {
-                    final int pp = p;
+                for (int p = pMin; p <= pMax; p += chunkSize) {
+                    final int first = p;
+                    final int last = Math.min(pMax, (p + chunkSize) - 1);
                     tasks.add(
                             new Callable<Void>()
                     {
@@ -195,7 +242,7 @@ public class RunsRetriever
                         public Void call ()
                                 throws Exception
                         {
-                            processPosition(pp, cMin, cMax);
+                            processChunk(first, last, cMin, cMax);
 
                             return null;
                         }
@@ -204,7 +251,7 @@ public class RunsRetriever
 
                 // Launch the tasks and wait for their completion
                 OmrExecutors.getHighExecutor()
-                        .invokeAll(tasks);
+                        .invokeAll(ConstantContext.wrapAll(tasks));
             } catch (InterruptedException ex) {
                 logger.warn("ParallelRuns got interrupted");
                 throw new ProcessingCancellationException(ex);
@@ -261,35 +308,27 @@ public class RunsRetriever
                       int length,
                       int cumul);
 
-        //----------//
-        // getLevel //
-        //----------//
-        /**
-         * This method is used to report the gray level of the pixel
-         * read at location (coord, pos).
-         *
-         * @param coord x for horizontal runs, y for vertical runs
-         * @param pos   y for horizontal runs, x for vertical runs
-         *
-         * @return the pixel gray value (from 0 for black up to 255 for white)
-         */
-        int getLevel (int coord,
-                      int pos);
-
-        //--------//
-        // isFore //
-        //--------//
+        //---------//
+        // getLine //
+        //---------//
         /**
-         * This method is used to check if the pixel at location
-         * (coord, pos) is a foreground pixel.
-         *
-         * @param coord x for horizontal runs, y for vertical runs
-         * @param pos   y for horizontal runs, x for vertical runs
+         * This method is used to read, at once, the gray levels and the
+         * foreground flags of all pixels at position 'pos' between
+         * coordinates 'cMin' and 'cMax'.
          *
-         * @return true if pixel is foreground, false otherwise
+         * @param pos    y for horizontal runs, x for vertical runs
+         * @param cMin   first coordinate (x for horizontal, y for vertical)
+         * @param cMax   last coordinate (included)
+         * @param levels array to fill, indexed by coordinate, with pixel gray
+         *               values (from 0 for black up to 255 for white)
+         * @param fores  array to fill, indexed by coordinate, with true for
+         *               foreground pixels and false for background pixels
          */
-        boolean isFore (int coord,
-                        int pos);
+        void getLine (int pos,
+                      int cMin,
+                      int cMax,
+                      int[] levels,
+                      boolean[] fores);
 
         //-----------//
         // terminate //
@@ -299,4 +338,21 @@ public class RunsRetriever
          */
         void terminate ();
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer chunksPerCpu = new Constant.Integer(
+                "chunks",
+                4,
+                "Number of chunks of positions per CPU, for parallel retrieval");
+
+    }
 }
@@ -27,14 +27,29 @@ import org.slf4j.LoggerFactory;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Class {@code RunsTable} handles a rectangular assembly of oriented
  * runs.
  *
+ * <p>The runs of a position can be kept in two ways: either as a list of
+ * {@link Run} instances, or packed in primitive arrays (see
+ * {@link PackedRuns}), which is much more compact.
+ * A packed position is converted to a list of runs, once for all, as soon as
+ * its sequence is requested via {@link #getSequence}.
+ * Methods such as {@link #getRunStart}, {@link #getRunLength} or
+ * {@link #getPixel} work on both representations without any conversion.
+ * Conversion is performed under the table lock, so that concurrent readers
+ * always see either the packed or the converted runs of a position.
+ *
  * @author Hervé Bitteur
  */
 public class RunsTable
@@ -64,8 +79,17 @@ public class RunsTable
     /** Absolute dimension of the table */
     private final Dimension dimension;
 
-    /** List of Runs found in each row. This is a list of lists of Runs */
-    private final List<List<Run>> runs;
+    /**
+     * List of Runs found in each row. This is a list of lists of Runs.
+     * A null entry indicates a position whose runs are still packed.
+     */
+    private final AtomicReferenceArray<List<Run>> runs;
+
+    /** Packed runs, if any position is still packed */
+    private volatile PackedRuns packed;
+
+    /** Number of positions still packed (guarded by this) */
+    private int packedCount;
 
     /** Hosted event service for UI events related to this table (Runs) */
     private final SelectionService runService;
@@ -85,11 +109,32 @@ public class RunsTable
     public RunsTable (String name,
                       Orientation orientation,
                       Dimension dimension)
+    {
+        this(name, orientation, dimension, null);
+    }
+
+    //-----------//
+    // RunsTable //
+    //-----------//
+    /**
+     * Creates a new RunsTable object, with all its positions packed.
+     *
+     * @param name        name for debugging
+     * @param orientation orientation of each run
+     * @param dimension   absolute dimensions of the table (width is horizontal,
+     *                    height is vertical)
+     * @param packed      the packed runs, one sequence per position, or null
+     *                    for empty lists of runs
+     */
+    RunsTable (String name,
+               Orientation orientation,
+               Dimension dimension,
+               PackedRuns packed)
     {
         this.name = name;
         this.orientation = orientation;
         this.dimension = dimension;
-
+        this.packed = packed;
 
         runService = new SelectionService(name, eventsWritten);
 
@@ -98,11 +143,15 @@ public class RunsTable
                 new Rectangle(0, 0, dimension.width, dimension.height));
 
         // Prepare the collections of runs, one collection per pos value
-        runs = new ArrayList<>(rect.height);
+        runs = new AtomicReferenceArray<>(rect.height);
 
-        for (int i = 0; i < rect.height; i++) {
-            runs.add(new ArrayList<Run>());
+        if (packed == null) {
+            for (int i = 0; i < rect.height; i++) {
+                runs.set(i, new ArrayList<Run>());
+            }
         }
+
+        packedCount = (packed != null) ? rect.height : 0;
     }
 
     //~ Methods ----------------------------------------------------------------
@@ -128,16 +177,21 @@ public class RunsTable
      * @param name a new name for the copy
      * @return another table on the same run instances
      */
-    public RunsTable copy (String name)
+    public synchronized RunsTable copy (String name)
     {
-        RunsTable clone = new RunsTable(name, orientation, dimension);
+        // Still packed positions get a private copy, since purge may modify it
+        RunsTable clone = new RunsTable(
+                name,
+                orientation,
+                dimension,
+                (packed != null) ? new PackedRuns(packed) : null);
+        clone.packedCount = packedCount;
 
         for (int i = 0; i < getSize(); i++) {
-            List<Run> seq = getSequence(i);
-            List<Run> cloneSeq = clone.getSequence(i);
+            List<Run> seq = runs.get(i);
 
-            for (Run run : seq) {
-                cloneSeq.add(run);
+            if (seq != null) {
+                clone.runs.set(i, new ArrayList<>(seq));
             }
         }
 
@@ -189,6 +243,42 @@ public class RunsTable
         return sb.toString();
     }
 
+    //-----------//
+    // getColumn //
+    //-----------//
+    @Override
+    public void getColumn (int x,
+                           int yMin,
+                           int yMax,
+                           int[] levels)
+    {
+        if (orientation == Orientation.VERTICAL) {
+            fillSequence(x, yMin, yMax, levels);
+        } else {
+            for (int y = yMin; y <= yMax; y++) {
+                levels[y] = getPixel(x, y);
+            }
+        }
+    }
+
+    //--------//
+    // getRow //
+    //--------//
+    @Override
+    public void getRow (int y,
+                        int xMin,
+                        int xMax,
+                        int[] levels)
+    {
+        if (orientation == Orientation.HORIZONTAL) {
+            fillSequence(y, xMin, xMax, levels);
+        } else {
+            for (int x = xMin; x <= xMax; x++) {
+                levels[x] = getPixel(x, y);
+            }
+        }
+    }
+
     //----------//
     // getPixel //
     //----------//
@@ -209,9 +299,26 @@ public class RunsTable
     public final int getPixel (int x,
                                int y)
     {
-        Run run = getRunAt(x, y);
+        Point oPt = orientation.oriented(new Point(x, y));
+
+        // Protection
+        if ((oPt.y < 0) || (oPt.y >= runs.length())) {
+            return BACKGROUND;
+        }
+
+        for (int i = 0, size = getSequenceSize(oPt.y); i < size; i++) {
+            final int start = getRunStart(oPt.y, i);
+
+            if (start > oPt.x) {
+                return BACKGROUND;
+            }
 
-        return (run != null) ? run.getLevel() : BACKGROUND;
+            if ((start + getRunLength(oPt.y, i)) > oPt.x) {
+                return getRunLevel(oPt.y, i);
+            }
+        }
+
+        return BACKGROUND;
     }
 
     //----------//
@@ -230,7 +337,7 @@ public class RunsTable
         Point oPt = orientation.oriented(new Point(x, y));
 
         // Protection
-        if ((oPt.y < 0) || (oPt.y >= runs.size())) {
+        if ((oPt.y < 0) || (oPt.y >= runs.length())) {
             return null;
         }
 
@@ -266,10 +373,11 @@ public class RunsTable
         case HORIZONTAL:
 
             for (int row = 0; row < getSize(); row++) {
-                List<Run> seq = getSequence(row);
+                for (int i = 0, size = getSequenceSize(row); i < size; i++) {
+                    final int start = getRunStart(row, i);
+                    final int stop = (start + getRunLength(row, i)) - 1;
 
-                for (Run run : seq) {
-                    for (int c = run.getStart(); c <= run.getStop(); c++) {
+                    for (int c = start; c <= stop; c++) {
                         buffer.setPixel(c, row, (char) 0);
                     }
                 }
@@ -280,11 +388,11 @@ public class RunsTable
         case VERTICAL:
 
             for (int row = 0; row < getSize(); row++) {
-                List<Run> seq = getSequence(row);
+                for (int i = 0, size = getSequenceSize(row); i < size; i++) {
+                    final int start = getRunStart(row, i);
+                    final int stop = (start + getRunLength(row, i)) - 1;
 
-                for (Run run : seq) {
-                    for (int col = run.getStart(); col <= run.getStop();
-                            col++) {
+                    for (int col = start; col <= stop; col++) {
                         buffer.setPixel(row, col, (char) 0);
                     }
                 }
@@ -300,14 +408,42 @@ public class RunsTable
     // getSequence //
     //-------------//
     /**
-     * Report the sequence of runs at a given index
+     * Report the sequence of runs at a given index.
+     * If this position was still packed, it gets converted to a list of
+     * Run instances.
      *
      * @param index the desired index
      * @return the MODIFIABLE sequence of rows
      */
     public final List<Run> getSequence (int index)
     {
-        return runs.get(index);
+        final List<Run> seq = runs.get(index);
+
+        return (seq != null) ? seq : unpack(index);
+    }
+
+    //-----------------//
+    // getSequenceSize //
+    //-----------------//
+    /**
+     * Report the number of runs in the sequence at a given index,
+     * without converting a packed sequence.
+     *
+     * @param index the desired index
+     * @return the number of runs in the sequence
+     */
+    public final int getSequenceSize (int index)
+    {
+        final List<Run> seq = runs.get(index);
+
+        if (seq != null) {
+            return seq.size();
+        }
+
+        // Packed data is kept intact until all positions are converted
+        final PackedRuns p = packed;
+
+        return (p != null) ? p.getSize(index) : getSequence(index).size();
     }
 
     //---------//
@@ -320,7 +456,7 @@ public class RunsTable
      */
     public final int getSize ()
     {
-        return runs.size();
+        return runs.length();
     }
 
     //--------------//
@@ -381,15 +517,94 @@ public class RunsTable
     {
         int runCount = 0;
 
-        for (List<Run> seq : runs) {
-            for (Run run : seq) {
-                runCount += run.getLength();
+        for (int index = 0; index < runs.length(); index++) {
+            for (int i = 0, size = getSequenceSize(index); i < size; i++) {
+                runCount += getRunLength(index, i);
             }
         }
 
         return runCount;
     }
 
+    //--------------//
+    // getRunLength //
+    //--------------//
+    /**
+     * Report the length of a run, without converting a packed sequence.
+     *
+     * @param index the sequence index
+     * @param i     the run index within the sequence
+     * @return the run length
+     */
+    public final int getRunLength (int index,
+                                   int i)
+    {
+        final List<Run> seq = runs.get(index);
+
+        if (seq != null) {
+            return seq.get(i)
+                    .getLength();
+        }
+
+        final PackedRuns p = packed;
+
+        return (p != null) ? p.getLength(index, i)
+               : getSequence(index).get(i).getLength();
+    }
+
+    //-------------//
+    // getRunLevel //
+    //-------------//
+    /**
+     * Report the average level of a run, without converting a packed
+     * sequence.
+     *
+     * @param index the sequence index
+     * @param i     the run index within the sequence
+     * @return the run level
+     */
+    public final int getRunLevel (int index,
+                                  int i)
+    {
+        final List<Run> seq = runs.get(index);
+
+        if (seq != null) {
+            return seq.get(i)
+                    .getLevel();
+        }
+
+        final PackedRuns p = packed;
+
+        return (p != null) ? p.getLevel(index, i)
+               : getSequence(index).get(i).getLevel();
+    }
+
+    //-------------//
+    // getRunStart //
+    //-------------//
+    /**
+     * Report the start of a run, without converting a packed sequence.
+     *
+     * @param index the sequence index
+     * @param i     the run index within the sequence
+     * @return the run start coordinate
+     */
+    public final int getRunStart (int index,
+                                  int i)
+    {
+        final List<Run> seq = runs.get(index);
+
+        if (seq != null) {
+            return seq.get(i)
+                    .getStart();
+        }
+
+        final PackedRuns p = packed;
+
+        return (p != null) ? p.getStart(index, i)
+               : getSequence(index).get(i).getStart();
+    }
+
     //---------------//
     // getRunService //
     //---------------//
@@ -478,18 +693,20 @@ public class RunsTable
             && this.dimension.equals(that.dimension)) {
             // Check runs
             for (int row = 0; row < getSize(); row++) {
-                List<Run> thisSeq = getSequence(row);
-                List<Run> thatSeq = that.getSequence(row);
+                final int size = getSequenceSize(row);
 
-                if (thisSeq.size() != thatSeq.size()) {
+                if (size != that.getSequenceSize(row)) {
                     return false;
                 }
 
-                for (int iRun = 0; iRun < thisSeq.size(); iRun++) {
-                    Run thisRun = thisSeq.get(iRun);
-                    Run thatRun = thatSeq.get(iRun);
-
-                    if (!thisRun.isIdentical(thatRun)) {
+                for (int iRun = 0; iRun < size; iRun++) {
+                    if ((getRunStart(row, iRun) != that.getRunStart(row, iRun))
+                        || (getRunLength(row, iRun) != that.getRunLength(
+                            row,
+                            iRun))
+                        || (getRunLevel(row, iRun) != that.getRunLevel(
+                            row,
+                            iRun))) {
                         return false;
                     }
                 }
@@ -601,7 +818,13 @@ public class RunsTable
         }
 
         for (int i = 0; i < getSize(); i++) {
-            List<Run> seq = getSequence(i);
+            List<Run> seq = runs.get(i);
+
+            if (seq == null) {
+                purgePacked(i, predicate, removed);
+
+                continue;
+            }
 
             for (Iterator<Run> it = seq.iterator(); it.hasNext();) {
                 Run run = it.next();
@@ -619,6 +842,49 @@ public class RunsTable
         return this;
     }
 
+    //------//
+    // read //
+    //------//
+    /**
+     * Read back a table, as written by {@link #write}.
+     * All positions of the resulting table are packed.
+     *
+     * @param name the name for the new table
+     * @param in   the input stream
+     * @return the table read
+     * @throws IOException if the stream is not readable
+     */
+    public static RunsTable read (String name,
+                                  DataInputStream in)
+            throws IOException
+    {
+        final Orientation orientation = Orientation.valueOf(in.readUTF());
+        final Dimension dimension = new Dimension(in.readInt(), in.readInt());
+        final int size = in.readInt();
+        final int[][] triplets = new int[size][];
+        final int[] counts = new int[size];
+
+        for (int pos = 0; pos < size; pos++) {
+            final int count = in.readInt();
+            final int[] seq = new int[3 * count];
+
+            for (int i = 0; i < seq.length; i += 3) {
+                seq[i] = in.readInt();
+                seq[i + 1] = in.readInt();
+                seq[i + 2] = in.readUnsignedByte();
+            }
+
+            triplets[pos] = seq;
+            counts[pos] = count;
+        }
+
+        return new RunsTable(
+                name,
+                orientation,
+                dimension,
+                new PackedRuns(triplets, counts));
+    }
+
     //-----------//
     // removeRun //
     //-----------//
@@ -678,8 +944,8 @@ public class RunsTable
         // Debug
         if (false) {
             int count = 0;
-            for (List<Run> seq : runs) {
-                count += seq.size();
+            for (int i = 0; i < runs.length(); i++) {
+                count += getSequenceSize(i);
             }
             sb.append(" count:").append(count);
         }
@@ -689,6 +955,145 @@ public class RunsTable
         return sb.toString();
     }
 
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the table content (orientation, dimension and all runs) to
+     * the provided stream, in a compact binary form.
+     *
+     * @param out the output stream
+     * @throws IOException if the stream is not writable
+     * @see #read
+     */
+    public void write (DataOutputStream out)
+            throws IOException
+    {
+        out.writeUTF(orientation.name());
+        out.writeInt(dimension.width);
+        out.writeInt(dimension.height);
+        out.writeInt(getSize());
+
+        for (int pos = 0; pos < getSize(); pos++) {
+            final int size = getSequenceSize(pos);
+            out.writeInt(size);
+
+            for (int i = 0; i < size; i++) {
+                out.writeInt(getRunStart(pos, i));
+                out.writeInt(getRunLength(pos, i));
+                out.writeByte(getRunLevel(pos, i));
+            }
+        }
+    }
+
+    //--------------//
+    // fillSequence //
+    //--------------//
+    /**
+     * Fill the levels of the sequence at provided position, between
+     * coordinates cMin and cMax.
+     *
+     * @param pos    the sequence position
+     * @param cMin   first coordinate
+     * @param cMax   last coordinate (included)
+     * @param levels the array to fill, indexed by coordinate
+     */
+    private void fillSequence (int pos,
+                               int cMin,
+                               int cMax,
+                               int[] levels)
+    {
+        Arrays.fill(levels, cMin, cMax + 1, BACKGROUND);
+
+        for (int i = 0, size = getSequenceSize(pos); i < size; i++) {
+            final int start = getRunStart(pos, i);
+
+            if (start > cMax) {
+                break;
+            }
+
+            final int level = getRunLevel(pos, i);
+
+            for (int c = Math.max(cMin, start),
+                    stop = Math.min(cMax, (start + getRunLength(pos, i)) - 1);
+                    c <= stop; c++) {
+                levels[c] = level;
+            }
+        }
+    }
+
+    //-------------//
+    // purgePacked //
+    //-------------//
+    /**
+     * Purge a still packed position, compacting the remaining runs in
+     * place.
+     *
+     * @param pos       the packed position
+     * @param predicate the filter to detect runs to remove
+     * @param removed   a table to be filled, if not null, with purged runs
+     */
+    private void purgePacked (int pos,
+                              Predicate<Run> predicate,
+                              RunsTable removed)
+    {
+        int kept = 0;
+
+        for (int i = 0, size = packed.getSize(pos); i < size; i++) {
+            Run run = new Run(
+                    packed.getStart(pos, i),
+                    packed.getLength(pos, i),
+                    packed.getLevel(pos, i));
+
+            if (predicate.check(run)) {
+                if (removed != null) {
+                    removed.getSequence(pos)
+                            .add(run);
+                }
+            } else {
+                if (kept != i) {
+                    packed.set(
+                            pos,
+                            kept,
+                            run.getStart(),
+                            run.getLength(),
+                            run.getLevel());
+                }
+
+                kept++;
+            }
+        }
+
+        packed.truncate(pos, kept);
+    }
+
+    //--------//
+    // unpack //
+    //--------//
+    /**
+     * Convert a packed position to a list of Run instances, unless
+     * another thread has just done it.
+     *
+     * @param index the position to convert
+     * @return the sequence of runs at this position
+     */
+    private synchronized List<Run> unpack (int index)
+    {
+        List<Run> seq = runs.get(index);
+
+        if (seq == null) {
+            seq = packed.getRuns(index);
+            runs.set(index, seq);
+
+            // Once all positions are converted, packed data is useless
+            if (--packedCount == 0) {
+                packed = null;
+            }
+        }
+
+        return seq;
+    }
+
     //-------------//
     // handleEvent //
     //-------------//
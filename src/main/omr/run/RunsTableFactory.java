@@ -11,6 +11,9 @@
 // </editor-fold>
 package omr.run;
 
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
 import net.jcip.annotations.NotThreadSafe;
 import net.jcip.annotations.ThreadSafe;
 
@@ -19,18 +22,25 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.util.Arrays;
 
 /**
  * Class {@code RunsTableFactory} retrieves the runs structure out of
  * a given pixel source and builds the related {@link RunsTable} 
  * structure.
  *
+ * <p>By default, the created table has all its runs packed in primitive
+ * arrays, rather than one {@link Run} instance per run.
+ *
  * @author Hervé Bitteur
  */
 public class RunsTableFactory
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(
             RunsTableFactory.class);
@@ -91,14 +101,21 @@ public class RunsTableFactory
      */
     public RunsTable createTable (String name)
     {
-        table = new RunsTable(
-                name,
-                orientation,
-                new Dimension(source.getWidth(), source.getHeight()));
+        final Dimension dimension = new Dimension(
+                source.getWidth(),
+                source.getHeight());
+        final MyAdapter adapter;
 
-        RunsRetriever retriever = new RunsRetriever(
-                orientation,
-                new MyAdapter());
+        if (constants.packedRuns.isSet()) {
+            adapter = new PackedAdapter(
+                    name,
+                    orientation.oriented(new Rectangle(dimension)).height);
+        } else {
+            table = new RunsTable(name, orientation, dimension);
+            adapter = new MyAdapter();
+        }
+
+        RunsRetriever retriever = new RunsRetriever(orientation, adapter);
 
         retriever.retrieveRuns(
                 new Rectangle(0, 0, source.getWidth(), source.getHeight()));
@@ -131,10 +148,10 @@ public class RunsTableFactory
         // foreRun //
         // --------//
         @Override
-        public final void foreRun (int coord,
-                                   int pos,
-                                   int length,
-                                   int cumul)
+        public void foreRun (int coord,
+                             int pos,
+                             int length,
+                             int cumul)
         {
             // We consider only runs that are longer than minLength
             if (length >= minLength) {
@@ -144,31 +161,20 @@ public class RunsTableFactory
             }
         }
 
-        // ---------//
-        // getLevel //
-        // ---------//
-        @Override
-        public final int getLevel (int coord,
-                                   int pos)
-        {
-            if (swapNeeded) {
-                return source.getPixel(pos, coord);
-            } else {
-                return source.getPixel(coord, pos);
-            }
-        }
-
-        // -------//
-        // isFore //
-        // -------//
+        // --------//
+        // getLine //
+        // --------//
         @Override
-        public final boolean isFore (int coord,
-                                     int pos)
+        public final void getLine (int pos,
+                                   int cMin,
+                                   int cMax,
+                                   int[] levels,
+                                   boolean[] fores)
         {
             if (swapNeeded) {
-                return source.isFore(pos, coord);
+                source.getForeColumn(pos, cMin, cMax, levels, fores);
             } else {
-                return source.isFore(coord, pos);
+                source.getForeRow(pos, cMin, cMax, levels, fores);
             }
         }
 
@@ -176,7 +182,7 @@ public class RunsTableFactory
         // terminate //
         // ----------//
         @Override
-        public final void terminate ()
+        public void terminate ()
         {
             logger.debug("{} Retrieved runs: {}", table, table.getRunCount());
         }
@@ -213,4 +219,92 @@ public class RunsTableFactory
             return false;
         }
     }
+
+    //---------------//
+    // PackedAdapter //
+    //---------------//
+    /**
+     * An adapter which collects runs per position into primitive
+     * buffers, and builds a packed table at the end.
+     */
+    private class PackedAdapter
+            extends MyAdapter
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** Name for the table to build. */
+        private final String name;
+
+        /** Per position, the (start, length, level) triplets of runs. */
+        private final int[][] triplets;
+
+        /** Per position, the number of runs. */
+        private final int[] counts;
+
+        //~ Constructors -------------------------------------------------------
+        public PackedAdapter (String name,
+                              int size)
+        {
+            this.name = name;
+            triplets = new int[size][];
+            counts = new int[size];
+        }
+
+        //~ Methods ------------------------------------------------------------
+        //---------//
+        // foreRun //
+        //---------//
+        @Override
+        public void foreRun (int coord,
+                             int pos,
+                             int length,
+                             int cumul)
+        {
+            // We consider only runs that are longer than minLength
+            if (length >= minLength) {
+                final int level = ((2 * cumul) + length) / (2 * length);
+                final int index = 3 * counts[pos];
+                int[] seq = triplets[pos];
+
+                if (seq == null) {
+                    seq = triplets[pos] = new int[12];
+                } else if (index == seq.length) {
+                    seq = triplets[pos] = Arrays.copyOf(seq, 2 * index);
+                }
+
+                seq[index] = coord - length;
+                seq[index + 1] = length;
+                seq[index + 2] = level;
+                counts[pos]++;
+            }
+        }
+
+        //-----------//
+        // terminate //
+        //-----------//
+        @Override
+        public void terminate ()
+        {
+            table = new RunsTable(
+                    name,
+                    orientation,
+                    new Dimension(source.getWidth(), source.getHeight()),
+                    new PackedRuns(triplets, counts));
+            super.terminate();
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean packedRuns = new Constant.Boolean(
+                true,
+                "Should created tables keep their runs packed in arrays?");
+
+    }
 }
@@ -37,6 +37,18 @@ public class SourceWrapper
 
     //~ Methods ----------------------------------------------------------------
     //
+    //-----------//
+    // getColumn //
+    //-----------//
+    @Override
+    public void getColumn (int x,
+                           int yMin,
+                           int yMax,
+                           int[] levels)
+    {
+        source.getColumn(x, yMin, yMax, levels);
+    }
+
     //-----------//
     // getHeight //
     //-----------//
@@ -56,6 +68,18 @@ public class SourceWrapper
         return source.getPixel(x, y);
     }
 
+    //--------//
+    // getRow //
+    //--------//
+    @Override
+    public void getRow (int y,
+                        int xMin,
+                        int xMax,
+                        int[] levels)
+    {
+        source.getRow(y, xMin, xMax, levels);
+    }
+
     //----------//
     // getWidth //
     //----------//
@@ -0,0 +1,83 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                       S t r i p D e s c r i p t o r                        //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.run;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Class {@code StripDescriptor} describes a {@link StripFilter}.
+ * It uses the same coefficients as the other adaptive filters.
+ *
+ * @author Hervé Bitteur
+ */
+@XmlAccessorType(XmlAccessType.NONE)
+@XmlRootElement(name = "strip-filter")
+public class StripDescriptor
+        extends AdaptiveDescriptor
+{
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-----------------//
+    // StripDescriptor //
+    //-----------------//
+    /**
+     * Creates a new StripDescriptor object.
+     *
+     * @param meanCoeff   Coefficient for mean value
+     * @param stdDevCoeff Coefficient for standard deviation value
+     */
+    public StripDescriptor (double meanCoeff,
+                            double stdDevCoeff)
+    {
+        super(meanCoeff, stdDevCoeff);
+    }
+
+    //-----------------//
+    // StripDescriptor // No-arg constructor meant for JAXB
+    //-----------------//
+    private StripDescriptor ()
+    {
+        this(0, 0);
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //------------//
+    // getDefault //
+    //------------//
+    public static StripDescriptor getDefault ()
+    {
+        return new StripDescriptor(
+                AdaptiveFilter.getDefaultMeanCoeff(),
+                AdaptiveFilter.getDefaultStdDevCoeff());
+    }
+
+    //-----------//
+    // getFilter //
+    //-----------//
+    @Override
+    public PixelFilter getFilter (PixelSource source)
+    {
+        return new StripFilter(source, meanCoeff, stdDevCoeff);
+    }
+
+    //
+    //---------//
+    // getKind //
+    //---------//
+    @Override
+    public FilterKind getKind ()
+    {
+        return FilterKind.STRIP;
+    }
+}
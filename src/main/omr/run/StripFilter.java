@@ -0,0 +1,397 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                           S t r i p F i l t e r                            //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.run;
+
+import omr.constant.Constant;
+import omr.constant.ConstantContext;
+import omr.constant.ConstantSet;
+
+import omr.step.ProcessingCancellationException;
+
+import omr.util.OmrExecutors;
+
+import net.jcip.annotations.ThreadSafe;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Class {@code StripFilter} is a specialization of
+ * {@link AdaptiveFilter} which binarizes the whole image at once, by
+ * horizontal strips processed in parallel.
+ *
+ * <p>Each strip is extended above and below by a halo of half the window
+ * height, so that its own tables of integrals (plain and squared values) are
+ * sufficient to compute the mean and standard deviation around any pixel of
+ * the strip.
+ * <pre>
+ * +-------------------------------------------------------------+
+ * |                        upper halo                           |
+ * +-------------------------------------------------------------+
+ * |                                                             |
+ * |                       strip rows                            |
+ * |                                                             |
+ * +-------------------------------------------------------------+
+ * |                        lower halo                           |
+ * +-------------------------------------------------------------+
+ * </pre>
+ * The result of each strip is written into a packed bitonal mask (one bit
+ * per pixel) and the strip tables are released right away.
+ * Hence, memory needs are bounded by the number of strips being processed
+ * concurrently, rather than by the image area.
+ *
+ * <p>The table of plain integrals uses 32-bit integers, in a modular way:
+ * the sum over any window is computed as a combination of 4 table values, and
+ * this combination is exact as long as the window sum itself fits in an
+ * integer, which is checked against the window size at construction time.
+ * The table of squared integrals uses 64-bit integers, since the sum of
+ * squared values would overflow an integer for windows larger than 181
+ * pixels.
+ *
+ * <p>The threshold test is performed on squared values, to avoid a square
+ * root per pixel, and falls back to the {@link AdaptiveFilter} formula when
+ * the squared test is too close to call. Hence the resulting mask is
+ * identical to the one an {@link AdaptiveFilter} would provide.
+ *
+ * <p>Once the mask is built, this filter provides fast random access to any
+ * location and is thread safe.
+ *
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class StripFilter
+        extends AdaptiveFilter
+        implements PixelFilter
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            StripFilter.class);
+
+    /** Maximum pixel level. */
+    private static final int MAX_LEVEL = 255;
+
+    /** Margin under which the squared test is not trusted. */
+    private static final double EPSILON = 1e-9;
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Image width. */
+    private final int width;
+
+    /** Image height. */
+    private final int height;
+
+    /** Number of mask words per image row. */
+    private final int wordsPerRow;
+
+    /** Packed bitonal mask, one bit per pixel, set for foreground. */
+    private final long[] mask;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-------------//
+    // StripFilter //
+    //-------------//
+    /**
+     * Create an adaptive wrapper on a raw pixel source, and binarize
+     * the whole source.
+     *
+     * @param source      the underlying source of raw pixels
+     * @param meanCoeff   the coefficient for mean value
+     * @param stdDevCoeff the coefficient for standard deviation value
+     */
+    public StripFilter (PixelSource source,
+                        double meanCoeff,
+                        double stdDevCoeff)
+    {
+        super(source, meanCoeff, stdDevCoeff);
+
+        final long side = (2L * HALF_WINDOW_SIZE) + 1;
+
+        if ((MAX_LEVEL * side * side) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "Window too large for StripFilter: " + side);
+        }
+
+        width = source.getWidth();
+        height = source.getHeight();
+        wordsPerRow = (width + 63) >>> 6;
+        mask = new long[wordsPerRow * height];
+
+        buildMask();
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //----------------------//
+    // getDefaultDescriptor //
+    //----------------------//
+    public static FilterDescriptor getDefaultDescriptor ()
+    {
+        return StripDescriptor.getDefault();
+    }
+
+    //---------------//
+    // getForeColumn //
+    //---------------//
+    @Override
+    public void getForeColumn (int x,
+                               int yMin,
+                               int yMax,
+                               int[] levels,
+                               boolean[] fores)
+    {
+        source.getColumn(x, yMin, yMax, levels);
+
+        for (int y = yMin; y <= yMax; y++) {
+            fores[y] = isFore(x, y);
+        }
+    }
+
+    //------------//
+    // getForeRow //
+    //------------//
+    @Override
+    public void getForeRow (int y,
+                            int xMin,
+                            int xMax,
+                            int[] levels,
+                            boolean[] fores)
+    {
+        source.getRow(y, xMin, xMax, levels);
+
+        final int offset = y * wordsPerRow;
+
+        for (int x = xMin; x <= xMax; x++) {
+            fores[x] = ((mask[offset + (x >>> 6)] >>> (x & 63)) & 1L) != 0;
+        }
+    }
+
+    //--------//
+    // isFore //
+    //--------//
+    @Override
+    public boolean isFore (int x,
+                           int y)
+    {
+        return ((mask[(y * wordsPerRow) + (x >>> 6)] >>> (x & 63)) & 1L) != 0;
+    }
+
+    //-----------//
+    // buildMask //
+    //-----------//
+    /**
+     * Binarize all strips, in parallel if allowed.
+     */
+    private void buildMask ()
+    {
+        final int stripHeight = Math.max(
+                1,
+                constants.stripHeight.getValue());
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int y = 0; y < height; y += stripHeight) {
+            final int yMin = y;
+            final int yMax = Math.min(height, y + stripHeight) - 1;
+            tasks.add(
+                    new Callable<Void>()
+            {
+                @Override
+                public Void call ()
+                        throws Exception
+                {
+                    processStrip(yMin, yMax);
+
+                    return null;
+                }
+            });
+        }
+
+        if ((OmrExecutors.defaultParallelism.getTarget() == false)
+            || (tasks.size() == 1)) {
+            // Sequential
+            for (int y = 0; y < height; y += stripHeight) {
+                processStrip(y, Math.min(height, y + stripHeight) - 1);
+            }
+        } else {
+            // Parallel
+            try {
+                OmrExecutors.getHighExecutor()
+                        .invokeAll(ConstantContext.wrapAll(tasks));
+            } catch (InterruptedException ex) {
+                logger.warn("StripFilter got interrupted");
+                throw new ProcessingCancellationException(ex);
+            } catch (ProcessingCancellationException pce) {
+                throw pce;
+            } catch (Throwable ex) {
+                logger.warn("Exception raised in StripFilter", ex);
+                throw new RuntimeException(ex);
+            }
+        }
+    }
+
+    //-------------//
+    // isForeLevel //
+    //-------------//
+    /**
+     * Tell whether the provided pixel level is foreground, given the
+     * neighborhood mean and variance.
+     * This is equivalent to {@code pix <= MEAN_COEFF * mean + STD_DEV_COEFF *
+     * stdDev}, but the square root is computed only when the comparison of
+     * squared deviations is too close to call.
+     *
+     * @param pix  the pixel level
+     * @param mean the neighborhood mean value
+     * @param var  the neighborhood variance
+     * @return true if foreground
+     */
+    private boolean isForeLevel (int pix,
+                                 double mean,
+                                 double var)
+    {
+        final double excess = pix - (MEAN_COEFF * mean);
+
+        // Threshold lies above mean part if coeff >= 0, below otherwise
+        if (STD_DEV_COEFF >= 0) {
+            if (excess <= 0) {
+                return true;
+            }
+        } else if (excess > 0) {
+            return false;
+        }
+
+        // Compare |excess| with |STD_DEV_COEFF| * stdDev, w/o sqrt
+        final double abs = Math.abs(excess);
+        final double gap = (abs * abs) - (STD_DEV_COEFF * STD_DEV_COEFF * var);
+
+        if (gap > (2 * abs * EPSILON)) {
+            return STD_DEV_COEFF < 0; // |excess| is larger
+        }
+
+        if (-gap > (Math.abs(STD_DEV_COEFF) * MAX_LEVEL * EPSILON)) {
+            return STD_DEV_COEFF >= 0; // |excess| is smaller
+        }
+
+        // Too close to call
+        return pix <= ((MEAN_COEFF * mean) + (STD_DEV_COEFF * Math.sqrt(var)));
+    }
+
+    //--------------//
+    // processStrip //
+    //--------------//
+    /**
+     * Binarize the rows of one strip, using integrals tables limited to
+     * the strip and its halo.
+     *
+     * @param yMin first row of the strip
+     * @param yMax last row of the strip
+     */
+    private void processStrip (int yMin,
+                               int yMax)
+    {
+        // Rows covered by tables: strip rows + halo on both sides
+        final int top = Math.max(0, yMin - HALF_WINDOW_SIZE - 1);
+        final int bottom = Math.min(height - 1, yMax + HALF_WINDOW_SIZE);
+        final int rows = bottom - top + 1;
+
+        // Tables have one leading row and one leading column of zeros
+        final int stride = width + 1;
+        final int[] sums = new int[(rows + 1) * stride];
+        final long[] sqrSums = new long[(rows + 1) * stride];
+        final int[] levels = new int[width];
+
+        for (int r = 1; r <= rows; r++) {
+            source.getRow(top + r - 1, 0, width - 1, levels);
+
+            int rowSum = 0;
+            long rowSqrSum = 0;
+            int index = r * stride;
+            int above = index - stride;
+
+            for (int x = 0; x < width; x++) {
+                final int pix = levels[x];
+                rowSum += pix;
+                rowSqrSum += (pix * pix);
+                index++;
+                above++;
+                sums[index] = sums[above] + rowSum;
+                sqrSums[index] = sqrSums[above] + rowSqrSum;
+            }
+        }
+
+        // Threshold each row of the strip
+        for (int y = yMin; y <= yMax; y++) {
+            source.getRow(y, 0, width - 1, levels);
+
+            // Window rows, as indices in tables
+            final int r1 = Math.max(-1, y - HALF_WINDOW_SIZE - 1) - top + 1;
+            final int r2 = Math.min(height - 1, y + HALF_WINDOW_SIZE) - top + 1;
+            final int dy = r2 - r1;
+            final int offset = y * wordsPerRow;
+            long word = 0;
+
+            for (int x = 0; x < width; x++) {
+                // Window columns, as indices in tables
+                final int c1 = Math.max(-1, x - HALF_WINDOW_SIZE - 1) + 1;
+                final int c2 = Math.min(width - 1, x + HALF_WINDOW_SIZE) + 1;
+                final int area = dy * (c2 - c1);
+
+                final int a = (r1 * stride) + c1;
+                final int b = (r1 * stride) + c2;
+                final int c = (r2 * stride) + c1;
+                final int d = (r2 * stride) + c2;
+
+                // Modular arithmetic gives exact window plain sums
+                final double mean = (double) ((sums[a] + sums[d]) - sums[b]
+                                              - sums[c]) / area;
+                final double sqrMean = (double) ((sqrSums[a] + sqrSums[d])
+                                                 - sqrSums[b] - sqrSums[c]) / area;
+                final double var = Math.abs(sqrMean - (mean * mean));
+
+                if (isForeLevel(levels[x], mean, var)) {
+                    word |= (1L << (x & 63));
+                }
+
+                if (((x & 63) == 63) || (x == (width - 1))) {
+                    mask[offset + (x >>> 6)] = word;
+                    word = 0;
+                }
+            }
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer stripHeight = new Constant.Integer(
+                "Pixels",
+                128,
+                "Height of each strip binarized in parallel");
+
+    }
+}
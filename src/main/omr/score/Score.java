@@ -38,6 +38,7 @@ import omr.script.Script;
 import omr.script.ScriptActions;
 
 import omr.sheet.Sheet;
+import omr.sheet.picture.ImageLoader;
 import omr.sheet.picture.PictureLoader;
 import omr.sheet.ui.SheetActions;
 import omr.sheet.ui.SheetsController;
@@ -48,12 +49,9 @@ import omr.util.Param;
 import omr.util.FileUtil;
 import omr.util.TreeNode;
 
-import java.awt.image.RenderedImage;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.SortedMap;
 import java.util.SortedSet;
 
 import javax.swing.JFrame;
@@ -124,6 +122,12 @@ public class Score
     /** The script of user actions on this score */
     private Script script;
 
+    /** Loader of input images, kept open for on-demand decoding */
+    private volatile ImageLoader imageLoader;
+
+    /** Pages to be removed, once the pages in progress are over */
+    private final List<Page> discardedPages = new ArrayList<>();
+
     /** Handling of binarization filter parameter. */
     private final Param<FilterDescriptor> filterParam =
             new Param<>(FilterDescriptor.defaultFilter);
@@ -199,6 +203,12 @@ public class Score
             scoreTree.close();
         }
 
+        // Release the input images
+        if (imageLoader != null) {
+            imageLoader.dispose();
+            imageLoader = null;
+        }
+
         // Complete and store all bench data
         ScoresManager.getInstance().storeBench(bench, null, true);
 
@@ -218,21 +228,19 @@ public class Score
      */
     public void createPages (SortedSet<Integer> pages)
     {
-        SortedMap<Integer, RenderedImage> images = PictureLoader.loadImages(
-                imageFile,
-                pages);
+        imageLoader = PictureLoader.openImages(imageFile, pages);
 
-        if (images != null) {
+        if (imageLoader != null) {
             Page firstPage = null;
-            setMultiPage(images.size() > 1); // Several images in the file
+            SortedSet<Integer> ids = imageLoader.getIds();
+            setMultiPage(ids.size() > 1); // Several images in the file
 
-            for (Entry<Integer, RenderedImage> entry : images.entrySet()) {
-                int index = entry.getKey();
-                RenderedImage image = entry.getValue();
+            for (int index : ids) {
                 Page page = null;
 
                 try {
-                    page = new Page(this, index, image);
+                    // Image will be decoded only when the sheet needs it
+                    page = new Page(this, index);
 
                     if (firstPage == null) {
                         firstPage = page;
@@ -263,6 +271,22 @@ public class Score
         }
     }
 
+    //---------//
+    // discard //
+    //---------//
+    /**
+     * Flag a page for removal.
+     * The page is actually removed by {@link #removeDiscardedPages}, once no
+     * other page is being processed, since the pages list is not meant for
+     * concurrent modification.
+     *
+     * @param page the page to discard
+     */
+    public synchronized void discard (Page page)
+    {
+        discardedPages.add(page);
+    }
+
     //------//
     // dump //
     //------//
@@ -282,6 +306,20 @@ public class Score
                 "----------------------------------------------------------------");
     }
 
+    //----------------//
+    // getImageLoader //
+    //----------------//
+    /**
+     * Report the loader of input images, if any.
+     *
+     * @return the image loader, or null if pages have not been created yet or
+     *         if score has been closed
+     */
+    public ImageLoader getImageLoader ()
+    {
+        return imageLoader;
+    }
+
     //----------------//
     // getFilterParam //
     //----------------//
@@ -752,12 +790,28 @@ public class Score
     /**
      * Remove a page
      */
-    public void remove (Page page)
+    public synchronized void remove (Page page)
     {
         getPages().remove(page);
         setMultiPage(getPages().size() > 1);
     }
 
+    //----------------------//
+    // removeDiscardedPages //
+    //----------------------//
+    /**
+     * Remove the pages flagged by {@link #discard}, if any.
+     */
+    public synchronized void removeDiscardedPages ()
+    {
+        for (Page page : discardedPages) {
+            page.getSheet()
+                    .remove(false);
+        }
+
+        discardedPages.clear();
+    }
+
     //--------------------//
     // setDurationDivisor //
     //--------------------//
@@ -31,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.EventObject;
 import java.util.Iterator;
@@ -204,6 +205,26 @@ public class ScoresManager
         }
     }
 
+    //--------//
+    // export //
+    //--------//
+    /**
+     * Export a score using the partwise structure of MusicXML to the
+     * provided output stream, rather than to a file.
+     *
+     * @param score the score to export
+     * @param os    the output stream to write
+     * @throws Exception if export failed
+     */
+    public void export (Score score,
+                        OutputStream os)
+            throws Exception
+    {
+        new ScoreExporter(score).export(
+                os,
+                constants.defaultInjectSignature.getValue());
+    }
+
     //---------------------//
     // getDefaultBenchFile //
     //---------------------//
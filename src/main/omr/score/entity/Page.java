@@ -77,6 +77,24 @@ public class Page
     private final LiveParam<String> textContext;
 
     //~ Constructors -----------------------------------------------------------
+    //------//
+    // Page //
+    //------//
+    /**
+     * Creates a new Page object, whose image will be loaded on demand
+     * from the score image loader.
+     *
+     * @param score the containing score
+     * @param index page initial index in the containing image file, counted
+     *              from 1.
+     */
+    public Page (Score score,
+                 int index)
+            throws StepException
+    {
+        this(score, index, null);
+    }
+
     //------//
     // Page //
     //------//
@@ -86,6 +104,8 @@ public class Page
      * @param score the containing score
      * @param index page initial index in the containing image file, counted
      *              from 1.
+     * @param image the already loaded image, or null if image is to be loaded
+     *              on demand
      */
     public Page (Score score,
                  int index,
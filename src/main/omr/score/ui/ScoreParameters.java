@@ -17,6 +17,7 @@ import omr.run.AdaptiveDescriptor;
 import omr.run.FilterDescriptor;
 import omr.run.FilterKind;
 import omr.run.GlobalDescriptor;
+import omr.run.StripDescriptor;
 
 import omr.score.Score;
 import omr.score.entity.Page;
@@ -774,6 +775,15 @@ public class ScoreParameters
                     // Use proper adaptive data
                     display(AdaptiveDescriptor.getDefault());
                     break;
+
+                case STRIP:
+                    globalData.setVisible(false);
+                    localDataMean.setVisible(true);
+                    localDataDev.setVisible(true);
+
+                    // Use proper strip data
+                    display(StripDescriptor.getDefault());
+                    break;
                 default:
                 }
             } else {
@@ -791,12 +801,21 @@ public class ScoreParameters
         {
             commitSpinners();
 
-            return (readKind() == FilterKind.GLOBAL)
-                    ? new GlobalDescriptor(
-                    (int) globalData.spinner.getValue())
-                    : new AdaptiveDescriptor(
-                    (double) localDataMean.spinner.getValue(),
-                    (double) localDataDev.spinner.getValue());
+            switch (readKind()) {
+            case GLOBAL:
+                return new GlobalDescriptor(
+                        (int) globalData.spinner.getValue());
+
+            case STRIP:
+                return new StripDescriptor(
+                        (double) localDataMean.spinner.getValue(),
+                        (double) localDataDev.spinner.getValue());
+
+            default:
+                return new AdaptiveDescriptor(
+                        (double) localDataMean.spinner.getValue(),
+                        (double) localDataDev.spinner.getValue());
+            }
         }
 
         /** This is needed to read data manually typed in spinners fields */
@@ -809,6 +828,7 @@ public class ScoreParameters
                     break;
 
                 case ADAPTIVE:
+                case STRIP:
                     localDataMean.spinner.commitEdit();
                     localDataDev.spinner.commitEdit();
                     break;
@@ -829,6 +849,7 @@ public class ScoreParameters
                 globalData.spinner.setValue(globalDesc.threshold);
                 break;
             case ADAPTIVE:
+            case STRIP:
                 AdaptiveDescriptor localDesc = (AdaptiveDescriptor) desc;
                 localDataMean.spinner.setValue(localDesc.meanCoeff);
                 localDataDev.spinner.setValue(localDesc.stdDevCoeff);
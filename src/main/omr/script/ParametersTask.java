@@ -14,6 +14,7 @@ package omr.script;
 import omr.run.AdaptiveDescriptor;
 import omr.run.FilterDescriptor;
 import omr.run.GlobalDescriptor;
+import omr.run.StripDescriptor;
 
 import omr.score.Score;
 import omr.score.entity.Page;
@@ -64,7 +65,9 @@ public class ParametersTask
         @XmlElement(name = "global-filter",
                     type = GlobalDescriptor.class),
         @XmlElement(name = "adaptive-filter",
-                    type = AdaptiveDescriptor.class)
+                    type = AdaptiveDescriptor.class),
+        @XmlElement(name = "strip-filter",
+                    type = StripDescriptor.class)
     })
     private FilterDescriptor filterDescriptor;
 
@@ -422,7 +425,9 @@ public class ParametersTask
             @XmlElement(name = "global-filter",
                         type = GlobalDescriptor.class),
             @XmlElement(name = "adaptive-filter",
-                        type = AdaptiveDescriptor.class)
+                        type = AdaptiveDescriptor.class),
+            @XmlElement(name = "strip-filter",
+                        type = StripDescriptor.class)
         })
         private FilterDescriptor filterDescriptor;
 
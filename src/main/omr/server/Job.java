@@ -0,0 +1,370 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                                   J o b                                    //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.server;
+
+import omr.constant.ConstantContext;
+
+import omr.score.Score;
+import omr.score.ScoresManager;
+
+import omr.step.ProcessingCancellationException;
+import omr.step.Step;
+import omr.step.Stepping;
+import omr.step.Steps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class {@code Job} is the processing of one input file, as requested
+ * to the {@link OmrServer}.
+ *
+ * <p>The job runs the desired steps on a new score, then keeps the results
+ * (MusicXML export and bench data) in memory, until they are fetched by the
+ * client.
+ * The EXPORT step is not run as such: it is replaced by the SCORE step,
+ * followed by an export to memory rather than to a file.
+ *
+ * @author Hervé Bitteur
+ */
+class Job
+        implements Callable<Void>
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(Job.class);
+
+    //~ Enumerations -----------------------------------------------------------
+    /** Job state. */
+    enum State
+    {
+        //~ Enumeration constant initializers ----------------------------------
+
+        /** Waiting for a thread */
+        QUEUED,
+        /** Being processed */
+        RUNNING,
+        /** Processed */
+        DONE,
+        /** Stopped on error */
+        FAILED;
+
+    }
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Job id, unique within the server. */
+    private final int id;
+
+    /** The input image file. */
+    private final File file;
+
+    /** True if input file (and its folder) are temporary. */
+    private final boolean temporary;
+
+    /** The steps to perform, EXPORT excluded. */
+    private final Set<Step> steps;
+
+    /** The specific pages, if any. */
+    private final SortedSet<Integer> pages;
+
+    /** Specific constant values, if any. */
+    private final ConstantContext context;
+
+    /** Should the score be exported?. */
+    private final boolean exporting;
+
+    /** Signals job completion. */
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    /** Current state. */
+    private volatile State state = State.QUEUED;
+
+    /** MusicXML export, if any. */
+    private volatile byte[] export;
+
+    /** Bench data, if any. */
+    private volatile byte[] bench;
+
+    /** Error message, if any. */
+    private volatile String error;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-----//
+    // Job //
+    //-----//
+    /**
+     * Creates a new Job object.
+     *
+     * @param id        the job id
+     * @param file      the input image file
+     * @param temporary true if file and its folder are to be deleted when
+     *                  done
+     * @param steps     the desired steps, or null for a score export
+     * @param pages     the specific pages, or null for all pages
+     * @param context   the specific constant values, or null
+     */
+    Job (int id,
+         File file,
+         boolean temporary,
+         Set<Step> steps,
+         SortedSet<Integer> pages,
+         ConstantContext context)
+    {
+        this.id = id;
+        this.file = file;
+        this.temporary = temporary;
+        this.pages = pages;
+        this.context = context;
+
+        final Step exportStep = Steps.valueOf(Steps.EXPORT);
+        this.steps = new LinkedHashSet<Step>();
+
+        if (steps == null) {
+            exporting = true;
+        } else {
+            exporting = steps.contains(exportStep);
+            this.steps.addAll(steps);
+            this.steps.remove(exportStep);
+        }
+
+        if (exporting) {
+            this.steps.add(Steps.valueOf(Steps.SCORE));
+        }
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //------//
+    // call //
+    //------//
+    @Override
+    public Void call ()
+    {
+        state = State.RUNNING;
+        logger.info("Job #{} launching {} on {}", id, steps, file);
+
+        final ConstantContext previous = ConstantContext.bind(context);
+        Score score = null;
+
+        try {
+            if (!file.exists()) {
+                throw new IllegalArgumentException(
+                        "Could not find file " + file);
+            }
+
+            score = new Score(file);
+            Stepping.processScore(steps, pages, score);
+
+            if (exporting) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                ScoresManager.getInstance()
+                        .export(score, os);
+                export = os.toByteArray();
+            }
+
+            state = State.DONE;
+        } catch (ProcessingCancellationException pce) {
+            logger.warn("Job #{} cancelled", id);
+            error = "Cancelled";
+            state = State.FAILED;
+
+            if (score != null) {
+                score.getBench()
+                        .recordCancellation();
+            }
+        } catch (Throwable ex) {
+            logger.warn("Job #" + id + " failed", ex);
+            error = ex.toString();
+            state = State.FAILED;
+        } finally {
+            if (score != null) {
+                try {
+                    ByteArrayOutputStream os = new ByteArrayOutputStream();
+                    score.getBench()
+                            .store(os, state == State.DONE);
+                    bench = os.toByteArray();
+                } catch (Exception ex) {
+                    logger.warn("Job #" + id + " no bench", ex);
+                }
+
+                score.close();
+            }
+
+            ConstantContext.bind(previous);
+            cleanup();
+            done.countDown();
+        }
+
+        return null;
+    }
+
+    //------//
+    // fail //
+    //------//
+    /**
+     * Flag the job as failed before it could run (for example
+     * because it was rejected by the executor).
+     *
+     * @param message the failure reason
+     */
+    void fail (String message)
+    {
+        error = message;
+        state = State.FAILED;
+        cleanup();
+        done.countDown();
+    }
+
+    //----------//
+    // getBench //
+    //----------//
+    /**
+     * Report the bench data.
+     *
+     * @return the bench properties, or null
+     */
+    byte[] getBench ()
+    {
+        return bench;
+    }
+
+    //----------//
+    // getError //
+    //----------//
+    /**
+     * Report the failure reason.
+     *
+     * @return the error message, or null
+     */
+    String getError ()
+    {
+        return error;
+    }
+
+    //-----------//
+    // getExport //
+    //-----------//
+    /**
+     * Report the MusicXML export.
+     *
+     * @return the MusicXML data, or null
+     */
+    byte[] getExport ()
+    {
+        return export;
+    }
+
+    //-------//
+    // getId //
+    //-------//
+    /**
+     * Report the job id.
+     *
+     * @return the id
+     */
+    int getId ()
+    {
+        return id;
+    }
+
+    //----------//
+    // getState //
+    //----------//
+    /**
+     * Report the current job state.
+     *
+     * @return the state
+     */
+    State getState ()
+    {
+        return state;
+    }
+
+    //----------//
+    // getSteps //
+    //----------//
+    /**
+     * Report the steps to perform.
+     *
+     * @return the (unmodifiable) steps
+     */
+    Set<Step> getSteps ()
+    {
+        return Collections.unmodifiableSet(steps);
+    }
+
+    //--------//
+    // isDone //
+    //--------//
+    /**
+     * Report whether the job is over (successfully or not).
+     *
+     * @return true if over
+     */
+    boolean isDone ()
+    {
+        return done.getCount() == 0;
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return "Job#" + id + " " + state + ((error != null) ? (" " + error) : "");
+    }
+
+    //---------//
+    // waitFor //
+    //---------//
+    /**
+     * Wait for job completion.
+     *
+     * @param timeout maximum waiting time, in seconds
+     * @return true if the job is over
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    boolean waitFor (long timeout)
+            throws InterruptedException
+    {
+        return done.await(timeout, TimeUnit.SECONDS);
+    }
+
+    //---------//
+    // cleanup //
+    //---------//
+    /**
+     * Delete the temporary input file, and its temporary folder.
+     */
+    private void cleanup ()
+    {
+        if (temporary) {
+            if (!file.delete() || !file.getParentFile().delete()) {
+                logger.warn("Could not delete {}", file);
+            }
+        }
+    }
+}
@@ -0,0 +1,586 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                             O m r S e r v e r                              //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.server;
+
+import omr.constant.Constant;
+import omr.constant.ConstantContext;
+import omr.constant.ConstantManager;
+import omr.constant.ConstantSet;
+
+import omr.glyph.GlyphNetwork;
+import omr.glyph.GlyphRegression;
+
+import omr.score.ScoreExporter;
+
+import omr.step.Step;
+import omr.step.Steps;
+
+import omr.ui.symbol.MusicFont;
+
+import omr.util.Metrics;
+import omr.util.OmrExecutors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class {@code OmrServer} keeps the application running, to process
+ * jobs submitted through a local HTTP endpoint.
+ *
+ * <p>All the costly initializations (music font, JAXB context, evaluators)
+ * are performed once at server start, so that each job pays only for its
+ * own processing. Jobs are run on the score executor of
+ * {@link OmrExecutors}, and no more than maxPendingJobs jobs can be waiting
+ * or running at the same time.
+ *
+ * <p>The supported requests are:
+ * <dl>
+ * <dt>POST /jobs?input=PATH&amp;steps=S1,S2&amp;pages=1,2&amp;option=KEY=VALUE</dt>
+ * <dd>Submit a job on an image file of the server machine. If there is no
+ * input parameter, the request body is the image itself, whose file name is
+ * given by a name parameter. Steps default to EXPORT, pages to all pages.
+ * Each option parameter sets a constant value for this job only, other jobs
+ * are not impacted. An option which is not a known constant qualified name
+ * is rejected (400).
+ * The response (202) is the job id.</dd>
+ * <dt>GET /jobs</dt> <dd>List all jobs with their state.</dd>
+ * <dt>GET /jobs/ID</dt> <dd>Report the job state.</dd>
+ * <dt>GET /jobs/ID/export</dt> <dd>Wait for job completion, and stream back
+ * the MusicXML data.</dd>
+ * <dt>GET /jobs/ID/bench</dt> <dd>Wait for job completion, and stream back
+ * the bench data.</dd>
+ * <dt>DELETE /jobs/ID</dt> <dd>Forget a completed job.</dd>
+ * <dt>GET /metrics</dt> <dd>Report the processing metrics, in Prometheus
+ * text format. They are also available through JMX, as the
+ * {@link Metrics#MBEAN_NAME} bean.</dd>
+ * <dt>POST /shutdown</dt> <dd>Stop the server.</dd>
+ * </dl>
+ *
+ * @author Hervé Bitteur
+ */
+public class OmrServer
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            OmrServer.class);
+
+    /** Path of jobs context. */
+    private static final String JOBS = "/jobs";
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Requested port, 0 for any free port. */
+    private final int port;
+
+    /** Jobs known by the server, in submission order. */
+    private final Map<Integer, Job> jobs = new LinkedHashMap<Integer, Job>();
+
+    /** Last job id. */
+    private final AtomicInteger lastId = new AtomicInteger(0);
+
+    /** Underlying HTTP server. */
+    private HttpServer server;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-----------//
+    // OmrServer //
+    //-----------//
+    /**
+     * Creates a new OmrServer object.
+     *
+     * @param port the local port to listen to, 0 for any free port
+     */
+    public OmrServer (int port)
+    {
+        this.port = port;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //---------//
+    // getPort //
+    //---------//
+    /**
+     * Report the actual port the server listens to.
+     *
+     * @return the bound port
+     */
+    public int getPort ()
+    {
+        return server.getAddress()
+                .getPort();
+    }
+
+    //-------//
+    // start //
+    //-------//
+    /**
+     * Warm up the application, then start listening to requests.
+     *
+     * @throws IOException if the server cannot be bound
+     */
+    public void start ()
+            throws IOException
+    {
+        logger.info("Server warming up ...");
+        MusicFont.checkMusicFont();
+        ScoreExporter.preload();
+        GlyphNetwork.getInstance();
+        GlyphRegression.getInstance();
+        Metrics.register();
+
+        server = HttpServer.create(
+                new InetSocketAddress(constants.serverHost.getValue(), port),
+                0);
+        server.setExecutor(OmrExecutors.getCachedLowExecutor());
+        server.createContext(
+                JOBS,
+                new HttpHandler()
+        {
+            @Override
+            public void handle (HttpExchange exchange)
+                    throws IOException
+            {
+                try {
+                    handleJobs(exchange);
+                } catch (Exception ex) {
+                    logger.warn("Error handling " + exchange.getRequestURI(),
+                            ex);
+                    send(exchange, 500, ex.toString());
+                }
+            }
+        });
+        server.createContext(
+                "/metrics",
+                new HttpHandler()
+        {
+            @Override
+            public void handle (HttpExchange exchange)
+                    throws IOException
+            {
+                send(
+                        exchange,
+                        200,
+                        "text/plain; version=0.0.4; charset=UTF-8",
+                        Metrics.getInstance().getText().getBytes(
+                        StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext(
+                "/shutdown",
+                new HttpHandler()
+        {
+            @Override
+            public void handle (HttpExchange exchange)
+                    throws IOException
+            {
+                if (!"POST".equals(exchange.getRequestMethod())) {
+                    send(exchange, 405, "POST expected");
+
+                    return;
+                }
+
+                send(exchange, 200, "Stopping");
+
+                // Not from a pool thread, since pools are shut down
+                new Thread(
+                        new Runnable()
+                {
+                    @Override
+                    public void run ()
+                    {
+                        stop();
+                    }
+                },
+                        "server-stop").start();
+            }
+        });
+        server.start();
+        logger.info("Server listening on port {}", getPort());
+    }
+
+    //------//
+    // stop //
+    //------//
+    /**
+     * Stop listening, and shut down the executors.
+     */
+    public void stop ()
+    {
+        logger.info("Server stopping");
+        server.stop(0);
+        OmrExecutors.shutdown(false);
+    }
+
+    //--------//
+    // decode //
+    //--------//
+    /**
+     * Decode the request parameters.
+     * Values of a repeated parameter (such as option) are joined by new lines.
+     */
+    private static Map<String, String> decode (String query)
+            throws IOException
+    {
+        Map<String, String> params = new HashMap<String, String>();
+
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+
+                if (eq > 0) {
+                    String key = pair.substring(0, eq);
+                    String value = URLDecoder.decode(
+                            pair.substring(eq + 1),
+                            "UTF-8");
+                    String old = params.get(key);
+                    params.put(key, (old != null) ? (old + "\n" + value) : value);
+                }
+            }
+        }
+
+        return params;
+    }
+
+    //------------//
+    // handleJobs //
+    //------------//
+    private void handleJobs (HttpExchange exchange)
+            throws Exception
+    {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI()
+                .getPath();
+        final String[] tokens = path.substring(JOBS.length())
+                .split("/");
+
+        // tokens[0] is always empty
+        if (tokens.length <= 1) {
+            if ("POST".equals(method)) {
+                submit(exchange);
+            } else if ("GET".equals(method)) {
+                StringBuilder sb = new StringBuilder();
+
+                synchronized (jobs) {
+                    for (Job job : jobs.values()) {
+                        sb.append(job)
+                                .append("\n");
+                    }
+                }
+
+                send(exchange, 200, sb.toString());
+            } else {
+                send(exchange, 405, "GET or POST expected");
+            }
+
+            return;
+        }
+
+        final Job job;
+
+        try {
+            synchronized (jobs) {
+                job = jobs.get(Integer.parseInt(tokens[1]));
+            }
+        } catch (NumberFormatException ex) {
+            send(exchange, 400, "Illegal job id " + tokens[1]);
+
+            return;
+        }
+
+        if (job == null) {
+            send(exchange, 404, "Unknown job " + tokens[1]);
+        } else if ("DELETE".equals(method) && (tokens.length == 2)) {
+            if (job.isDone()) {
+                synchronized (jobs) {
+                    jobs.remove(job.getId());
+                }
+
+                send(exchange, 200, job.toString());
+            } else {
+                send(exchange, 409, job.toString());
+            }
+        } else if (!"GET".equals(method)) {
+            send(exchange, 405, "GET or DELETE expected");
+        } else if (tokens.length == 2) {
+            send(exchange, 200, job.toString());
+        } else if (tokens[2].equals("export") || tokens[2].equals("bench")) {
+            if (!job.waitFor(constants.resultTimeOut.getValue())) {
+                send(exchange, 504, job.toString());
+
+                return;
+            }
+
+            byte[] data = tokens[2].equals("export") ? job.getExport()
+                    : job.getBench();
+
+            if (data != null) {
+                send(
+                        exchange,
+                        200,
+                        tokens[2].equals("export") ? "application/xml"
+                        : "text/plain; charset=UTF-8",
+                        data);
+            } else if (job.getState() == Job.State.FAILED) {
+                send(exchange, 500, job.toString());
+            } else {
+                send(exchange, 404, "No " + tokens[2] + " for " + job);
+            }
+        } else {
+            send(exchange, 404, "Unknown request " + path);
+        }
+    }
+
+    //-------//
+    // purge //
+    //-------//
+    /**
+     * Forget the oldest completed jobs, beyond maxRetainedJobs.
+     */
+    private void purge ()
+    {
+        synchronized (jobs) {
+            int excess = jobs.size() - constants.maxRetainedJobs.getValue();
+
+            for (Iterator<Job> it = jobs.values()
+                    .iterator(); it.hasNext() && (excess > 0);) {
+                if (it.next()
+                        .isDone()) {
+                    it.remove();
+                    excess--;
+                }
+            }
+        }
+    }
+
+    //------//
+    // send //
+    //------//
+    private static void send (HttpExchange exchange,
+                              int code,
+                              String text)
+            throws IOException
+    {
+        send(
+                exchange,
+                code,
+                "text/plain; charset=UTF-8",
+                (text + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    //------//
+    // send //
+    //------//
+    private static void send (HttpExchange exchange,
+                              int code,
+                              String contentType,
+                              byte[] data)
+            throws IOException
+    {
+        exchange.getResponseHeaders()
+                .set("Content-Type", contentType);
+        exchange.sendResponseHeaders(code, data.length);
+
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(data);
+        }
+    }
+
+    //--------//
+    // submit //
+    //--------//
+    private void submit (HttpExchange exchange)
+            throws IOException
+    {
+        final Map<String, String> params = decode(
+                exchange.getRequestURI().getRawQuery());
+
+        // Admission control
+        int pending = 0;
+
+        synchronized (jobs) {
+            for (Job job : jobs.values()) {
+                if (!job.isDone()) {
+                    pending++;
+                }
+            }
+        }
+
+        if (pending >= constants.maxPendingJobs.getValue()) {
+            send(exchange, 503, "Too many pending jobs: " + pending);
+
+            return;
+        }
+
+        // Steps, pages & options
+        Set<Step> steps = null;
+        SortedSet<Integer> pages = null;
+        ConstantContext context = null;
+
+        try {
+            if (params.containsKey("steps")) {
+                steps = new LinkedHashSet<Step>();
+
+                for (String str : params.get("steps")
+                        .split(",")) {
+                    steps.add(
+                            Steps.valueOf(
+                            str.trim().toUpperCase(Locale.ENGLISH)));
+                }
+            }
+
+            if (params.containsKey("pages")) {
+                pages = new TreeSet<Integer>();
+
+                for (String str : params.get("pages")
+                        .split(",")) {
+                    pages.add(Integer.parseInt(str.trim()));
+                }
+            }
+
+            if (params.containsKey("option")) {
+                Properties options = new Properties();
+                options.load(new StringReader(params.get("option")));
+
+                for (String key : options.stringPropertyNames()) {
+                    if (ConstantManager.getInstance().getConstant(key) == null) {
+                        throw new IllegalArgumentException(
+                                "Unknown option " + key);
+                    }
+                }
+
+                context = new ConstantContext(options);
+            }
+        } catch (Exception ex) {
+            send(exchange, 400, ex.getMessage());
+
+            return;
+        }
+
+        // Input file, either named or uploaded
+        final File file;
+        final boolean temporary;
+
+        if (params.containsKey("input")) {
+            file = new File(params.get("input"));
+            temporary = false;
+        } else {
+            final String name = params.get("name");
+
+            if ((name == null) || name.contains("/") || name.contains("\\")) {
+                send(exchange, 400, "Missing input or name parameter");
+
+                return;
+            }
+
+            final Path dir = Files.createTempDirectory("omr-job-");
+            file = dir.resolve(name)
+                    .toFile();
+            temporary = true;
+
+            try (InputStream is = exchange.getRequestBody()) {
+                Files.copy(is, file.toPath());
+            }
+        }
+
+        final Job job = new Job(
+                lastId.incrementAndGet(),
+                file,
+                temporary,
+                steps,
+                pages,
+                context);
+
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+        }
+
+        purge();
+
+        try {
+            OmrExecutors.getScoreExecutor()
+                    .submit(job);
+        } catch (RejectedExecutionException ex) {
+            job.fail("Rejected");
+        }
+
+        logger.info("Submitted {} on {}", job, file);
+        send(exchange, 202, Integer.toString(job.getId()));
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.String serverHost = new Constant.String(
+                "localhost",
+                "Host address the server listens to");
+
+        //
+        Constant.Integer maxPendingJobs = new Constant.Integer(
+                "jobs",
+                100,
+                "Maximum number of jobs waiting or running at the same time");
+
+        //
+        Constant.Integer maxRetainedJobs = new Constant.Integer(
+                "jobs",
+                100,
+                "Maximum number of jobs kept in memory");
+
+        //
+        Constant.Integer resultTimeOut = new Constant.Integer(
+                "Seconds",
+                600,
+                "Maximum waiting time for a job result");
+
+    }
+}
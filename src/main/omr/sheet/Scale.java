@@ -18,6 +18,10 @@ import omr.util.DoubleValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -278,6 +282,27 @@ public class Scale
         }
     }
 
+    //------//
+    // read //
+    //------//
+    /**
+     * Read back a scale, as written by {@link #write}.
+     *
+     * @param in the input stream
+     * @return the scale read
+     * @throws IOException if the stream is not readable
+     */
+    public static Scale read (DataInputStream in)
+            throws IOException
+    {
+        final Range line = readRange(in);
+        final Range interline = readRange(in);
+        final Integer beam = in.readBoolean() ? in.readInt() : null;
+        final Range secondInterline = in.readBoolean() ? readRange(in) : null;
+
+        return new Scale(line, interline, beam, secondInterline);
+    }
+
     //------------------//
     // pixelsToAreaFrac //
     //------------------//
@@ -421,6 +446,55 @@ public class Scale
         return sb.toString();
     }
 
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the scale values to the provided stream.
+     *
+     * @param out the output stream
+     * @throws IOException if the stream is not writable
+     * @see #read
+     */
+    public void write (DataOutputStream out)
+            throws IOException
+    {
+        writeRange(lineRange, out);
+        writeRange(interlineRange, out);
+        out.writeBoolean(beamValue != null);
+
+        if (beamValue != null) {
+            out.writeInt(beamValue);
+        }
+
+        out.writeBoolean(secondInterlineRange != null);
+
+        if (secondInterlineRange != null) {
+            writeRange(secondInterlineRange, out);
+        }
+    }
+
+    //-----------//
+    // readRange //
+    //-----------//
+    private static Range readRange (DataInputStream in)
+            throws IOException
+    {
+        return new Range(in.readInt(), in.readInt(), in.readInt());
+    }
+
+    //------------//
+    // writeRange //
+    //------------//
+    private static void writeRange (Range range,
+                                    DataOutputStream out)
+            throws IOException
+    {
+        out.writeInt(range.min);
+        out.writeInt(range.best);
+        out.writeInt(range.max);
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //--------------//
     // AreaFraction //
@@ -21,9 +21,9 @@ import omr.math.Histogram;
 import omr.math.Histogram.MaxEntry;
 import omr.math.Histogram.PeakEntry;
 
+import omr.run.BitonalFilter;
 import omr.run.FilterDescriptor;
 import omr.run.Orientation;
-import omr.run.Run;
 import omr.run.RunsTable;
 import omr.run.RunsTableFactory;
 
@@ -34,6 +34,7 @@ import omr.sheet.ui.SheetsController;
 
 import omr.step.StepException;
 
+import omr.util.Metrics;
 import omr.util.StopWatch;
 
 import org.jfree.chart.ChartFactory;
@@ -179,11 +180,28 @@ public class ScaleBuilder
     public void retrieveScale ()
             throws StepException
     {
+        FilterDescriptor desc = sheet.getPage().getFilterParam().getTarget();
+
+        // Binarization and scale may be available from a previous run
+        if (SheetCheckpoint.restore(sheet, desc)) {
+            sheet.getPage().getFilterParam().setActual(desc);
+            scale = sheet.getScale();
+            Metrics.count(
+                    "runs",
+                    null,
+                    sheet.getWholeVerticalTable().getRunCount());
+
+            return;
+        }
+
         Picture picture = sheet.getPicture();
 
+        if (picture == null) {
+            throw new StepException("No picture available");
+        }
+
         // Binarization: Retrieve the whole table of foreground runs
         histoKeeper = new HistoKeeper(picture.getHeight() - 1);
-        FilterDescriptor desc = sheet.getPage().getFilterParam().getTarget();
         logger.info("{}{} {}", sheet.getLogPrefix(), "Binarization", desc);
         sheet.getPage().getFilterParam().setActual(desc);
 
@@ -191,13 +209,27 @@ public class ScaleBuilder
                                         + sheet.getPage().getId() + " " + desc);
         watch.start("Vertical runs");
 
-        RunsTableFactory factory = new RunsTableFactory(
-                Orientation.VERTICAL,
-                desc.getFilter(picture),
-                0);
-        RunsTable wholeVertTable = factory.createTable("whole");
+        final RunsTable wholeVertTable;
+        final BitonalFilter bitonal = picture.getBitonalFilter();
+
+        if (bitonal != null) {
+            // Image is already bitonal: runs are read directly
+            logger.debug("{}Bitonal image, no filter", sheet.getLogPrefix());
+            wholeVertTable = bitonal.createTable(
+                    "whole",
+                    Orientation.VERTICAL,
+                    0);
+        } else {
+            RunsTableFactory factory = new RunsTableFactory(
+                    Orientation.VERTICAL,
+                    desc.getFilter(picture),
+                    0);
+            wholeVertTable = factory.createTable("whole");
+            factory = null; // To allow garbage collection ASAP
+        }
+
         sheet.setWholeVerticalTable(wholeVertTable);
-        factory = null; // To allow garbage collection ASAP
+        Metrics.count("runs", null, wholeVertTable.getRunCount());
 
         if (constants.printWatch.isSet()) {
             watch.print();
@@ -209,6 +241,10 @@ public class ScaleBuilder
                 picture.getWidth(),
                 picture.getHeight());
 
+        // Pixels are no longer needed, runs are now available
+        picture = null;
+        sheet.releasePicture();
+
         // Retrieve the various histograms peaks
         retrievePeaks();
 
@@ -230,6 +266,8 @@ public class ScaleBuilder
         sheet.getBench().recordScale(scale);
 
         sheet.setScale(scale);
+
+        SheetCheckpoint.store(sheet, desc);
     }
 
     //-----------------//
@@ -425,7 +463,8 @@ public class ScaleBuilder
             || (Main.getGui().displayModelessConfirm(
                 msg + LINE_SEPARATOR + "OK for discarding this sheet?") == JOptionPane.OK_OPTION)) {
             if (score.isMultiPage()) {
-                sheet.remove(false);
+                // Other pages may be in progress, so just flag this one
+                score.discard(sheet.getPage());
                 throw new StepException("Sheet removed");
             } else {
                 throw new StepException("Sheet ignored");
@@ -612,12 +651,12 @@ public class ScaleBuilder
             final int maxFore = height / 16;
 
             for (int x = 0; x < width; x++) {
-                List<Run> runSeq = wholeVertTable.getSequence(x);
                 // Ordinate of first pixel not yet processed
                 int yLast = 0;
 
-                for (Run run : runSeq) {
-                    int y = run.getStart();
+                for (int i = 0, size = wholeVertTable.getSequenceSize(x);
+                        i < size; i++) {
+                    int y = wholeVertTable.getRunStart(x, i);
 
                     if (y > yLast) {
                         // Process the background run before this run
@@ -628,7 +667,7 @@ public class ScaleBuilder
                     }
 
                     // Process this foreground run
-                    int foreLength = run.getLength();
+                    int foreLength = wholeVertTable.getRunLength(x, i);
                     if (foreLength <= maxFore) {
                         fore[foreLength]++;
                     }
@@ -45,6 +45,7 @@ import omr.selection.PixelLevelEvent;
 import omr.selection.SelectionService;
 
 import omr.sheet.picture.ImageFormatException;
+import omr.sheet.picture.ImageLoader;
 import omr.sheet.picture.Picture;
 import omr.sheet.picture.PictureView;
 import omr.sheet.ui.BinarizationBoard;
@@ -128,9 +129,12 @@ public class Sheet
 
     //-- resettable members ----------------------------------------------------
     //
-    /** The related picture */
+    /** The related picture, perhaps released once binarized */
     private Picture picture;
 
+    /** Picture dimension, kept even when picture is released */
+    private Dimension dimension;
+
     /** All steps already done on this sheet */
     private Set<Step> doneSteps = new HashSet<>();
 
@@ -207,7 +211,8 @@ public class Sheet
      * output).
      *
      * @param page  the related score page
-     * @param image the already loaded image
+     * @param image the already loaded image, or null if image is to be
+     *              loaded on demand via the score image loader
      */
     public Sheet (Page page,
                   RenderedImage image)
@@ -230,7 +235,14 @@ public class Sheet
             assembly = null;
         }
 
-        setImage(image);
+        if (image != null) {
+            setImage(image);
+        } else {
+            // Picture will be loaded on demand, LOAD is done only then
+            if (Main.getGui() != null) {
+                loadPicture();
+            }
+        }
 
         logger.debug("Created {}", this);
     }
@@ -460,7 +472,9 @@ public class Sheet
      */
     public Dimension getDimension ()
     {
-        return picture.getDimension();
+        ensureDimension();
+
+        return new Dimension(dimension);
     }
 
     //-----------------//
@@ -481,7 +495,9 @@ public class Sheet
      */
     public int getHeight ()
     {
-        return picture.getHeight();
+        ensureDimension();
+
+        return dimension.height;
     }
 
     //------------------//
@@ -614,11 +630,21 @@ public class Sheet
     //------------//
     /**
      * Report the picture of this sheet, that is the image to be processed.
+     * If the picture is not (or no longer) available, it is loaded on demand
+     * from the score image loader.
      *
-     * @return the related picture
+     * @return the related picture, or null if it could not be loaded
      */
     public Picture getPicture ()
     {
+        if (picture == null) {
+            try {
+                loadPicture();
+            } catch (StepException ex) {
+                logger.debug("{}No picture available", getLogPrefix());
+            }
+        }
+
         return picture;
     }
 
@@ -1018,7 +1044,9 @@ public class Sheet
      */
     public int getWidth ()
     {
-        return picture.getWidth();
+        ensureDimension();
+
+        return dimension.width;
     }
 
     //---------------------//
@@ -1061,6 +1089,51 @@ public class Sheet
         return Stepping.getLatestStep(this) == Steps.valueOf(Steps.SYMBOLS);
     }
 
+    //----------------//
+    // releasePicture //
+    //----------------//
+    /**
+     * Release the picture pixels, once they are no longer needed, that
+     * is when the binarized runs tables are available.
+     * This is done only in batch mode and when the picture can be loaded
+     * again on demand from the score image loader.
+     */
+    public synchronized void releasePicture ()
+    {
+        if ((picture == null)
+            || (Main.getGui() != null)
+            || !constants.releasePicture.isSet()
+            || (score.getImageLoader() == null)) {
+            return;
+        }
+
+        logger.debug("{}Releasing picture", getLogPrefix());
+        locationService.unsubscribe(LocationEvent.class, picture);
+        picture.close();
+        picture = null;
+    }
+
+    //-------------//
+    // releaseRuns //
+    //-------------//
+    /**
+     * Release the whole table of vertical runs, once the sheet has been
+     * translated into score entities.
+     * This is done only in batch mode. The table, if needed again, is rebuilt
+     * by the SCALE step.
+     */
+    public synchronized void releaseRuns ()
+    {
+        if ((wholeVerticalTable == null)
+            || (Main.getGui() != null)
+            || !constants.releaseRuns.isSet()) {
+            return;
+        }
+
+        logger.debug("{}Releasing runs", getLogPrefix());
+        wholeVerticalTable = null;
+    }
+
     //--------//
     // remove //
     //--------//
@@ -1080,7 +1153,9 @@ public class Sheet
             assembly.close();
         }
 
-        picture.close();
+        if (picture != null) {
+            picture.close();
+        }
 
         // If no sheet is left, force score closing
         if (!closing) {
@@ -1176,13 +1251,22 @@ public class Sheet
         // Reset most of members
         reset(Steps.LOAD);
 
+        createPicture(image);
+
+        done(Steps.valueOf(Steps.LOAD));
+    }
+
+    //---------------//
+    // createPicture //
+    //---------------//
+    private synchronized void createPicture (RenderedImage image)
+            throws StepException
+    {
         try {
             picture = new Picture(image, locationService);
             setPicture(picture);
             getBench().recordImageDimension(picture.getWidth(), picture.
                     getHeight());
-
-            done(Steps.valueOf(Steps.LOAD));
         } catch (ImageFormatException ex) {
             String msg = "Unsupported image format in file "
                          + getScore().getImagePath() + "\n" + ex.getMessage();
@@ -1197,6 +1281,20 @@ public class Sheet
         }
     }
 
+    //--------------//
+    // setDimension //
+    //--------------//
+    /**
+     * Assign the sheet dimension, when no picture is available, for
+     * example when runs are restored from a checkpoint.
+     *
+     * @param dimension the picture dimension in pixels
+     */
+    void setDimension (Dimension dimension)
+    {
+        this.dimension = new Dimension(dimension);
+    }
+
     //---------------------//
     // setLongSectionMaxId //
     //---------------------//
@@ -1423,6 +1521,7 @@ public class Sheet
 
         case Steps.LOAD:
             picture = null;
+            dimension = null;
             doneSteps = new HashSet<>();
             currentStep = null;
 
@@ -1462,6 +1561,54 @@ public class Sheet
         }
     }
 
+    //-----------------//
+    // ensureDimension //
+    //-----------------//
+    private void ensureDimension ()
+    {
+        if (dimension == null) {
+            getPicture();
+
+            if (dimension == null) {
+                throw new IllegalStateException("No picture for " + this);
+            }
+        }
+    }
+
+    //-------------//
+    // loadPicture //
+    //-------------//
+    /**
+     * Load the sheet picture from the score image loader, unless it is
+     * already available, and record the LOAD step as done.
+     *
+     * @throws StepException if picture cannot be loaded
+     */
+    private synchronized void loadPicture ()
+            throws StepException
+    {
+        if (picture != null) {
+            return;
+        }
+
+        ImageLoader loader = score.getImageLoader();
+
+        if (loader == null) {
+            throw new StepException("No image loader for " + this);
+        }
+
+        RenderedImage image = loader.getImage(page.getIndex());
+
+        if (image == null) {
+            throw new StepException(
+                    "Cannot load image #" + page.getIndex() + " of "
+                    + score.getImagePath());
+        }
+
+        createPicture(image);
+        done(Steps.valueOf(Steps.LOAD));
+    }
+
     //------------//
     // setPicture //
     //------------//
@@ -1473,6 +1620,7 @@ public class Sheet
     private void setPicture (Picture picture)
     {
         this.picture = picture;
+        dimension = picture.getDimension();
 
         locationService.subscribeStrongly(LocationEvent.class, picture);
 
@@ -1528,5 +1676,13 @@ public class Sheet
                 140,
                 "Maximum gray level for a pixel to be considered as foreground (black)");
 
+        Constant.Boolean releasePicture = new Constant.Boolean(
+                true,
+                "(Batch) Should we release picture pixels once runs are retrieved?");
+
+        Constant.Boolean releaseRuns = new Constant.Boolean(
+                true,
+                "(Batch) Should we release the whole runs table once the page is translated?");
+
     }
 }
@@ -0,0 +1,340 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                       S h e e t C h e c k p o i n t                        //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.sheet;
+
+import omr.WellKnowns;
+
+import omr.constant.Constant;
+import omr.constant.ConstantContext;
+import omr.constant.ConstantManager;
+import omr.constant.ConstantSet;
+
+import omr.run.FilterDescriptor;
+import omr.run.RunsTable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Dimension;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class {@code SheetCheckpoint} persists the sheet data computed by the
+ * SCALE step (picture dimension, whole table of vertical runs and scale),
+ * so that a later processing of the same input with the same options can
+ * skip image loading and binarization.
+ *
+ * <p>A checkpoint file is named after a digest of the input file content,
+ * the page index, the binarization filter, the application and checkpoint
+ * format versions, and all constant values which differ from their source
+ * value (USER properties, CLI options, interactive modifications and the
+ * constant context, if any). Any change in one of these items thus leads to
+ * a new checkpoint.
+ *
+ * <p>Checkpoints are used only when the useCheckpoints constant is set.
+ *
+ * @author Hervé Bitteur
+ */
+public class SheetCheckpoint
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            SheetCheckpoint.class);
+
+    /** File signature. */
+    private static final int MAGIC = 0x4F4D5243; // "OMRC"
+
+    /** Format version, to be incremented when the format changes. */
+    private static final int VERSION = 1;
+
+    /** Checkpoint file extension. */
+    private static final String EXTENSION = ".ckpt";
+
+    /** Content digests of input files, indexed by path, size and date. */
+    private static final ConcurrentHashMap<String, String> digests = new ConcurrentHashMap<>();
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    /**
+     * Not meant to be instantiated.
+     */
+    private SheetCheckpoint ()
+    {
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-----------//
+    // isEnabled //
+    //-----------//
+    /**
+     * Report whether checkpoints are to be used.
+     *
+     * @return true if enabled
+     */
+    public static boolean isEnabled ()
+    {
+        return constants.useCheckpoints.isSet();
+    }
+
+    //---------//
+    // restore //
+    //---------//
+    /**
+     * Try to restore the SCALE data of the provided sheet from its
+     * checkpoint.
+     *
+     * @param sheet the sheet to populate
+     * @param desc  the binarization filter to be used
+     * @return true if the sheet data was restored, false otherwise
+     */
+    public static boolean restore (Sheet sheet,
+                                   FilterDescriptor desc)
+    {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        final File file = getFile(sheet, desc);
+
+        if ((file == null) || !file.exists()) {
+            return false;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if ((in.readInt() != MAGIC) || (in.readInt() != VERSION)) {
+                logger.info("{}Obsolete checkpoint {}",
+                        sheet.getLogPrefix(), file);
+
+                return false;
+            }
+
+            final Dimension dimension = new Dimension(
+                    in.readInt(),
+                    in.readInt());
+            final Scale scale = Scale.read(in);
+            final RunsTable table = RunsTable.read("whole", in);
+
+            sheet.setDimension(dimension);
+            sheet.getBench()
+                    .recordImageDimension(dimension.width, dimension.height);
+            sheet.setWholeVerticalTable(table);
+            sheet.getBench()
+                    .recordScale(scale);
+            sheet.setScale(scale);
+
+            logger.info("{}Restored from checkpoint {}",
+                    sheet.getLogPrefix(), file.getName());
+
+            return true;
+        } catch (Exception ex) {
+            logger.warn(sheet.getLogPrefix() + "Error reading checkpoint "
+                        + file, ex);
+
+            return false;
+        }
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Write the SCALE data of the provided sheet to its checkpoint.
+     * The file is written aside, then moved in place, so that a concurrent
+     * reader never sees a partial checkpoint.
+     *
+     * @param sheet the sheet whose SCALE step has just been completed
+     * @param desc  the binarization filter used
+     */
+    public static void store (Sheet sheet,
+                              FilterDescriptor desc)
+    {
+        if (!isEnabled()) {
+            return;
+        }
+
+        final File file = getFile(sheet, desc);
+
+        if (file == null) {
+            return;
+        }
+
+        try {
+            file.getParentFile()
+                    .mkdirs();
+
+            final File temp = File.createTempFile(
+                    file.getName(),
+                    ".tmp",
+                    file.getParentFile());
+
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(
+                    new GZIPOutputStream(new FileOutputStream(temp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sheet.getWidth());
+                out.writeInt(sheet.getHeight());
+                sheet.getScale()
+                        .write(out);
+                sheet.getWholeVerticalTable()
+                        .write(out);
+            }
+
+            Files.move(
+                    temp.toPath(),
+                    file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("{}Checkpoint stored in {}",
+                    sheet.getLogPrefix(), file);
+        } catch (Exception ex) {
+            logger.warn(sheet.getLogPrefix() + "Error writing checkpoint "
+                        + file, ex);
+        }
+    }
+
+    //-----------//
+    // getDigest //
+    //-----------//
+    /**
+     * Report the content digest of the provided input file, computed
+     * only once as long as the file is not modified.
+     */
+    private static String getDigest (File file)
+            throws IOException, NoSuchAlgorithmException
+    {
+        final String id = file.getAbsolutePath() + "|" + file.length() + "|"
+                          + file.lastModified();
+        String digest = digests.get(id);
+
+        if (digest == null) {
+            final MessageDigest md = MessageDigest.getInstance("SHA-1");
+            final byte[] buffer = new byte[1 << 16];
+
+            try (InputStream is = new FileInputStream(file)) {
+                for (int n; (n = is.read(buffer)) > 0;) {
+                    md.update(buffer, 0, n);
+                }
+            }
+
+            digest = toHex(md.digest());
+            digests.put(id, digest);
+        }
+
+        return digest;
+    }
+
+    //---------//
+    // getFile //
+    //---------//
+    /**
+     * Report the checkpoint file for the provided sheet.
+     *
+     * @return the checkpoint file, or null if it cannot be determined
+     */
+    private static File getFile (Sheet sheet,
+                                 FilterDescriptor desc)
+    {
+        final File input = sheet.getScore()
+                .getImageFile();
+
+        try {
+            // Options which may impact the checkpoint content
+            StringBuilder options = new StringBuilder();
+            options.append(WellKnowns.TOOL_REF)
+                    .append(WellKnowns.TOOL_BUILD)
+                    .append(VERSION)
+                    .append(desc)
+                    .append(ConstantManager.getInstance().getModifiedValues());
+
+            ConstantContext context = ConstantContext.getCurrent();
+
+            if (context != null) {
+                options.append(context);
+            }
+
+            final MessageDigest md = MessageDigest.getInstance("SHA-1");
+            final String optionsDigest = toHex(
+                    md.digest(
+                    options.toString().getBytes(StandardCharsets.UTF_8)));
+
+            return new File(
+                    constants.checkpointDirectory.getValue(),
+                    getDigest(input) + "-" + sheet.getPage().getIndex() + "-"
+                    + optionsDigest.substring(0, 12) + EXTENSION);
+        } catch (Exception ex) {
+            logger.warn(sheet.getLogPrefix() + "No checkpoint for " + input,
+                    ex);
+
+            return null;
+        }
+    }
+
+    //-------//
+    // toHex //
+    //-------//
+    private static String toHex (byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder(2 * bytes.length);
+
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+
+        return sb.toString();
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useCheckpoints = new Constant.Boolean(
+                false,
+                "Should we save and reuse checkpoints of the SCALE step?");
+
+        //
+        Constant.String checkpointDirectory = new Constant.String(
+                new File(WellKnowns.TEMP_FOLDER, "checkpoints").toString(),
+                "Directory for checkpoints");
+
+    }
+}
@@ -15,11 +15,11 @@ import omr.check.CheckSuite;
 
 import omr.glyph.CompoundBuilder;
 import omr.glyph.CompoundBuilder.CompoundAdapter;
+import omr.glyph.GlyphIndex;
 import omr.glyph.GlyphInspector;
 import omr.glyph.Glyphs;
 import omr.glyph.GlyphsBuilder;
 import omr.glyph.facets.Glyph;
-import omr.glyph.pattern.PatternsChecker;
 import omr.glyph.pattern.SlurInspector;
 
 import omr.grid.BarAlignment;
@@ -175,6 +175,9 @@ public class SystemInfo
             unmodifiableSortedSet(
             glyphs);
 
+    /** Spatial index on glyphs collection, lazily allocated */
+    private GlyphIndex glyphIndex;
+
     /** Set of sentence made of text glyphs */
     private Set<TextLine> sentences = new LinkedHashSet<>();
 
@@ -286,6 +289,8 @@ public class SystemInfo
     public void addToGlyphsCollection (Glyph glyph)
     {
         glyphs.add(glyph);
+        getGlyphIndex()
+                .insert(glyph);
     }
 
     //------------------------//
@@ -438,6 +443,8 @@ public class SystemInfo
     public void clearGlyphs ()
     {
         glyphs.clear();
+        getGlyphIndex()
+                .clear();
     }
 
     //-----------//
@@ -1106,7 +1113,8 @@ public class SystemInfo
     {
         List<Glyph> found = new ArrayList<>();
 
-        for (Glyph glyph : getGlyphs()) {
+        for (Glyph glyph : getGlyphIndex()
+                .lookup(rect)) {
             if (rect.contains(glyph.getBounds())) {
                 found.add(glyph);
             }
@@ -1132,7 +1140,8 @@ public class SystemInfo
         List<Glyph> exc = Arrays.asList(excluded);
         List<Glyph> found = new ArrayList<>();
 
-        for (Glyph glyph : getGlyphs()) {
+        for (Glyph glyph : getGlyphIndex()
+                .lookup(rect)) {
             if (!exc.contains(glyph) && glyph.intersects(rect)) {
                 found.add(glyph);
             }
@@ -1170,7 +1179,14 @@ public class SystemInfo
      */
     public boolean removeFromGlyphsCollection (Glyph glyph)
     {
-        return glyphs.remove(glyph);
+        if (glyphs.remove(glyph)) {
+            getGlyphIndex()
+                    .remove(glyph);
+
+            return true;
+        } else {
+            return false;
+        }
     }
 
     //-------------//
@@ -1269,19 +1285,6 @@ public class SystemInfo
         return verticalsBuilder.retrieveVerticals();
     }
 
-    //-------------//
-    // runPatterns //
-    //-------------//
-    /**
-     * Run the series of glyphs patterns.
-     *
-     * @return true if some progress has been made
-     */
-    public boolean runPatterns ()
-    {
-        return new PatternsChecker(this).runPatterns();
-    }
-
     //---------------------//
     // segmentGlyphOnStems //
     //---------------------//
@@ -1579,4 +1582,26 @@ public class SystemInfo
     {
         return textBuilder;
     }
+
+    //---------------//
+    // getGlyphIndex //
+    //---------------//
+    /**
+     * Report the spatial index on system glyphs, allocating it if
+     * needed.
+     *
+     * @return the glyph index
+     */
+    private synchronized GlyphIndex getGlyphIndex ()
+    {
+        if (glyphIndex == null) {
+            glyphIndex = new GlyphIndex(sheet.getNest());
+
+            for (Glyph glyph : glyphs) {
+                glyphIndex.insert(glyph);
+            }
+        }
+
+        return glyphIndex;
+    }
 }
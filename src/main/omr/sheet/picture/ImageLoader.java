@@ -0,0 +1,55 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                           I m a g e L o a d e r                            //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.sheet.picture;
+
+import java.awt.image.RenderedImage;
+import java.util.SortedSet;
+
+/**
+ * Interface {@code ImageLoader} gives access to the images contained
+ * in an input file, decoding each image only when it is actually
+ * requested.
+ *
+ * <p>A loader keeps its underlying input (ImageIO reader, temporary
+ * Ghostscript output, ...) open until {@link #dispose} is called, so that
+ * an image can be decoded again later if its raster had to be released in
+ * the meantime.
+ *
+ * @author Hervé Bitteur
+ */
+public interface ImageLoader
+{
+    //~ Methods ----------------------------------------------------------------
+
+    /**
+     * Release all the resources (streams, readers, temporary files)
+     * held by this loader.
+     */
+    void dispose ();
+
+    /**
+     * Report the ids (counted from 1) of the images available through
+     * this loader.
+     *
+     * @return the sorted set of image ids, perhaps empty but not null
+     */
+    SortedSet<Integer> getIds ();
+
+    /**
+     * Decode and report the image with the provided id.
+     * Each call decodes the image again, no image is cached by the loader.
+     *
+     * @param id the image id (counted from 1)
+     * @return the decoded image, or null if it could not be decoded
+     */
+    RenderedImage getImage (int id);
+}
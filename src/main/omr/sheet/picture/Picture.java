@@ -14,6 +14,7 @@ package omr.sheet.picture;
 import omr.constant.Constant;
 import omr.constant.ConstantSet;
 
+import omr.run.BitonalFilter;
 import omr.run.PixelSource;
 
 import omr.selection.LocationEvent;
@@ -34,6 +35,7 @@ import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
 import java.awt.image.Raster;
 import java.awt.image.RenderedImage;
 import java.awt.image.SampleModel;
@@ -88,9 +90,21 @@ public class Picture
      * when so asked for by the onEvent() method. */
     private final SelectionService levelService;
 
-    /** The image (read-only) raster. */
+    /** The image (read-only) raster, used only when no flat copy exists. */
     private Raster raster;
 
+    /**
+     * Flat copy of gray levels (grayFactor already applied), row after row.
+     * This is the fast path, available when all levels fit in 0..255.
+     */
+    private byte[] pixels;
+
+    /**
+     * Packed bits, available when the image is bitonal.
+     * In that case, neither flat copy nor raster is used.
+     */
+    private BitonalFilter bitonal;
+
     /** The factor to apply to raw pixel value to get gray level on 0..255 */
     private int grayFactor = 1;
 
@@ -146,6 +160,14 @@ public class Picture
     public final int getPixel (int x,
                                int y)
     {
+        if (pixels != null) {
+            return pixels[(y * dimension.width) + x] & 0xFF;
+        }
+
+        if (bitonal != null) {
+            return bitonal.getPixel(x, y);
+        }
+
         int[] pixel = raster.getPixel(x, y, (int[]) null); // Allocates pixel!
 
         if (grayFactor == 1) {
@@ -235,6 +257,45 @@ public class Picture
         logger.info(sb.toString());
     }
 
+    //-----------//
+    // getColumn //
+    //-----------//
+    @Override
+    public void getColumn (int x,
+                           int yMin,
+                           int yMax,
+                           int[] levels)
+    {
+        if (pixels != null) {
+            final int width = dimension.width;
+
+            for (int y = yMin, i = (yMin * width) + x; y <= yMax;
+                    y++, i += width) {
+                levels[y] = pixels[i] & 0xFF;
+            }
+        } else if (bitonal != null) {
+            bitonal.getColumn(x, yMin, yMax, levels);
+        } else {
+            for (int y = yMin; y <= yMax; y++) {
+                levels[y] = getPixel(x, y);
+            }
+        }
+    }
+
+    //------------------//
+    // getBitonalFilter //
+    //------------------//
+    /**
+     * Report the packed version of a bitonal image, which can provide
+     * the foreground runs directly, with no binarization.
+     *
+     * @return the bitonal filter, or null if the image is not bitonal
+     */
+    public BitonalFilter getBitonalFilter ()
+    {
+        return bitonal;
+    }
+
     //--------------//
     // getDimension //
     //--------------//
@@ -296,6 +357,30 @@ public class Picture
         return "Picture";
     }
 
+    //--------//
+    // getRow //
+    //--------//
+    @Override
+    public void getRow (int y,
+                        int xMin,
+                        int xMax,
+                        int[] levels)
+    {
+        if (pixels != null) {
+            final int offset = y * dimension.width;
+
+            for (int x = xMin; x <= xMax; x++) {
+                levels[x] = pixels[offset + x] & 0xFF;
+            }
+        } else if (bitonal != null) {
+            bitonal.getRow(y, xMin, xMax, levels);
+        } else {
+            for (int x = xMin; x <= xMax; x++) {
+                levels[x] = getPixel(x, y);
+            }
+        }
+    }
+
     //----------//
     // getWidth //
     //----------//
@@ -438,6 +523,14 @@ public class Picture
         }
     }
 
+    //------------//
+    // brightness //
+    //------------//
+    private static int brightness (int rgb)
+    {
+        return ((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF) + (rgb & 0xFF);
+    }
+
     //------------//
     // checkImage //
     //------------//
@@ -498,6 +591,66 @@ public class Picture
         }
     }
 
+    //---------//
+    // flatten //
+    //---------//
+    /**
+     * Copy the gray levels of the provided raster into a flat array,
+     * row after row, with grayFactor applied.
+     *
+     * @param data the image raster
+     * @return the flat array of levels
+     */
+    private byte[] flatten (Raster data)
+    {
+        final int width = dimension.width;
+        final int height = dimension.height;
+        final int minX = data.getMinX();
+        final int minY = data.getMinY();
+        final byte[] flat = new byte[width * height];
+        final int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            data.getSamples(minX, minY + y, width, 1, 0, row);
+
+            final int offset = y * width;
+
+            if (grayFactor == 1) {
+                for (int x = 0; x < width; x++) {
+                    flat[offset + x] = (byte) row[x];
+                }
+            } else {
+                for (int x = 0; x < width; x++) {
+                    flat[offset + x] = (byte) ((grayFactor / 2)
+                                               + (grayFactor * row[x]));
+                }
+            }
+        }
+
+        return flat;
+    }
+
+    //---------------//
+    // getForeSample //
+    //---------------//
+    /**
+     * Report which sample value represents foreground in a bitonal
+     * image: the darker one for an indexed color model, 0 otherwise.
+     *
+     * @param colorModel the image color model
+     * @return the foreground sample value (0 or 1)
+     */
+    private static int getForeSample (ColorModel colorModel)
+    {
+        if (colorModel instanceof IndexColorModel
+            && (((IndexColorModel) colorModel).getMapSize() >= 2)) {
+            return (brightness(colorModel.getRGB(1)) < brightness(
+                    colorModel.getRGB(0))) ? 1 : 0;
+        }
+
+        return 0;
+    }
+
     //-------------//
     // printBounds //
     //-------------//
@@ -532,11 +685,6 @@ public class Picture
 
         // Cache dimensions
         dimension = new Dimension(image.getWidth(), image.getHeight());
-        raster = Raster.createRaster(
-                image.getData().getSampleModel(),
-                image.getData().getDataBuffer(),
-                null);
-        logger.debug("raster={}", raster);
 
         // Check pixel size and compute grayFactor accordingly
         ColorModel colorModel = image.getColorModel();
@@ -554,6 +702,28 @@ public class Picture
         }
 
         logger.debug("grayFactor={}", grayFactor);
+
+        Raster data = image.getData();
+
+        if ((pixelSize == 1) && (data.getNumBands() == 1)) {
+            // Bitonal image: keep only the packed bits
+            bitonal = new BitonalFilter(data, getForeSample(colorModel));
+            pixels = null;
+            raster = null;
+        } else if (pixelSize <= 8) {
+            // Levels fit in a byte: make a flat copy of the gray levels
+            bitonal = null;
+            pixels = flatten(data);
+            raster = null;
+        } else {
+            bitonal = null;
+            pixels = null;
+            raster = Raster.createRaster(
+                    data.getSampleModel(),
+                    data.getDataBuffer(),
+                    null);
+            logger.debug("raster={}", raster);
+        }
     }
 
     //~ Inner Classes ----------------------------------------------------------
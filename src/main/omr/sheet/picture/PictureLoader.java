@@ -28,11 +28,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
@@ -43,6 +45,10 @@ import javax.imageio.stream.ImageInputStream;
  * Picture} to handle the loading of one or several images out of an
  * input file.
  *
+ * <p>Images can be loaded all at once via {@link #loadImages}, or page by
+ * page on demand through the {@link ImageLoader} returned by
+ * {@link #openImages}.
+ *
  * <p>It leverages several software pieces: JAI, ImageIO, and Ghostscript.
  *
  * @author Hervé Bitteur
@@ -69,26 +75,73 @@ public class PictureLoader
 
     //~ Methods ----------------------------------------------------------------
     //
-    //----------//
-    // loadFile //
-    //----------//
+    //------------//
+    // loadImages //
+    //------------//
     /**
      * Loads a sequence of RenderedImage instances from a file.
      *
-     * If ImageIO can read the file, it is used preferentially.
-     * If not, or if ImageIO has an error, a PDF loader is used for files
-     * ending with ".pdf" and JAI is used for all other files.
+     * <p>All the desired images are decoded at once, which may require a lot
+     * of memory for a large multi-page input.
+     * Use {@link #openImages} to decode the images only on demand.
      *
      * @param imgFile the image file to load
      * @param pages   if not null or empty, specifies (counted from 1) which
      *                pages are desired. Otherwise all pages are loaded.
      * @return a sorted map of RenderedImage's (often but not always a
-     *         BufferedImage), guaranteed not to be null, id counted from 1.
+     *         BufferedImage), id counted from 1, or null if failed to load
      * @throws IllegalArgumentException if file does not exist
-     * @throws RuntimeException         if we are unable to load the file
      */
     public static SortedMap<Integer, RenderedImage> loadImages (File imgFile,
                                                                 SortedSet<Integer> pages)
+    {
+        ImageLoader loader = openImages(imgFile, pages);
+
+        if (loader == null) {
+            return null;
+        }
+
+        try {
+            SortedMap<Integer, RenderedImage> images = new TreeMap<>();
+
+            for (int id : loader.getIds()) {
+                RenderedImage image = loader.getImage(id);
+
+                if (image == null) {
+                    return null;
+                }
+
+                images.put(id, image);
+            }
+
+            return images;
+        } finally {
+            loader.dispose();
+        }
+    }
+
+    //------------//
+    // openImages //
+    //------------//
+    /**
+     * Open a file as a sequence of images, each image being decoded
+     * only when it is actually requested.
+     *
+     * <p>If ImageIO can read the file, it is used preferentially.
+     * If not, or if ImageIO has an error, a PDF loader is used for files
+     * ending with ".pdf" and JAI is used for all other files.
+     *
+     * <p>The caller is responsible for disposing of the returned loader.
+     *
+     * @param imgFile the image file to open
+     * @param pages   if not null or empty, specifies (counted from 1) which
+     *                pages are desired. Otherwise all pages are available.
+     * @return the loader on the file images, or null if the file could not
+     *         be opened
+     * @throws IllegalArgumentException if file does not exist
+     */
+    public static ImageLoader openImages (File imgFile,
+                                          SortedSet<Integer> pages)
     {
         if (!imgFile.exists()) {
             throw new IllegalArgumentException(imgFile + " does not exist");
@@ -98,43 +151,53 @@ public class PictureLoader
 
         logger.debug("Trying ImageIO");
 
-        SortedMap<Integer, RenderedImage> images = loadImageIO(imgFile, pages, 0);
+        ImageLoader loader = openImageIO(imgFile, pages, 0, null);
 
-        if (images == null) {
+        if (loader == null) {
             String extension = FileUtil.getExtension(imgFile);
 
             if (extension.equalsIgnoreCase(".pdf")) {
-                images = loadPDF(imgFile, pages);
+                loader = openPDF(imgFile, pages);
             } else {
                 logger.debug("Using JAI");
-                images = JaiLoader.loadJAI(imgFile);
+
+                SortedMap<Integer, RenderedImage> images = JaiLoader.loadJAI(
+                        imgFile);
+
+                if (images != null) {
+                    loader = new MapLoader(images);
+                }
             }
         }
 
-        if (images == null) {
+        if (loader == null) {
             logger.warn("Unable to load any image from {}", imgFile);
         }
 
-        return images;
+        return loader;
     }
 
     //-------------//
-    // loadImageIO //
+    // openImageIO //
     //-------------//
     /**
-     * Try to load a sequence of images, using ImageIO.
+     * Try to open a sequence of images, using ImageIO.
      *
      * @param imgFile the input image file
      * @param pages   if not null or empty, specifies (counted from 1) which
-     *                precise pages are desired. Otherwise all pages are loaded.
+     *                precise pages are desired. Otherwise all pages are
+     *                available.
      * @param offset  specify offset on page ids.
-     * @return a map (id -> image), or null if failed to load
+     * @param temp    temporary file to delete when loader is disposed, or
+     *                null
+     * @return the loader, or null if failed to open
      */
-    private static SortedMap<Integer, RenderedImage> loadImageIO (File imgFile,
-                                                                  SortedSet<Integer> pages,
-                                                                  int offset)
+    private static ImageLoader openImageIO (File imgFile,
+                                            SortedSet<Integer> pages,
+                                            int offset,
+                                            Path temp)
     {
-        logger.debug("loadImageIO {} pages:{} offset:{}", imgFile, pages, offset);
+        logger.debug("openImageIO {} pages:{} offset:{}", imgFile, pages, offset);
 
         // Input stream
         ImageInputStream stream;
@@ -153,6 +216,8 @@ public class PictureLoader
             return null;
         }
 
+        ImageReader reader = null;
+
         try {
             Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
 
@@ -162,65 +227,75 @@ public class PictureLoader
                 return null;
             }
 
-            ImageReader reader = readers.next();
+            reader = readers.next();
+            reader.setInput(stream, false);
 
-            try {
-                reader.setInput(stream, false);
+            int imageCount = reader.getNumImages(true);
 
-                int imageCount = reader.getNumImages(true);
+            if (imageCount > 1) {
+                logger.info("{} contains {} images",
+                        imgFile.getName(), imageCount);
+            }
 
-                if (imageCount > 1) {
-                    logger.info("{} contains {} images",
-                            imgFile.getName(), imageCount);
-                }
+            SortedSet<Integer> ids = new TreeSet<>();
 
-                SortedMap<Integer, RenderedImage> images = new TreeMap<>();
-
-                for (int i = 1; i <= imageCount; i++) {
-                    int id = i + offset;
-                    if ((pages == null) || pages.isEmpty()
-                        || (pages.contains(id))) {
-                        BufferedImage img = reader.read(i - 1);
-                        images.put(id, img);
-                        logger.info("Loaded image #{} ({} x {})",
-                                id, img.getWidth(), img.getHeight());
-                    }
+            for (int i = 1; i <= imageCount; i++) {
+                int id = i + offset;
+
+                if ((pages == null) || pages.isEmpty()
+                    || (pages.contains(id))) {
+                    ids.add(id);
                 }
+            }
 
-                return images;
-            } catch (Exception ex) {
-                logger.warn("ImageIO failed", ex);
+            ImageIOLoader loader = new ImageIOLoader(
+                    imgFile,
+                    stream,
+                    reader,
+                    offset,
+                    ids,
+                    temp);
+            reader = null; // Now owned by the loader
+            stream = null;
 
-                return null;
-            } finally {
+            return loader;
+        } catch (Exception ex) {
+            logger.warn("ImageIO failed", ex);
+
+            return null;
+        } finally {
+            if (reader != null) {
                 reader.dispose();
             }
-        } finally {
-            try {
-                stream.close();
-            } catch (IOException ignored) {
+
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignored) {
+                }
             }
         }
     }
 
     //---------//
-    // loadPDF //
+    // openPDF //
     //---------//
     /**
-     * Load a sequence of images out of a PDF file.
+     * Open a sequence of images out of a PDF file.
      * We spawn a Ghostscript subprocess to convert PDF to TIFF and then
-     * load the temporary TIFF file via loadImageIO().
+     * open the temporary TIFF file via openImageIO().
+     * The temporary file is kept until the loader is disposed.
      *
      * @param imgFile the input PDF file
      * @param pages   if not null or empty, specifies (counted from 1) which
      *                precise images are desired. Otherwise all pages are
-     *                loaded.
-     * @return a map of images, or null if failed to load
+     *                available.
+     * @return the loader, or null if failed to open
      */
-    private static SortedMap<Integer, RenderedImage> loadPDF (File imgFile,
-                                                              SortedSet<Integer> pages)
+    private static ImageLoader openPDF (File imgFile,
+                                        SortedSet<Integer> pages)
     {
-        logger.debug("loadPDF {} pages:{}", imgFile, pages);
+        logger.debug("openPDF {} pages:{}", imgFile, pages);
 
         // Create a temporary tiff file from the PDF input
         Path temp = null;
@@ -248,29 +323,206 @@ public class PictureLoader
         gsArgs.add(imgFile.toString());
         logger.debug("gsArgs:{}", gsArgs);
 
+        ImageLoader loader = null;
+
         try {
             // Spawn Ghostscript process and wait for its completion
             new ProcessBuilder(gsArgs).start().waitFor();
 
-            // Now load the temporary tiff file
+            // Now open the temporary tiff file
             if (pages != null && !pages.isEmpty()) {
-                return loadImageIO(temp.toFile(), pages, pages.first() - 1);
+                loader = openImageIO(
+                        temp.toFile(),
+                        pages,
+                        pages.first() - 1,
+                        temp);
             } else {
-                return loadImageIO(temp.toFile(), null, 0);
+                loader = openImageIO(temp.toFile(), null, 0, temp);
             }
+
+            return loader;
         } catch (IOException | InterruptedException ex) {
             logger.warn("Error running Ghostscript " + gsArgs, ex);
             return null;
         } finally {
-            try {
-                Files.delete(temp);
-            } catch (IOException ex) {
-                logger.warn("Error deleting file " + temp, ex);
+            if (loader == null) {
+                deleteTemp(temp);
             }
         }
     }
 
+    //------------//
+    // deleteTemp //
+    //------------//
+    private static void deleteTemp (Path temp)
+    {
+        try {
+            Files.delete(temp);
+        } catch (IOException ex) {
+            logger.warn("Error deleting file " + temp, ex);
+        }
+    }
+
     //~ Inner Classes ----------------------------------------------------------
+    //---------------//
+    // ImageIOLoader //
+    //---------------//
+    /**
+     * Loader which keeps an ImageIO reader open on the input, and
+     * decodes a page only when it is requested.
+     * Since an ImageReader is not thread safe, decoding is serialized.
+     * If ImageIO fails on a page, JAI is tried on this page.
+     */
+    private static class ImageIOLoader
+            implements ImageLoader
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        /** The input file. */
+        private final File imgFile;
+
+        /** The input stream. */
+        private final ImageInputStream stream;
+
+        /** The reader positioned on stream. */
+        private final ImageReader reader;
+
+        /** Offset on image ids. */
+        private final int offset;
+
+        /** Ids of available images. */
+        private final SortedSet<Integer> ids;
+
+        /** Temporary file to delete on disposal, if any. */
+        private final Path temp;
+
+        /** Set when disposed. */
+        private boolean disposed;
+
+        //~ Constructors -------------------------------------------------------
+        public ImageIOLoader (File imgFile,
+                              ImageInputStream stream,
+                              ImageReader reader,
+                              int offset,
+                              SortedSet<Integer> ids,
+                              Path temp)
+        {
+            this.imgFile = imgFile;
+            this.stream = stream;
+            this.reader = reader;
+            this.offset = offset;
+            this.ids = Collections.unmodifiableSortedSet(ids);
+            this.temp = temp;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public synchronized void dispose ()
+        {
+            if (disposed) {
+                return;
+            }
+
+            disposed = true;
+            reader.dispose();
+
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+            }
+
+            if (temp != null) {
+                deleteTemp(temp);
+            }
+        }
+
+        @Override
+        public SortedSet<Integer> getIds ()
+        {
+            return ids;
+        }
+
+        @Override
+        public synchronized RenderedImage getImage (int id)
+        {
+            if (disposed) {
+                logger.warn("Loader already disposed, cannot load image #{}",
+                        id);
+
+                return null;
+            }
+
+            if (!ids.contains(id)) {
+                logger.warn("No image #{} available", id);
+
+                return null;
+            }
+
+            try {
+                BufferedImage img = reader.read(id - offset - 1);
+                logger.info("Loaded image #{} ({} x {})",
+                        id, img.getWidth(), img.getHeight());
+
+                return img;
+            } catch (Exception ex) {
+                logger.warn("ImageIO failed on image #" + id, ex);
+            }
+
+            logger.debug("Using JAI on image #{}", id);
+
+            RenderedImage img = JaiLoader.loadJAI(imgFile, id - offset - 1);
+
+            if (img != null) {
+                logger.info("Loaded image #{} ({} x {})",
+                        id, img.getWidth(), img.getHeight());
+            } else {
+                logger.warn("Unable to load image #{} from {}", id, imgFile);
+            }
+
+            return img;
+        }
+    }
+
+    //-----------//
+    // MapLoader //
+    //-----------//
+    /**
+     * Degenerated loader on already available images.
+     */
+    private static class MapLoader
+            implements ImageLoader
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final SortedMap<Integer, RenderedImage> images;
+
+        //~ Constructors -------------------------------------------------------
+        public MapLoader (SortedMap<Integer, RenderedImage> images)
+        {
+            this.images = images;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public void dispose ()
+        {
+            images.clear();
+        }
+
+        @Override
+        public SortedSet<Integer> getIds ()
+        {
+            return Collections.unmodifiableSortedSet(
+                    new TreeSet<>(images.keySet()));
+        }
+
+        @Override
+        public RenderedImage getImage (int id)
+        {
+            return images.get(id);
+        }
+    }
+
     //-----------//
     // Constants //
     //-----------//
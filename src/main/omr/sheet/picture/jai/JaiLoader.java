@@ -11,6 +11,10 @@
 // </editor-fold>
 package omr.sheet.picture.jai;
 
+import com.sun.media.jai.codec.FileSeekableStream;
+import com.sun.media.jai.codec.ImageCodec;
+import com.sun.media.jai.codec.ImageDecoder;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +24,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 
 import javax.media.jai.JAI;
+import javax.media.jai.PlanarImage;
 
 /**
  * Class {@code JaiLoader} is meant to keep JAI-based image features
@@ -114,4 +119,49 @@ public class JaiLoader
 
         return null;
     }
+
+    //---------//
+    // loadJAI //
+    //---------//
+    /**
+     * Try to load one image out of a (potentially multi-page) file,
+     * using JAI codecs.
+     * The image is fully decoded, so that the file is no longer needed.
+     *
+     * @param imgFile the input file
+     * @param index   the image index, counted from 0
+     * @return the image, or null if failed to load
+     */
+    public static RenderedImage loadJAI (File imgFile,
+                                         int index)
+    {
+        try (FileSeekableStream stream = new FileSeekableStream(imgFile)) {
+            String[] names = ImageCodec.getDecoderNames(stream);
+
+            if (names.length == 0) {
+                logger.debug("No JAI decoder for {}", imgFile);
+
+                return null;
+            }
+
+            ImageDecoder decoder = ImageCodec.createImageDecoder(
+                    names[0],
+                    stream,
+                    null);
+
+            if (index >= decoder.getNumPages()) {
+                logger.debug("No image #{} in {}", index + 1, imgFile);
+
+                return null;
+            }
+
+            return PlanarImage.wrapRenderedImage(
+                    decoder.decodeAsRenderedImage(index))
+                    .getAsBufferedImage();
+        } catch (Exception ex) {
+            logger.debug("JAI failed on {} {}", imgFile, ex.getMessage());
+
+            return null;
+        }
+    }
 }
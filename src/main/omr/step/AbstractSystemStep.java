@@ -13,9 +13,12 @@ package omr.step;
 
 import omr.Main;
 
+import omr.constant.ConstantContext;
+
 import omr.sheet.Sheet;
 import omr.sheet.SystemInfo;
 
+import omr.util.Metrics;
 import omr.util.OmrExecutors;
 
 import org.slf4j.Logger;
@@ -100,6 +103,32 @@ public abstract class AbstractSystemStep
     public abstract void doSystem (SystemInfo system)
             throws StepException;
 
+    //------------------//
+    // doMeasuredSystem //
+    //------------------//
+    /**
+     * Perform the step on the given system, recording the time and
+     * memory spent in the "step_systems" timer of this step.
+     * This timer is kept per step, not per system (system ids are not
+     * stable from one sheet to the other): it counts one call per system
+     * and sums the times and allocated bytes of all systems processed,
+     * whatever the thread each system ran on.
+     *
+     * @param system the system to process
+     * @throws StepException raised if processing failed
+     */
+    void doMeasuredSystem (SystemInfo system)
+            throws StepException
+    {
+        final Metrics.Sample sample = Metrics.start();
+
+        try {
+            doSystem(system);
+        } finally {
+            sample.stop("step_systems", getName());
+        }
+    }
+
     //------//
     // doit //
     //------//
@@ -126,6 +155,22 @@ public abstract class AbstractSystemStep
         doEpilog(systems, sheet);
     }
 
+    //-------------//
+    // isPipelined //
+    //-------------//
+    /**
+     * Report whether this step may start on a system as soon as the
+     * previous step is over for this same system, without waiting for
+     * the other systems nor for the epilog of the previous step.
+     * See {@link StepScheduler}.
+     *
+     * @return true if the step can overlap its previous step
+     */
+    public boolean isPipelined ()
+    {
+        return false;
+    }
+
     //----------//
     // doEpilog //
     //----------//
@@ -193,7 +238,7 @@ public abstract class AbstractSystemStep
                                     AbstractSystemStep.this,
                                     system.idString());
 
-                            doSystem(system);
+                            doMeasuredSystem(system);
                         } catch (Exception ex) {
                             logger.warn(sheet.getLogPrefix()
                                         + "Interrupt on "
@@ -207,7 +252,8 @@ public abstract class AbstractSystemStep
             }
 
             // Launch all system tasks in parallel and wait for their completion
-            OmrExecutors.getLowExecutor().invokeAll(tasks);
+            OmrExecutors.getLowExecutor()
+                    .invokeAll(ConstantContext.wrapAll(tasks));
         } catch (InterruptedException ex) {
             logger.warn("doitPerSystem got interrupted");
             throw new ProcessingCancellationException(ex);
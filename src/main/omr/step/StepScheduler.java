@@ -0,0 +1,306 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                         S t e p S c h e d u l e r                          //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.step;
+
+import omr.Main;
+
+import omr.constant.Constant;
+import omr.constant.ConstantContext;
+import omr.constant.ConstantSet;
+
+import omr.sheet.Sheet;
+import omr.sheet.SystemInfo;
+
+import omr.util.Metrics;
+import omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class {@code StepScheduler} performs a sequence of system steps on
+ * a sheet, as a graph of (system, step) units rather than as a sequence
+ * of steps separated by barriers.
+ *
+ * <p>The plain way to perform a system step is to launch the step on all
+ * systems in parallel, and to wait for the slowest system before the next
+ * step can start. Here, each unit depends only on the unit of the same
+ * system for the previous step, so that a system can start SYMBOLS while
+ * another system is still in STICKS.
+ * <pre>
+ *   system 1:  TEXTS ----> STICKS --> SYMBOLS
+ *   system 2:  TEXTS --------> STICKS ----> SYMBOLS
+ *   system 3:  TEXTS -> STICKS -----> SYMBOLS
+ * </pre>
+ *
+ * <p>This applies only to consecutive steps which have declared, via
+ * {@link AbstractSystemStep#isPipelined}, that they can overlap their
+ * previous step. The prologs of all steps are run before any unit, and the
+ * epilogs are run in step order once all units are completed.
+ *
+ * <p>Since several steps are then active at the same time on the sheet, the
+ * notion of current step gets blurred. Hence, this scheduling is used only
+ * in batch mode, where no errors window depends on it.
+ *
+ * @author Hervé Bitteur
+ */
+class StepScheduler
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(
+            StepScheduler.class);
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** The sheet to process. */
+    private final Sheet sheet;
+
+    /** The systems to process. */
+    private final Collection<SystemInfo> systems;
+
+    /** The steps to perform, in order. */
+    private final List<AbstractSystemStep> steps;
+
+    /** Start time of first unit, per step. */
+    private final AtomicLongArray times;
+
+    /** Units not yet completed. */
+    private CountDownLatch remaining;
+
+    /** Failure in launching units, if any. */
+    private volatile Throwable failure;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //---------------//
+    // StepScheduler //
+    //---------------//
+    /**
+     * Creates a new StepScheduler object.
+     *
+     * @param sheet   the sheet to process
+     * @param systems the systems to process, null for all sheet systems
+     * @param steps   the sequence of steps, as provided by
+     *                {@link #getPipelineEnd}
+     */
+    StepScheduler (Sheet sheet,
+                   Collection<SystemInfo> systems,
+                   List<AbstractSystemStep> steps)
+    {
+        this.sheet = sheet;
+        this.systems = (systems != null) ? systems : sheet.getSystems();
+        this.steps = steps;
+
+        times = new AtomicLongArray(steps.size());
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //----------------//
+    // getPipelineEnd //
+    //----------------//
+    /**
+     * Report the end of the sequence of steps that can be scheduled
+     * as a graph, starting from a given step.
+     *
+     * @param steps the ordered steps to perform
+     * @param start index of the first step to consider
+     * @return index (exclusive) of the end of the sequence, which is just
+     *         (start + 1) when there is nothing to pipeline
+     */
+    static int getPipelineEnd (List<Step> steps,
+                               int start)
+    {
+        if (!constants.useStepScheduler.isSet()
+            || (Main.getGui() != null)
+            || !OmrExecutors.defaultParallelism.getTarget()
+            || !(steps.get(start) instanceof AbstractSystemStep)) {
+            return start + 1;
+        }
+
+        int end = start + 1;
+
+        while ((end < steps.size())
+               && steps.get(end) instanceof AbstractSystemStep
+               && ((AbstractSystemStep) steps.get(end)).isPipelined()
+               && (Steps.previous(steps.get(end)) == steps.get(end - 1))) {
+            end++;
+        }
+
+        return end;
+    }
+
+    //-----//
+    // run //
+    //-----//
+    /**
+     * Perform the sequence of steps on the sheet systems.
+     *
+     * @throws StepException if processing must stop
+     */
+    void run ()
+            throws StepException
+    {
+        final AbstractSystemStep last = steps.get(steps.size() - 1);
+
+        try {
+            for (AbstractSystemStep step : steps) {
+                logger.debug("{}Starting {}", sheet.getLogPrefix(), step);
+                step.started(sheet);
+                Stepping.notifyStep(sheet, step); // Start
+                step.clearErrors(sheet);
+                step.doProlog(systems, sheet);
+            }
+
+            processUnits();
+
+            for (int i = 0; i < steps.size(); i++) {
+                AbstractSystemStep step = steps.get(i);
+                step.doEpilog(systems, sheet);
+                step.done(sheet); // Full completion
+                logger.debug("{}Finished {}", sheet.getLogPrefix(), step);
+
+                // Record this in sheet->score bench, from first unit start
+                final long stop = System.currentTimeMillis();
+                final long start = times.get(i);
+                sheet.getBench().recordStep(
+                        step,
+                        (start != 0) ? (stop - start) : 0);
+
+                if (start != 0) {
+                    Metrics.record("step", step.getName(),
+                            (stop - start) * 1000000);
+                }
+            }
+        } finally {
+            sheet.setCurrentStep(null);
+            Stepping.notifyStep(sheet, last); // Stop
+        }
+    }
+
+    //--------//
+    // launch //
+    //--------//
+    /**
+     * Submit the provided unit, and chain its successor upon
+     * completion.
+     */
+    private void launch (final ExecutorService executor,
+                         final SystemInfo system,
+                         final int index)
+    {
+        final AbstractSystemStep step = steps.get(index);
+
+        try {
+            executor.execute(
+                    ConstantContext.wrap(
+                    new Runnable()
+            {
+                @Override
+                public void run ()
+                {
+                    try {
+                        if (failure == null) {
+                            times.compareAndSet(
+                                    index,
+                                    0,
+                                    System.currentTimeMillis());
+                            logger.debug("{} doSystem #{}",
+                                    step,
+                                    system.idString());
+                            step.doMeasuredSystem(system);
+                        }
+                    } catch (Throwable ex) {
+                        // As with barriers, other units are not impacted
+                        logger.warn(sheet.getLogPrefix()
+                                    + "Interrupt on "
+                                    + system.idString(),
+                                ex);
+                    } finally {
+                        remaining.countDown();
+                    }
+
+                    // Unit done, the same system can go on with next step
+                    if ((index + 1) < steps.size()) {
+                        launch(executor, system, index + 1);
+                    }
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            // Executor is being shut down, skip the remaining units
+            failure = ex;
+
+            for (int i = index; i < steps.size(); i++) {
+                remaining.countDown();
+            }
+        }
+    }
+
+    //--------------//
+    // processUnits //
+    //--------------//
+    /**
+     * Launch the first step on all systems, each unit triggering the
+     * next unit of the same system, and wait for all units completion.
+     */
+    private void processUnits ()
+    {
+        final ExecutorService executor = OmrExecutors.getLowExecutor();
+        final List<SystemInfo> list = new ArrayList<>(systems);
+        remaining = new CountDownLatch(list.size() * steps.size());
+
+        for (SystemInfo system : list) {
+            launch(executor, system, 0);
+        }
+
+        try {
+            OmrExecutors.await(remaining);
+        } catch (InterruptedException ex) {
+            logger.warn("StepScheduler got interrupted");
+            throw new ProcessingCancellationException(ex);
+        }
+
+        if (failure != null) {
+            logger.warn("Exception raised in StepScheduler", failure);
+            throw new ProcessingCancellationException(failure);
+        }
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useStepScheduler = new Constant.Boolean(
+                true,
+                "Should consecutive system steps overlap system per system?");
+
+    }
+}
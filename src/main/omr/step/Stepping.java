@@ -11,6 +11,10 @@
 // </editor-fold>
 package omr.step;
 
+import omr.constant.Constant;
+import omr.constant.ConstantContext;
+import omr.constant.ConstantSet;
+
 import omr.score.Score;
 import omr.score.entity.Page;
 import omr.score.ui.ScoreActions;
@@ -22,6 +26,7 @@ import omr.sheet.SystemInfo;
 import omr.sheet.ui.SheetsController;
 import static omr.step.Steps.*;
 
+import omr.util.Metrics;
 import omr.util.OmrExecutors;
 import omr.util.TreeNode;
 
@@ -37,7 +42,6 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
-import java.util.concurrent.Future;
 
 import javax.swing.SwingUtilities;
 
@@ -52,6 +56,9 @@ public class Stepping
 {
     //~ Static fields/initializers ---------------------------------------------
 
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
     /** Usual logger utility */
     private static final Logger logger = LoggerFactory.getLogger(Stepping.class);
 
@@ -97,14 +104,17 @@ public class Stepping
                                         Collection<SystemInfo> systems)
             throws StepException
     {
-        long startTime = System.currentTimeMillis();
+        // Step may spread over several threads: elapsed time only
+        final long start = System.nanoTime();
         logger.debug("{}{} starting", sheet.getLogPrefix(), step);
 
         // Standard processing on an existing sheet
         step.doStep(systems, sheet);
 
-        final long stopTime = System.currentTimeMillis();
-        final long duration = stopTime - startTime;
+        final long nanos = System.nanoTime() - start;
+        Metrics.record("step", step.getName(), nanos);
+
+        final long duration = nanos / 1000000;
         logger.debug("{}{} completed in {} ms",
                 sheet.getLogPrefix(), step, duration);
 
@@ -117,17 +127,20 @@ public class Stepping
     //------------------------//
     /**
      * Report the latest mandatory step done so far with the related sheet.
+     * LOAD may still be pending, since the sheet picture is loaded only on
+     * demand (and is not needed when SCALE data is restored from checkpoint).
      *
      * @return the latest mandatory step done, or null
      */
     public static Step getLatestMandatoryStep (Sheet sheet)
     {
+        final Step loadStep = Steps.valueOf(Steps.LOAD);
         Step latest = null;
 
         for (Step step : Steps.values()) {
             if (step.isMandatory() && step.isDone(sheet)) {
                 latest = step;
-            } else {
+            } else if (step != loadStep) {
                 break;
             }
         }
@@ -381,6 +394,12 @@ public class Stepping
         // Rebuild from specified step, if needed
         Step latest = getLatestMandatoryStep(sheet);
 
+        // GRID needs the whole runs table, which may have been released
+        if ((step == Steps.valueOf(Steps.GRID))
+            && (sheet.getWholeVerticalTable() == null)) {
+            step = Steps.valueOf(Steps.SCALE);
+        }
+
         // Avoid SCORE step?
         Step scoreStep = Steps.valueOf(Steps.SCORE);
         if (!merge && latest == scoreStep) {
@@ -400,6 +419,8 @@ public class Stepping
             } catch (Exception ex) {
                 logger.warn("Error in re-processing from " + step, ex);
             } finally {
+                sheet.getScore()
+                        .removeDiscardedPages();
                 notifyStop();
             }
         }
@@ -420,15 +441,18 @@ public class Stepping
                                         final Score score)
             throws StepException
     {
-        long startTime = System.currentTimeMillis();
+        // Step may spread over several threads: elapsed time only
+        final long start = System.nanoTime();
         logger.debug("{} Starting", step);
 
         // Standard processing (using first sheet)
         Sheet sheet = score.getFirstPage().getSheet();
         step.doStep(null, sheet);
 
-        final long stopTime = System.currentTimeMillis();
-        final long duration = stopTime - startTime;
+        final long nanos = System.nanoTime() - start;
+        Metrics.record("step", step.getName(), nanos);
+
+        final long duration = nanos / 1000000;
         logger.debug("{} completed in {} ms", step, duration);
 
         // Record this in score bench
@@ -443,7 +467,12 @@ public class Stepping
      * progress monitor.
      *
      * <p>We can perform all the pages in parallel or in sequence, depending on
-     * the value of constant 'pagesInParallel'.</p>
+     * the use of parallelism. In parallel, no more than maxPagesInFlight
+     * pages are submitted at the same time, the next page being submitted
+     * when one is over.</p>
+     *
+     * <p>Pages discarded meanwhile are removed from the score only once all
+     * pages are over.</p>
      *
      * @param stepSet the set of steps
      * @param score   the score to be processed
@@ -465,12 +494,10 @@ public class Stepping
                     {
                         @Override
                         public Void call ()
-                                throws StepException
+                                throws Exception
                         {
-                            doSheetStepSet(
-                                    stepSet,
-                                    page.getSheet(),
-                                    null);
+                            doSheetStepSet(stepSet, page.getSheet(), null);
+                            release(page.getSheet());
 
                             return null;
                         }
@@ -478,8 +505,11 @@ public class Stepping
                 }
 
                 try {
-                    List<Future<Void>> futures = OmrExecutors.
-                            getCachedLowExecutor().invokeAll(tasks);
+                    // Limit the number of pages in progress
+                    OmrExecutors.invokeBounded(
+                            OmrExecutors.getLowExecutor(),
+                            ConstantContext.wrapAll(tasks),
+                            getMaxPagesInFlight());
                 } catch (InterruptedException ex) {
                     logger.warn("Error in parallel doScoreStepSet", ex);
                 }
@@ -489,12 +519,15 @@ public class Stepping
                     Page page = (Page) pn;
 
                     doSheetStepSet(stepSet, page.getSheet(), null);
+                    release(page.getSheet());
                 }
             }
         } else {
             // Process the single sheet
             doSheetStepSet(stepSet, score.getFirstPage().getSheet(), null);
         }
+
+        score.removeDiscardedPages();
     }
 
     //----------------//
@@ -515,9 +548,28 @@ public class Stepping
                                         Collection<SystemInfo> systems)
     {
         try {
-            for (Step step : stepSet) {
-                notifyMsg(sheet.getLogPrefix() + step);
-                doOneSheetStep(step, sheet, systems);
+            final List<Step> steps = new ArrayList<>(stepSet);
+
+            for (int i = 0; i < steps.size();) {
+                final int end = StepScheduler.getPipelineEnd(steps, i);
+
+                if (end == (i + 1)) {
+                    Step step = steps.get(i);
+                    notifyMsg(sheet.getLogPrefix() + step);
+                    doOneSheetStep(step, sheet, systems);
+                } else {
+                    // Overlapping system steps
+                    List<AbstractSystemStep> pipe = new ArrayList<>();
+
+                    for (Step step : steps.subList(i, end)) {
+                        notifyMsg(sheet.getLogPrefix() + step);
+                        pipe.add((AbstractSystemStep) step);
+                    }
+
+                    new StepScheduler(sheet, systems, pipe).run();
+                }
+
+                i = end;
             }
         } catch (StepException se) {
             logger.info("{}Processing stopped. {}",
@@ -572,6 +624,38 @@ public class Stepping
         }
     }
 
+    //---------------------//
+    // getMaxPagesInFlight //
+    //---------------------//
+    /**
+     * Report the maximum number of pages processed at the same time.
+     *
+     * @return the maxPagesInFlight constant if positive, the pool parallelism
+     *         otherwise
+     */
+    private static int getMaxPagesInFlight ()
+    {
+        final int max = constants.maxPagesInFlight.getValue();
+
+        return (max > 0) ? max : OmrExecutors.getParallelism();
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Release the heavy data of a sheet, once it has been translated
+     * into score entities.
+     *
+     * @param sheet the processed sheet
+     */
+    private static void release (Sheet sheet)
+    {
+        if (sheet.isDone(Steps.valueOf(Steps.PAGES))) {
+            sheet.releaseRuns();
+        }
+    }
+
     //----------------------//
     // scheduleScoreStepSet //
     //----------------------//
@@ -599,10 +683,13 @@ public class Stepping
 
         try {
             // SCALE step, if present, is always the first step
-            // We perform this step on all sheets, to allow early filtering
+            // Unless pages are pipelined, we perform this step on all sheets,
+            // to allow early filtering
             Step scaleStep = Steps.valueOf(Steps.SCALE);
+            boolean pipelined = score.isMultiPage()
+                                && constants.pipelinePages.isSet();
 
-            if (stepSet.contains(scaleStep)) {
+            if (stepSet.contains(scaleStep) && !pipelined) {
                 SortedSet<Step> single = new TreeSet<>(comparator);
                 single.add(scaleStep);
                 stepSet.remove(scaleStep);
@@ -653,4 +740,26 @@ public class Stepping
         long stopTime = System.currentTimeMillis();
         logger.debug("End of step set in {} ms.", (stopTime - startTime));
     }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean pipelinePages = new Constant.Boolean(
+                true,
+                "Should each page go through all its steps independently of the other pages?");
+
+        //
+        Constant.Integer maxPagesInFlight = new Constant.Integer(
+                "pages",
+                0,
+                "Maximum number of pages processed at the same time (0 for pool parallelism)");
+
+    }
 }
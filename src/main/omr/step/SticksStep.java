@@ -69,6 +69,20 @@ public class SticksStep
                 .addCheckBoard();
     }
 
+    //-------------//
+    // isPipelined //
+    //-------------//
+    /**
+     * Sticks of a system depend only on the texts of this system.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isPipelined ()
+    {
+        return true;
+    }
+
     //----------//
     // doSystem //
     //----------//
@@ -14,6 +14,7 @@ package omr.step;
 import omr.constant.Constant;
 import omr.constant.ConstantSet;
 
+import omr.glyph.pattern.PatternsChecker;
 import omr.glyph.ui.SymbolsEditor;
 
 import omr.score.entity.ScoreSystem;
@@ -92,6 +93,21 @@ public class SymbolsStep
         }
     }
 
+    //-------------//
+    // isPipelined //
+    //-------------//
+    /**
+     * Symbols of a system depend only on the sticks of this system, the
+     * verticals controller created by STICKS epilog is used by the UI only.
+     *
+     * @return true
+     */
+    @Override
+    public boolean isPipelined ()
+    {
+        return true;
+    }
+
     //----------//
     // doSystem //
     //----------//
@@ -114,16 +130,20 @@ public class SymbolsStep
             }
         }
 
-        // Iterate
+        // Iterate, with the same checker to gather patterns statistics
+        PatternsChecker checker = new PatternsChecker(system);
+
         for (int iter = 1; iter <= constants.MaxPatternsIterations.getValue();
                 iter++) {
             logger.debug("System#{} patterns iter #{}", system.getId(), iter);
             clearSystemErrors(system);
 
-            if (!system.runPatterns()) {
-                return; // No more progress made
+            if (!checker.runPatterns()) {
+                break; // No more progress made
             }
         }
+
+        checker.printStatistics();
     }
 
     //~ Inner Classes ----------------------------------------------------------
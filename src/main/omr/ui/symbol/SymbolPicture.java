@@ -70,6 +70,20 @@ public class SymbolPicture
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-----------//
+    // getColumn //
+    //-----------//
+    @Override
+    public void getColumn (int x,
+                           int yMin,
+                           int yMax,
+                           int[] levels)
+    {
+        for (int y = yMin; y <= yMax; y++) {
+            levels[y] = getPixel(x, y);
+        }
+    }
+
     //------------//
     // getContext //
     //------------//
@@ -80,6 +94,40 @@ public class SymbolPicture
         return new Context(maxForeground);
     }
 
+    //---------------//
+    // getForeColumn //
+    //---------------//
+    @Override
+    public void getForeColumn (int x,
+                               int yMin,
+                               int yMax,
+                               int[] levels,
+                               boolean[] fores)
+    {
+        getColumn(x, yMin, yMax, levels);
+
+        for (int y = yMin; y <= yMax; y++) {
+            fores[y] = levels[y] <= maxForeground;
+        }
+    }
+
+    //------------//
+    // getForeRow //
+    //------------//
+    @Override
+    public void getForeRow (int y,
+                            int xMin,
+                            int xMax,
+                            int[] levels,
+                            boolean[] fores)
+    {
+        getRow(y, xMin, xMax, levels);
+
+        for (int x = xMin; x <= xMax; x++) {
+            fores[x] = levels[x] <= maxForeground;
+        }
+    }
+
     //-----------//
     // getHeight //
     //-----------//
@@ -105,6 +153,20 @@ public class SymbolPicture
         return 255 - (elem >>> 24);
     }
 
+    //--------//
+    // getRow //
+    //--------//
+    @Override
+    public void getRow (int y,
+                        int xMin,
+                        int xMax,
+                        int[] levels)
+    {
+        for (int x = xMin; x <= xMax; x++) {
+            levels[x] = getPixel(x, y);
+        }
+    }
+
     //----------//
     // getWidth //
     //----------//
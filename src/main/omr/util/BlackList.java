@@ -46,7 +46,7 @@ public class BlackList
     private static final Logger logger = LoggerFactory.getLogger(BlackList.class);
 
     /** Name of the specific file where blacklist is kept */
-    protected static final String BLACK_LIST_NAME = ".glyphignore";
+    public static final String BLACK_LIST_NAME = ".glyphignore";
 
     //~ Instance fields --------------------------------------------------------
     /** Set of black listed file names */
@@ -255,6 +255,9 @@ public class BlackList
             }
         }
 
+        // Rewriting the black list does not change the date of its directory
+        dir.setLastModified(System.currentTimeMillis());
+
         if (logger.isDebugEnabled()) {
             dump();
         }
@@ -0,0 +1,202 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          B o u n d e d C a c h e                           //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class {@code BoundedCache} is a concurrent map of limited size, meant
+ * to remember the results of costly computations.
+ *
+ * <p>When the cache is full, arbitrary entries are evicted to make room for
+ * the new ones. Hits and misses are counted, and also reported to
+ * {@link Metrics} as "cache_hits" and "cache_misses" under the cache name.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ *
+ * @author Hervé Bitteur
+ */
+@ThreadSafe
+public class BoundedCache<K, V>
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Cache name, for metrics. */
+    private final String name;
+
+    /** Maximum number of entries. */
+    private final int maxSize;
+
+    /** The cached entries. */
+    private final ConcurrentHashMap<K, V> map = new ConcurrentHashMap<>();
+
+    /** Number of successful lookups. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Number of failed lookups. */
+    private final AtomicLong misses = new AtomicLong();
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //--------------//
+    // BoundedCache //
+    //--------------//
+    /**
+     * Creates a new BoundedCache object.
+     *
+     * @param name    the cache name
+     * @param maxSize the maximum number of entries
+     */
+    public BoundedCache (String name,
+                         int maxSize)
+    {
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------//
+    // clear //
+    //-------//
+    /**
+     * Forget all entries, typically because the cached computation has
+     * changed. Statistics are kept.
+     */
+    public void clear ()
+    {
+        map.clear();
+    }
+
+    //-----//
+    // get //
+    //-----//
+    /**
+     * Report the value cached for the provided key.
+     *
+     * @param key the key to look up
+     * @return the cached value, or null if not found
+     */
+    public V get (K key)
+    {
+        final V value = map.get(key);
+
+        if (value != null) {
+            hits.incrementAndGet();
+            Metrics.count("cache_hits", name, 1);
+        } else {
+            misses.incrementAndGet();
+            Metrics.count("cache_misses", name, 1);
+        }
+
+        return value;
+    }
+
+    //---------//
+    // getHits //
+    //---------//
+    /**
+     * Report the number of successful lookups so far.
+     *
+     * @return the count of hits
+     */
+    public long getHits ()
+    {
+        return hits.get();
+    }
+
+    //------------//
+    // getHitRate //
+    //------------//
+    /**
+     * Report the ratio of successful lookups so far.
+     *
+     * @return the hit rate, in [0..1], 0 if no lookup was made
+     */
+    public double getHitRate ()
+    {
+        final long h = hits.get();
+        final long total = h + misses.get();
+
+        return (total == 0) ? 0 : ((double) h / total);
+    }
+
+    //-----------//
+    // getMisses //
+    //-----------//
+    /**
+     * Report the number of failed lookups so far.
+     *
+     * @return the count of misses
+     */
+    public long getMisses ()
+    {
+        return misses.get();
+    }
+
+    //-----//
+    // put //
+    //-----//
+    /**
+     * Cache a value, evicting some arbitrary entry if the cache is full.
+     *
+     * @param key   the entry key
+     * @param value the entry value, not null
+     */
+    public void put (K key,
+                     V value)
+    {
+        if (map.size() >= maxSize) {
+            Iterator<K> it = map.keySet()
+                    .iterator();
+
+            while (it.hasNext() && (map.size() >= maxSize)) {
+                it.next();
+                it.remove();
+            }
+        }
+
+        map.put(key, value);
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the current number of entries.
+     *
+     * @return the cache size
+     */
+    public int size ()
+    {
+        return map.size();
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return String.format(
+                "{Cache %s size:%d hits:%d misses:%d}",
+                name,
+                map.size(),
+                hits.get(),
+                misses.get());
+    }
+}
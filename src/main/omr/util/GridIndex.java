@@ -0,0 +1,279 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                             G r i d I n d e x                              //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class {@code GridIndex} is a spatial index of items, based on a grid
+ * of square cells.
+ *
+ * <p>Each item is registered with a rectangle (generally its bounding box)
+ * in every cell this rectangle overlaps.
+ * A rectangle lookup thus browses only the cells overlapped by the
+ * rectangle, rather than the whole population of items.
+ * Only non-empty cells are allocated, so the covered area is not limited.
+ *
+ * <p>The lookup reports the items whose <b>registered</b> rectangle
+ * intersects the provided one.
+ * This is meant as a first filter, the caller being in charge of any more
+ * precise check (containment, polygon intersection, ...).
+ *
+ * @param <T> type of indexed items
+ *
+ * @author Hervé Bitteur
+ */
+@NotThreadSafe
+public class GridIndex<T>
+{
+    //~ Instance fields --------------------------------------------------------
+
+    /** Side of each square cell. */
+    private final int cellSize;
+
+    /** Non-empty cells, keyed by cell row and column. */
+    private final Map<Long, List<T>> cells = new HashMap<>();
+
+    /** Registered rectangle of each item. */
+    private final Map<T, Rectangle> boxes = new IdentityHashMap<>();
+
+    /** Area covered by all items registered so far, if any. */
+    private Rectangle extent;
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    //-----------//
+    // GridIndex //
+    //-----------//
+    /**
+     * Creates a new GridIndex object.
+     *
+     * @param cellSize the side of each cell, a positive value
+     */
+    public GridIndex (int cellSize)
+    {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Illegal grid cell size: " + cellSize);
+        }
+
+        this.cellSize = cellSize;
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------//
+    // clear //
+    //-------//
+    /**
+     * Remove all items from the index.
+     */
+    public void clear ()
+    {
+        cells.clear();
+        boxes.clear();
+        extent = null;
+    }
+
+    //--------//
+    // getBox //
+    //--------//
+    /**
+     * Report the rectangle an item was registered with.
+     *
+     * @param item the registered item
+     * @return a copy of the registered rectangle, or null if the item is not
+     *         registered
+     */
+    public Rectangle getBox (T item)
+    {
+        Rectangle box = boxes.get(item);
+
+        return (box != null) ? new Rectangle(box) : null;
+    }
+
+    //--------//
+    // insert //
+    //--------//
+    /**
+     * Register an item with its rectangle.
+     * If the item was already registered, its former rectangle is replaced.
+     *
+     * @param item the item to register
+     * @param box  the item rectangle, which is copied
+     */
+    public void insert (T item,
+                        Rectangle box)
+    {
+        remove(item);
+
+        Rectangle copy = new Rectangle(box);
+        boxes.put(item, copy);
+
+        if (extent == null) {
+            extent = new Rectangle(copy);
+        } else {
+            extent.add(copy);
+        }
+
+        final int colMax = cellOf(copy.x + Math.max(0, copy.width - 1));
+        final int rowMax = cellOf(copy.y + Math.max(0, copy.height - 1));
+
+        for (int row = cellOf(copy.y); row <= rowMax; row++) {
+            for (int col = cellOf(copy.x); col <= colMax; col++) {
+                Long key = keyOf(col, row);
+                List<T> cell = cells.get(key);
+
+                if (cell == null) {
+                    cells.put(key, cell = new ArrayList<>());
+                }
+
+                cell.add(item);
+            }
+        }
+    }
+
+    //--------//
+    // lookup //
+    //--------//
+    /**
+     * Report the items whose registered rectangle intersects the
+     * provided rectangle.
+     *
+     * @param rect the rectangle to look up
+     * @return the items found, in no particular order, perhaps empty
+     */
+    public List<T> lookup (Rectangle rect)
+    {
+        List<T> found = new ArrayList<>();
+
+        if (rect.isEmpty() || boxes.isEmpty()) {
+            return found;
+        }
+
+        // Avoid browsing cells beyond the items extent
+        final Rectangle inter = rect.intersection(extent);
+
+        if (inter.isEmpty()) {
+            return found;
+        }
+
+        final Set<T> seen = Collections.newSetFromMap(
+                new IdentityHashMap<T, Boolean>());
+        final int colMax = cellOf((inter.x + inter.width) - 1);
+        final int rowMax = cellOf((inter.y + inter.height) - 1);
+
+        for (int row = cellOf(inter.y); row <= rowMax; row++) {
+            for (int col = cellOf(inter.x); col <= colMax; col++) {
+                List<T> cell = cells.get(keyOf(col, row));
+
+                if (cell == null) {
+                    continue;
+                }
+
+                for (T item : cell) {
+                    if (seen.add(item) && boxes.get(item)
+                            .intersects(rect)) {
+                        found.add(item);
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    //--------//
+    // remove //
+    //--------//
+    /**
+     * Unregister an item.
+     *
+     * @param item the item to remove
+     * @return true if the item was actually registered
+     */
+    public boolean remove (T item)
+    {
+        Rectangle box = boxes.remove(item);
+
+        if (box == null) {
+            return false;
+        }
+
+        final int colMax = cellOf(box.x + Math.max(0, box.width - 1));
+        final int rowMax = cellOf(box.y + Math.max(0, box.height - 1));
+
+        for (int row = cellOf(box.y); row <= rowMax; row++) {
+            for (int col = cellOf(box.x); col <= colMax; col++) {
+                Long key = keyOf(col, row);
+                List<T> cell = cells.get(key);
+
+                if (cell != null) {
+                    for (int i = cell.size() - 1; i >= 0; i--) {
+                        if (cell.get(i) == item) {
+                            cell.remove(i);
+
+                            break;
+                        }
+                    }
+
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    //------//
+    // size //
+    //------//
+    /**
+     * Report the number of registered items.
+     *
+     * @return the item count
+     */
+    public int size ()
+    {
+        return boxes.size();
+    }
+
+    //--------//
+    // cellOf //
+    //--------//
+    private int cellOf (int coord)
+    {
+        // Round toward negative infinity
+        return (coord >= 0) ? (coord / cellSize)
+                : (((coord + 1) / cellSize) - 1);
+    }
+
+    //-------//
+    // keyOf //
+    //-------//
+    private static Long keyOf (int col,
+                              int row)
+    {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,587 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                               M e t r i c s                                //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+import omr.constant.Constant;
+import omr.constant.ConstantSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+/**
+ * Class {@code Metrics} gathers the application-wide processing
+ * metrics: timers (per step, per step summed over its systems, per pattern,
+ * ...) and counters (runs, sections, glyphs, evaluations, ...).
+ *
+ * <p>A timer records the number of calls, the total and maximum elapsed
+ * times. When measured by a {@link Sample}, it also records the bytes
+ * allocated by the measuring thread, when the JVM supports it.
+ * Timers and counters are identified by a kind (such as "step") and a name
+ * (such as "GRID").
+ *
+ * <p>A step may run on several threads, so "step" timers report elapsed
+ * times only. The "step_systems" timer of a system step gathers one sample
+ * per system processed, on whatever thread, so its allocated bytes are
+ * those of the whole step, while its time is the sum of the system times
+ * (which exceeds the step elapsed time when systems run in parallel).
+ *
+ * <p>Metrics can be written in Prometheus text format, to the file given by
+ * the metricsPath constant at the end of a batch, and are published as a JMX
+ * bean in server mode.
+ *
+ * @author Hervé Bitteur
+ */
+public class Metrics
+        implements MetricsMBean
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    /** Specific application parameters */
+    private static final Constants constants = new Constants();
+
+    /** Usual logger utility */
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    /** The singleton. */
+    private static final Metrics INSTANCE = new Metrics();
+
+    /** Name of the JMX bean. */
+    public static final String MBEAN_NAME = "omr:type=Metrics";
+
+    /** Prefix of metric names. */
+    private static final String PREFIX = "omr_";
+
+    /** Source of per-thread allocated bytes, if available. */
+    private static final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+
+    //~ Instance fields --------------------------------------------------------
+    //
+    /** Timers, indexed by kind then name. */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    /** Counters, indexed by kind then name. */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, AtomicLong>> counters = new ConcurrentHashMap<>();
+
+    //~ Constructors -----------------------------------------------------------
+    //
+    /**
+     * Not meant to be instantiated.
+     */
+    private Metrics ()
+    {
+    }
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------//
+    // count //
+    //-------//
+    /**
+     * Increment a counter.
+     *
+     * @param kind  the counter kind, such as "glyphs"
+     * @param name  the counter name, such as a step name, or null
+     * @param delta the increment
+     */
+    public static void count (String kind,
+                              String name,
+                              long delta)
+    {
+        if (isEnabled()) {
+            INSTANCE.getCounter(kind, name)
+                    .addAndGet(delta);
+        }
+    }
+
+    //-------------//
+    // getInstance //
+    //-------------//
+    /**
+     * Report the single instance of this class.
+     *
+     * @return the metrics singleton
+     */
+    public static Metrics getInstance ()
+    {
+        return INSTANCE;
+    }
+
+    //-----------//
+    // isEnabled //
+    //-----------//
+    /**
+     * Report whether metrics are collected.
+     *
+     * @return true if collected
+     */
+    public static boolean isEnabled ()
+    {
+        return constants.useMetrics.isSet();
+    }
+
+    //----------//
+    // register //
+    //----------//
+    /**
+     * Register the metrics as a JMX bean, under {@link #MBEAN_NAME}.
+     */
+    public static void register ()
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(INSTANCE, new ObjectName(MBEAN_NAME));
+        } catch (Exception ex) {
+            logger.warn("Could not register metrics bean", ex);
+        }
+    }
+
+    //--------//
+    // record //
+    //--------//
+    /**
+     * Record an elapsed time measured by the caller, for a
+     * processing which may have spanned several threads.
+     * No allocated bytes are reported for such a timer.
+     *
+     * @param kind  the timer kind, such as "step"
+     * @param name  the timer name, such as "GRID"
+     * @param nanos the elapsed time, in nanoseconds
+     */
+    public static void record (String kind,
+                               String name,
+                               long nanos)
+    {
+        if (isEnabled()) {
+            INSTANCE.getTimer(kind, name)
+                    .add(nanos);
+        }
+    }
+
+    //-------//
+    // start //
+    //-------//
+    /**
+     * Start a measurement on the current thread.
+     *
+     * @return the measurement to be stopped
+     */
+    public static Sample start ()
+    {
+        return new Sample();
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Write the metrics to the file defined by the metricsPath
+     * constant, if any.
+     */
+    public static void store ()
+    {
+        final String path = constants.metricsPath.getValue()
+                .trim();
+
+        if (!isEnabled() || path.isEmpty()) {
+            return;
+        }
+
+        final File file = new File(path);
+
+        if (file.getParentFile() != null) {
+            file.getParentFile()
+                    .mkdirs();
+        }
+
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(file),
+                StandardCharsets.UTF_8)) {
+            INSTANCE.write(writer);
+            logger.info("Metrics stored in {}", file);
+        } catch (IOException ex) {
+            logger.warn("Could not store metrics in " + file, ex);
+        }
+    }
+
+    //-----------------//
+    // getCounterValue //
+    //-----------------//
+    @Override
+    public long getCounterValue (String kind,
+                                 String name)
+    {
+        final Map<String, AtomicLong> map = counters.get(kind);
+        final AtomicLong counter = (map != null) ? map.get(key(name)) : null;
+
+        return (counter != null) ? counter.get() : 0;
+    }
+
+    //---------//
+    // getText //
+    //---------//
+    @Override
+    public String getText ()
+    {
+        StringWriter writer = new StringWriter();
+
+        try {
+            write(writer);
+        } catch (IOException ex) {
+            // Cannot occur with a StringWriter
+        }
+
+        return writer.toString();
+    }
+
+    //-------------//
+    // getTimeSecs //
+    //-------------//
+    @Override
+    public double getTimeSecs (String kind,
+                               String name)
+    {
+        final Map<String, Timer> map = timers.get(kind);
+        final Timer timer = (map != null) ? map.get(key(name)) : null;
+
+        return (timer != null) ? (timer.nanos.get() / 1e9) : 0;
+    }
+
+    //-------//
+    // reset //
+    //-------//
+    @Override
+    public void reset ()
+    {
+        timers.clear();
+        counters.clear();
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write all metrics in Prometheus text format, one line per
+     * value, sorted by kind and name.
+     *
+     * @param writer the output to write to
+     * @throws IOException if writing failed
+     */
+    public void write (Writer writer)
+            throws IOException
+    {
+        final PrintWriter out = new PrintWriter(writer);
+
+        for (Map.Entry<String, SortedMap<String, Timer>> entry : sorted(
+                timers).entrySet()) {
+            final String metric = PREFIX + entry.getKey();
+            final SortedMap<String, Timer> map = entry.getValue();
+
+            // Each series is written as a whole, after its type
+            out.printf("# TYPE %s_calls_total counter%n", metric);
+
+            for (Map.Entry<String, Timer> e : map.entrySet()) {
+                out.printf(
+                        "%s_calls_total%s %d%n",
+                        metric,
+                        label(e.getKey()),
+                        e.getValue().calls.get());
+            }
+
+            out.printf("# TYPE %s_seconds_total counter%n", metric);
+
+            for (Map.Entry<String, Timer> e : map.entrySet()) {
+                out.printf(
+                        Locale.US,
+                        "%s_seconds_total%s %.6f%n",
+                        metric,
+                        label(e.getKey()),
+                        e.getValue().nanos.get() / 1e9);
+            }
+
+            out.printf("# TYPE %s_seconds_max gauge%n", metric);
+
+            for (Map.Entry<String, Timer> e : map.entrySet()) {
+                out.printf(
+                        Locale.US,
+                        "%s_seconds_max%s %.6f%n",
+                        metric,
+                        label(e.getKey()),
+                        e.getValue().maxNanos.get() / 1e9);
+            }
+
+            // Allocated bytes, only for the timers measured by samples
+            boolean typed = false;
+
+            for (Map.Entry<String, Timer> e : map.entrySet()) {
+                if ((threadBean != null) && e.getValue().sampled) {
+                    if (!typed) {
+                        out.printf(
+                                "# TYPE %s_allocated_bytes_total counter%n",
+                                metric);
+                        typed = true;
+                    }
+
+                    out.printf(
+                            "%s_allocated_bytes_total%s %d%n",
+                            metric,
+                            label(e.getKey()),
+                            e.getValue().bytes.get());
+                }
+            }
+        }
+
+        for (Map.Entry<String, SortedMap<String, AtomicLong>> entry : sorted(
+                counters).entrySet()) {
+            final String metric = PREFIX + entry.getKey() + "_total";
+            out.printf("# TYPE %s counter%n", metric);
+
+            for (Map.Entry<String, AtomicLong> e : entry.getValue()
+                    .entrySet()) {
+                out.printf("%s%s %d%n", metric, label(e.getKey()), e.getValue().get());
+            }
+        }
+
+        out.flush();
+    }
+
+    //----------------//
+    // allocatedBytes //
+    //----------------//
+    /**
+     * Report the bytes allocated so far by the current thread.
+     *
+     * @return the allocated bytes, or 0 if not available
+     */
+    private static long allocatedBytes ()
+    {
+        return (threadBean != null) ? threadBean.getThreadAllocatedBytes(
+                Thread.currentThread().getId()) : 0;
+    }
+
+    //---------------//
+    // getThreadBean //
+    //---------------//
+    private static com.sun.management.ThreadMXBean getThreadBean ()
+    {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+
+                if (sunBean.isThreadAllocatedMemorySupported()) {
+                    sunBean.setThreadAllocatedMemoryEnabled(true);
+
+                    return sunBean;
+                }
+            }
+        } catch (Throwable ex) {
+            logger.debug("No thread allocated memory", ex);
+        }
+
+        return null;
+    }
+
+    //-----//
+    // key //
+    //-----//
+    private static String key (String name)
+    {
+        return (name != null) ? name : "";
+    }
+
+    //-------//
+    // label //
+    //-------//
+    private static String label (String key)
+    {
+        return key.isEmpty() ? "" : ("{name=\"" + key + "\"}");
+    }
+
+    //--------//
+    // sorted //
+    //--------//
+    private static <T> SortedMap<String, SortedMap<String, T>> sorted (Map<String, ConcurrentHashMap<String, T>> map)
+    {
+        SortedMap<String, SortedMap<String, T>> result = new TreeMap<>();
+
+        for (Map.Entry<String, ConcurrentHashMap<String, T>> entry : map.entrySet()) {
+            result.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+        }
+
+        return result;
+    }
+
+    //------------//
+    // getCounter //
+    //------------//
+    private AtomicLong getCounter (String kind,
+                                   String name)
+    {
+        ConcurrentHashMap<String, AtomicLong> map = counters.get(kind);
+
+        if (map == null) {
+            counters.putIfAbsent(
+                    kind,
+                    new ConcurrentHashMap<String, AtomicLong>());
+            map = counters.get(kind);
+        }
+
+        AtomicLong counter = map.get(key(name));
+
+        if (counter == null) {
+            map.putIfAbsent(key(name), new AtomicLong());
+            counter = map.get(key(name));
+        }
+
+        return counter;
+    }
+
+    //----------//
+    // getTimer //
+    //----------//
+    private Timer getTimer (String kind,
+                            String name)
+    {
+        ConcurrentHashMap<String, Timer> map = timers.get(kind);
+
+        if (map == null) {
+            timers.putIfAbsent(kind, new ConcurrentHashMap<String, Timer>());
+            map = timers.get(kind);
+        }
+
+        Timer timer = map.get(key(name));
+
+        if (timer == null) {
+            map.putIfAbsent(key(name), new Timer());
+            timer = map.get(key(name));
+        }
+
+        return timer;
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //--------//
+    // Sample //
+    //--------//
+    /**
+     * One measurement, started and stopped on the same thread.
+     */
+    public static class Sample
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final long startNanos = System.nanoTime();
+
+        private final long startBytes = allocatedBytes();
+
+        //~ Methods ------------------------------------------------------------
+        /**
+         * Stop the measurement and record it in the related timer.
+         *
+         * @param kind the timer kind, such as "step"
+         * @param name the timer name, such as "GRID"
+         * @return the elapsed time, in nanoseconds
+         */
+        public long stop (String kind,
+                          String name)
+        {
+            final long nanos = System.nanoTime() - startNanos;
+
+            if (isEnabled()) {
+                INSTANCE.getTimer(kind, name)
+                        .add(nanos, allocatedBytes() - startBytes);
+            }
+
+            return nanos;
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Boolean useMetrics = new Constant.Boolean(
+                true,
+                "Should we collect processing metrics?");
+
+        //
+        Constant.String metricsPath = new Constant.String(
+                "",
+                "File where metrics are written at end of batch (empty for none)");
+
+    }
+
+    //-------//
+    // Timer //
+    //-------//
+    private static class Timer
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        final AtomicLong calls = new AtomicLong();
+
+        final AtomicLong nanos = new AtomicLong();
+
+        final AtomicLong maxNanos = new AtomicLong();
+
+        final AtomicLong bytes = new AtomicLong();
+
+        /** Set when measured by samples, hence with allocated bytes. */
+        volatile boolean sampled;
+
+        //~ Methods ------------------------------------------------------------
+        void add (long nanos,
+                  long bytes)
+        {
+            sampled = true;
+            this.bytes.addAndGet(bytes);
+            add(nanos);
+        }
+
+        void add (long nanos)
+        {
+            this.calls.incrementAndGet();
+            this.nanos.addAndGet(nanos);
+
+            for (long max; nanos > (max = maxNanos.get());) {
+                if (maxNanos.compareAndSet(max, nanos)) {
+                    break;
+                }
+            }
+        }
+    }
+}
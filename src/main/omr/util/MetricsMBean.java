@@ -0,0 +1,54 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                          M e t r i c s M B e a n                           //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+/**
+ * Interface {@code MetricsMBean} is the JMX view on {@link Metrics}.
+ *
+ * @author Hervé Bitteur
+ */
+public interface MetricsMBean
+{
+    //~ Methods ----------------------------------------------------------------
+
+    /**
+     * Report the current value of a counter.
+     *
+     * @param kind the counter kind, such as "glyphs"
+     * @param name the counter name, or null
+     * @return the counter value, 0 if unknown
+     */
+    long getCounterValue (String kind,
+                          String name);
+
+    /**
+     * Report all metrics, in Prometheus text format.
+     *
+     * @return the metrics text
+     */
+    String getText ();
+
+    /**
+     * Report the total time recorded by a timer.
+     *
+     * @param kind the timer kind, such as "step"
+     * @param name the timer name, such as "GRID"
+     * @return the total time in seconds, 0 if unknown
+     */
+    double getTimeSecs (String kind,
+                        String name);
+
+    /**
+     * Forget all metrics recorded so far.
+     */
+    void reset ();
+}
@@ -19,10 +19,19 @@ import omr.step.ProcessingCancellationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -30,11 +39,25 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Class {@code OmrExecutors} handles several pools of threads
  * provided to the Audiveris application: <ul>
- * <li>lowExecutor: a fixed nb (#cpu+1) of threads with low priority</li>
- * <li>highExecutor: a fixed nb (#cpu+1) of threads with high priority</li>
+ * <li>lowExecutor: a work-stealing pool of threads with low priority</li>
+ * <li>highExecutor: a work-stealing pool of threads with high priority</li>
+ * <li>scoreExecutor: a fixed nb of threads with low priority, to process
+ * whole scores in submission order</li>
  * <li>cachedLowExecutor: a varying nb of threads with low priority</li>
  * </ul>
  *
+ * <p>The low and high pools are {@link ForkJoinPool} instances, whose
+ * parallelism is given by {@link #getParallelism}. A task running in such
+ * pool may safely fan out sub-tasks to the same pool and wait for them:
+ * the waiting thread is then compensated by the pool, so that the number of
+ * active threads remains at the target parallelism.
+ * Any other blocking wait within these pools should go through
+ * {@link #await}.
+ *
+ * <p>Tasks submitted on behalf of a job should be wrapped through
+ * {@link omr.constant.ConstantContext#wrap}, so that they see the constant
+ * values of that job.
+ *
  * @author Hervé Bitteur
  */
 public class OmrExecutors
@@ -71,9 +94,12 @@ public class OmrExecutors
 
     private static final Pool cachedLows = new CachedLows();
 
+    private static final Pool scores = new Scores();
+
     /** To handle all the pools as a whole */
     private static Collection<Pool> allPools = Arrays.asList(
             cachedLows,
+            scores,
             lows,
             highs);
 
@@ -89,6 +115,94 @@ public class OmrExecutors
     }
 
     //~ Methods ----------------------------------------------------------------
+    //-------//
+    // await //
+    //-------//
+    /**
+     * Wait for the provided latch to reach zero.
+     * If the current thread belongs to a work-stealing pool, the pool is
+     * notified of the blocking, and may activate another thread meanwhile.
+     *
+     * @param latch the latch to wait for
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public static void await (final CountDownLatch latch)
+            throws InterruptedException
+    {
+        ForkJoinPool.managedBlock(
+                new ForkJoinPool.ManagedBlocker()
+        {
+            @Override
+            public boolean block ()
+                    throws InterruptedException
+            {
+                latch.await();
+
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable ()
+            {
+                return latch.getCount() == 0;
+            }
+        });
+    }
+
+    //---------------//
+    // invokeBounded //
+    //---------------//
+    /**
+     * Execute the provided tasks, with no more than maxInFlight of them
+     * submitted to the pool at any time.
+     * The next task is submitted only when a submitted one is over, hence no
+     * pool thread is ever parked waiting for its turn. Only the calling
+     * thread waits, as for {@link #await}.
+     *
+     * @param <T>         the tasks result type
+     * @param pool        the pool to use
+     * @param tasks       the tasks to execute
+     * @param maxInFlight the maximum number of tasks submitted at once
+     * @return the futures, in the order of tasks, all of them completed
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    public static <T> List<Future<T>> invokeBounded (
+            ExecutorService pool,
+            List<? extends Callable<T>> tasks,
+            int maxInFlight)
+            throws InterruptedException
+    {
+        final CompletionService<T> service = new ExecutorCompletionService<>(
+                pool);
+        final List<Future<T>> futures = new ArrayList<>(tasks.size());
+        final int max = Math.max(1, maxInFlight);
+        int done = 0;
+
+        try {
+            for (Callable<T> task : tasks) {
+                if ((futures.size() - done) >= max) {
+                    take(service);
+                    done++;
+                }
+
+                futures.add(service.submit(task));
+            }
+
+            while (done < futures.size()) {
+                take(service);
+                done++;
+            }
+        } catch (InterruptedException ex) {
+            for (Future<T> future : futures) {
+                future.cancel(true);
+            }
+
+            throw ex;
+        }
+
+        return futures;
+    }
+
     //----------------------//
     // getCachedLowExecutor //
     //----------------------//
@@ -141,6 +255,43 @@ public class OmrExecutors
         return cpuCount;
     }
 
+    //----------------//
+    // getParallelism //
+    //----------------//
+    /**
+     * Report the number of threads that may be active at the same
+     * time in each pool.
+     *
+     * @return 1 if parallelism is not used, the maxParallelism constant if
+     *         positive, the number of CPUs otherwise
+     */
+    public static int getParallelism ()
+    {
+        if (!defaultParallelism.getTarget()) {
+            return 1;
+        }
+
+        final int max = constants.maxParallelism.getValue();
+
+        return (max > 0) ? max : cpuCount;
+    }
+
+    //------------------//
+    // getScoreExecutor //
+    //------------------//
+    /**
+     * Return the (single) pool of threads dedicated to whole scores.
+     * Scores are processed in submission order, and no more than
+     * maxScores of them at the same time, each score fanning its own
+     * work out to the low and high pools.
+     *
+     * @return the score pool, allocated if needed
+     */
+    public static ExecutorService getScoreExecutor ()
+    {
+        return scores.getPool();
+    }
+
     //---------//
     // restart //
     //---------//
@@ -179,6 +330,48 @@ public class OmrExecutors
         logger.debug("OmrExecutors closed");
     }
 
+    //------//
+    // take //
+    //------//
+    /**
+     * Wait for the next completed task of the provided service.
+     * As for {@link #await}, a work-stealing pool may activate another thread
+     * while the current one is blocked.
+     *
+     * @param service the completion service
+     * @throws InterruptedException if the current thread is interrupted
+     */
+    private static <T> void take (final CompletionService<T> service)
+            throws InterruptedException
+    {
+        ForkJoinPool.managedBlock(
+                new ForkJoinPool.ManagedBlocker()
+        {
+            private Future<T> future;
+
+            @Override
+            public boolean block ()
+                    throws InterruptedException
+            {
+                if (future == null) {
+                    future = service.take();
+                }
+
+                return true;
+            }
+
+            @Override
+            public boolean isReleasable ()
+            {
+                if (future == null) {
+                    future = service.poll();
+                }
+
+                return future != null;
+            }
+        });
+    }
+
     //~ Inner Classes ----------------------------------------------------------
     //------//
     // Pool //
@@ -297,6 +490,18 @@ public class OmrExecutors
                 60, //15,
                 "Time to wait for terminating tasks");
 
+        //
+        Constant.Integer maxParallelism = new Constant.Integer(
+                "threads",
+                0,
+                "Maximum number of active threads per pool (0 for CPU count)");
+
+        //
+        Constant.Integer maxScores = new Constant.Integer(
+                "scores",
+                0,
+                "Maximum number of scores processed at the same time (0 for pool parallelism)");
+
     }
 
     //
@@ -412,7 +617,7 @@ public class OmrExecutors
     //-------//
     // Highs //
     //-------//
-    /** Fixed pool with high priority */
+    /** Work-stealing pool with high priority */
     private static class Highs
             extends Pool
     {
@@ -427,16 +632,18 @@ public class OmrExecutors
         @Override
         protected ExecutorService createPool ()
         {
-            return Executors.newFixedThreadPool(
-                    defaultParallelism.getTarget() ? (cpuCount + 1) : 1,
-                    new Factory(getName(), Thread.NORM_PRIORITY, 0));
+            return new ForkJoinPool(
+                    getParallelism(),
+                    new WorkerFactory(getName(), Thread.NORM_PRIORITY),
+                    null,
+                    false);
         }
     }
 
     //------//
     // Lows //
     //------//
-    /** Fixed pool with low priority */
+    /** Work-stealing pool with low priority */
     private static class Lows
             extends Pool
     {
@@ -451,9 +658,75 @@ public class OmrExecutors
         @Override
         protected ExecutorService createPool ()
         {
+            return new ForkJoinPool(
+                    getParallelism(),
+                    new WorkerFactory(getName(), Thread.MIN_PRIORITY),
+                    null,
+                    false);
+        }
+    }
+
+    //--------//
+    // Scores //
+    //--------//
+    /** Fixed pool with low priority, for whole scores */
+    private static class Scores
+            extends Pool
+    {
+        //~ Methods ------------------------------------------------------------
+
+        @Override
+        public String getName ()
+        {
+            return "score";
+        }
+
+        @Override
+        protected ExecutorService createPool ()
+        {
+            final int max = constants.maxScores.getValue();
+
             return Executors.newFixedThreadPool(
-                    defaultParallelism.getTarget() ? (cpuCount + 1) : 1,
+                    (max > 0) ? max : getParallelism(),
                     new Factory(getName(), Thread.MIN_PRIORITY, 0));
         }
     }
+
+    //---------------//
+    // WorkerFactory //
+    //---------------//
+    private static class WorkerFactory
+            implements ForkJoinPool.ForkJoinWorkerThreadFactory
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        private final String threadPrefix;
+
+        private final int threadPriority;
+
+        private final AtomicInteger threadNumber = new AtomicInteger(0);
+
+        //~ Constructors -------------------------------------------------------
+        WorkerFactory (String threadPrefix,
+                       int threadPriority)
+        {
+            this.threadPrefix = threadPrefix;
+            this.threadPriority = threadPriority;
+        }
+
+        //~ Methods ------------------------------------------------------------
+        @Override
+        public ForkJoinWorkerThread newThread (ForkJoinPool pool)
+        {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.
+                    newThread(pool);
+            t.setName(threadPrefix + "-thread-" + threadNumber.incrementAndGet());
+
+            if (t.getPriority() != threadPriority) {
+                t.setPriority(threadPriority);
+            }
+
+            return t;
+        }
+    }
 }
@@ -0,0 +1,254 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                   C o n s t a n t C o n t e x t T e s t                    //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.constant;
+
+import omr.util.OmrExecutors;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+/**
+ * Class {@code ConstantContextTest} checks that constant values bound
+ * to a context do not leak to other threads, and follow the wrapped tasks.
+ *
+ * @author Hervé Bitteur
+ */
+public class ConstantContextTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------------//
+    // testBinding //
+    //-------------//
+    @Test
+    public void testBinding ()
+    {
+        final ConstantContext context = new ConstantContext(
+                props("-12"));
+
+        assertEquals(5, constants.threshold.getValue());
+
+        ConstantContext previous = ConstantContext.bind(context);
+
+        try {
+            assertEquals(-12, constants.threshold.getValue());
+            assertEquals("-12", constants.threshold.getCurrentString());
+            assertEquals("Hello", constants.label.getValue());
+        } finally {
+            ConstantContext.bind(previous);
+        }
+
+        assertNull(ConstantContext.getCurrent());
+        assertEquals(5, constants.threshold.getValue());
+    }
+
+    //--------------------//
+    // testConcurrentJobs //
+    //--------------------//
+    /**
+     * Two jobs with different values, fanning out to the same pool.
+     */
+    @Test(timeout = 60000)
+    public void testConcurrentJobs ()
+            throws Exception
+    {
+        List<Callable<Integer>> jobs = new ArrayList<>();
+
+        for (int i = 0; i < 2; i++) {
+            final ConstantContext context = new ConstantContext(
+                    props(Integer.toString(100 + i)));
+            jobs.add(
+                    new Callable<Integer>()
+            {
+                @Override
+                public Integer call ()
+                        throws Exception
+                {
+                    ConstantContext previous = ConstantContext.bind(context);
+
+                    try {
+                        return sum();
+                    } finally {
+                        ConstantContext.bind(previous);
+                    }
+                }
+            });
+        }
+
+        List<Future<Integer>> futures = OmrExecutors.getScoreExecutor()
+                .invokeAll(jobs);
+        assertEquals(10 * 100, (int) futures.get(0).get());
+        assertEquals(10 * 101, (int) futures.get(1).get());
+    }
+
+    //-----------------//
+    // testGetConstant //
+    //-----------------//
+    /**
+     * Constants are found by qualified name, even before their first use.
+     */
+    @Test
+    public void testGetConstant ()
+    {
+        final ConstantManager manager = ConstantManager.getInstance();
+
+        assertNotNull(
+                manager.getConstant(
+                ConstantContextTest.class.getName() + ".threshold"));
+        assertNotNull(
+                manager.getConstant("omr.grid.FilamentsFactory.sweepExpansion"));
+        assertNull(manager.getConstant("omr.grid.FilamentsFactory.noSuch"));
+        assertNull(manager.getConstant("omr.noSuch.Unit.noSuch"));
+        assertNull(manager.getConstant("noSuch"));
+    }
+
+    //--------------------//
+    // testModifiedValues //
+    //--------------------//
+    /**
+     * Modified values are reported, values bound to a context are not.
+     */
+    @Test
+    public void testModifiedValues ()
+    {
+        final String key = ConstantContextTest.class.getName() + ".label";
+        final ConstantManager manager = ConstantManager.getInstance();
+        ConstantContext previous = ConstantContext.bind(
+                new ConstantContext(props("-12")));
+
+        try {
+            assertEquals("Hello", constants.label.getValue());
+            assertFalse(manager.getModifiedValues().containsKey(key));
+            assertFalse(
+                    manager.getModifiedValues().containsKey(
+                    ConstantContextTest.class.getName() + ".threshold"));
+
+            constants.label.setValue("Bye");
+            assertEquals("Bye", manager.getModifiedValues().get(key));
+        } finally {
+            ConstantContext.bind(previous);
+            constants.label.reset();
+        }
+
+        assertFalse(manager.getModifiedValues().containsKey(key));
+    }
+
+    //------------------------//
+    // testWrapWithoutContext //
+    //------------------------//
+    /**
+     * A task wrapped without context does not see the context of the
+     * thread which runs it, and leaves this context untouched.
+     */
+    @Test
+    public void testWrapWithoutContext ()
+            throws Exception
+    {
+        final Callable<Integer> task = ConstantContext.wrap(
+                new Callable<Integer>()
+        {
+            @Override
+            public Integer call ()
+            {
+                assertNull(ConstantContext.getCurrent());
+
+                return constants.threshold.getValue();
+            }
+        });
+
+        final ConstantContext context = new ConstantContext(props("-12"));
+        ConstantContext previous = ConstantContext.bind(context);
+
+        try {
+            assertEquals(5, (int) task.call());
+            assertSame(context, ConstantContext.getCurrent());
+        } finally {
+            ConstantContext.bind(previous);
+        }
+    }
+
+    //-------//
+    // props //
+    //-------//
+    private static Properties props (String threshold)
+    {
+        Properties props = new Properties();
+        props.setProperty(
+                ConstantContextTest.class.getName() + ".threshold",
+                threshold);
+
+        return props;
+    }
+
+    //-----//
+    // sum //
+    //-----//
+    /**
+     * Sum the threshold value, as seen by 10 sub-tasks.
+     */
+    private static int sum ()
+            throws Exception
+    {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            tasks.add(
+                    new Callable<Integer>()
+            {
+                @Override
+                public Integer call ()
+                {
+                    return constants.threshold.getValue();
+                }
+            });
+        }
+
+        int sum = 0;
+
+        for (Future<Integer> future : OmrExecutors.getLowExecutor()
+                .invokeAll(ConstantContext.wrapAll(tasks))) {
+            sum += future.get();
+        }
+
+        return sum;
+    }
+
+    //~ Inner Classes ----------------------------------------------------------
+    //
+    //-----------//
+    // Constants //
+    //-----------//
+    private static final class Constants
+            extends ConstantSet
+    {
+        //~ Instance fields ----------------------------------------------------
+
+        Constant.Integer threshold = new Constant.Integer(
+                "pixels",
+                5,
+                "Some threshold");
+
+        //
+        Constant.String label = new Constant.String("Hello", "Some label");
+
+    }
+}
@@ -0,0 +1,181 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                        G l y p h I n d e x T e s t                         //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.glyph;
+
+import omr.glyph.facets.BasicGlyph;
+import omr.glyph.facets.Glyph;
+import omr.glyph.facets.GlyphComposition.Linking;
+
+import omr.lag.BasicLag;
+import omr.lag.Lag;
+import omr.lag.Section;
+
+import omr.run.Orientation;
+import omr.run.Run;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class {@code GlyphIndexTest} checks that glyph index lookups give the
+ * same glyphs as a linear scan, after insertions, removals and geometry
+ * changes.
+ *
+ * @author Hervé Bitteur
+ */
+public class GlyphIndexTest
+{
+    //~ Instance fields --------------------------------------------------------
+
+    private final Random random = new Random(123);
+
+    private final Nest nest = new BasicNest("nest", null);
+
+    private final Lag lag = new BasicLag("lag", Orientation.HORIZONTAL);
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //------------//
+    // testLookup //
+    //------------//
+    @Test
+    public void testLookup ()
+    {
+        final GlyphIndex index = new GlyphIndex(nest);
+        final List<Glyph> glyphs = new ArrayList<>();
+
+        // Insertions
+        for (int i = 0; i < 2000; i++) {
+            Glyph glyph = createGlyph();
+            glyphs.add(glyph);
+            index.insert(glyph);
+        }
+
+        assertEquals("Size.", glyphs.size(), index.size());
+        checkLookups("Inserted", index, glyphs);
+
+        // Removals
+        for (Iterator<Glyph> it = glyphs.iterator(); it.hasNext();) {
+            Glyph glyph = it.next();
+
+            if (random.nextInt(3) == 0) {
+                assertTrue("Removed.", index.remove(glyph));
+                it.remove();
+            }
+        }
+
+        assertEquals("Size.", glyphs.size(), index.size());
+        checkLookups("Removed", index, glyphs);
+
+        // Geometry changes, reported by the nest
+        for (Glyph glyph : glyphs) {
+            switch (random.nextInt(3)) {
+            case 0:
+                glyph.translate(
+                        new Point(
+                        random.nextInt(400) - 200,
+                        random.nextInt(400) - 200));
+
+                break;
+
+            case 1:
+                glyph.addSection(createSection(), Linking.NO_LINK_BACK);
+
+                break;
+
+            default:
+            }
+        }
+
+        checkLookups("Changed", index, glyphs);
+
+        // Geometry changes of glyphs no longer indexed are ignored
+        Glyph removed = glyphs.remove(0);
+        index.remove(removed);
+        removed.translate(new Point(50, 50));
+        checkLookups("Removed then changed", index, glyphs);
+    }
+
+    //--------------//
+    // checkLookups //
+    //--------------//
+    /**
+     * Compare indexed lookups with a linear scan of all glyphs.
+     */
+    private void checkLookups (String title,
+                               GlyphIndex index,
+                               List<Glyph> glyphs)
+    {
+        for (int i = 0; i < 300; i++) {
+            Rectangle rect = new Rectangle(
+                    random.nextInt(2000),
+                    random.nextInt(3000),
+                    random.nextInt(300),
+                    random.nextInt(300));
+            List<Glyph> found = index.lookup(rect);
+
+            assertEquals(
+                    title + " glyphs.",
+                    Glyphs.lookupIntersectedGlyphs(glyphs, rect),
+                    Glyphs.lookupIntersectedGlyphs(found, rect));
+
+            for (int j = 1; j < found.size(); j++) {
+                assertTrue(
+                        title + " order.",
+                        Glyph.byAbscissa.compare(found.get(j - 1), found.get(j)) <= 0);
+            }
+        }
+    }
+
+    //-------------//
+    // createGlyph //
+    //-------------//
+    private Glyph createGlyph ()
+    {
+        Glyph glyph = new BasicGlyph(20);
+
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            glyph.addSection(createSection(), Linking.NO_LINK_BACK);
+        }
+
+        return nest.registerGlyph(glyph);
+    }
+
+    //---------------//
+    // createSection //
+    //---------------//
+    private Section createSection ()
+    {
+        final int pos = random.nextInt(3000);
+        final int start = random.nextInt(2000);
+        Section section = lag.createSection(
+                pos,
+                new Run(start, 1 + random.nextInt(40), 127));
+
+        for (int j = random.nextInt(5); j > 0; j--) {
+            section.append(
+                    new Run(
+                    start + random.nextInt(5),
+                    1 + random.nextInt(40),
+                    127));
+        }
+
+        return section;
+    }
+}
@@ -0,0 +1,152 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                     S a m p l e A r c h i v e T e s t                      //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.glyph;
+
+import omr.glyph.facets.BasicGlyph;
+import omr.glyph.facets.Glyph;
+import omr.glyph.facets.GlyphValue;
+
+import omr.lag.BasicLag;
+import omr.lag.Lag;
+import omr.lag.Section;
+
+import omr.run.Orientation;
+import omr.run.Run;
+import omr.run.RunsTable;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Class {@code SampleArchiveTest} checks that glyphs read back from a
+ * sample archive are identical to the archived ones.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleArchiveTest
+{
+    //~ Methods ----------------------------------------------------------------
+    //
+    //---------------//
+    // testRoundTrip //
+    //---------------//
+    @Test
+    public void testRoundTrip ()
+            throws Exception
+    {
+        Map<String, Glyph> glyphs = new LinkedHashMap<>();
+        glyphs.put("sheets/one/BREVE.0001.xml", createGlyph(Shape.BREVE, 1));
+        glyphs.put("sheets/two/DOT_set.0002.xml", createGlyph(null, 2));
+
+        File file = File.createTempFile(
+                "test",
+                SampleArchive.ARCHIVE_EXTENSION);
+        file.deleteOnExit();
+
+        try {
+            checkRoundTrip(file, glyphs);
+        } finally {
+            file.delete();
+        }
+    }
+
+    //----------------//
+    // checkRoundTrip //
+    //----------------//
+    private void checkRoundTrip (File file,
+                                 Map<String, Glyph> glyphs)
+            throws Exception
+    {
+        SampleArchive.write(file, glyphs);
+
+        SampleArchive archive = SampleArchive.open(file);
+        assertEquals(2, archive.size());
+        assertEquals(glyphs.keySet(), new TreeSet<>(archive.getNames()));
+        assertFalse(archive.contains("sheets/three/CODA.0003.xml"));
+        assertNull(archive.getGlyph("sheets/three/CODA.0003.xml"));
+
+        for (Map.Entry<String, Glyph> entry : glyphs.entrySet()) {
+            Glyph glyph = entry.getValue();
+            Glyph copy = archive.getGlyph(entry.getKey());
+
+            assertEquals(glyph.getId(), copy.getId());
+            assertEquals(glyph.getShape(), copy.getShape());
+            assertEquals(glyph.getInterline(), copy.getInterline());
+            assertEquals(glyph.getStemNumber(), copy.getStemNumber());
+            assertEquals(glyph.isWithLedger(), copy.isWithLedger());
+            assertEquals(
+                    glyph.getPitchPosition(),
+                    copy.getPitchPosition(),
+                    0);
+            assertEquals(glyph.getWeight(), copy.getWeight());
+            assertEquals(glyph.getBounds(), copy.getBounds());
+
+            Iterator<Section> it = copy.getMembers()
+                    .iterator();
+
+            for (Section section : glyph.getMembers()) {
+                Section other = it.next();
+                assertEquals(section.isVertical(), other.isVertical());
+                assertEquals(section.getFirstPos(), other.getFirstPos());
+                assertEquals(section.getRuns().size(), other.getRuns().size());
+            }
+
+            assertArrayEquals(
+                    ShapeDescription.features(glyph),
+                    archive.getFeatures(entry.getKey()),
+                    0);
+        }
+    }
+
+    //-------------//
+    // createGlyph //
+    //-------------//
+    private Glyph createGlyph (Shape shape,
+                               int id)
+    {
+        Lag vLag = new BasicLag("vLag", Orientation.VERTICAL);
+        vLag.setRuns(
+                new RunsTable(
+                "vRuns",
+                Orientation.VERTICAL,
+                new Dimension(100, 200)));
+
+        Lag hLag = new BasicLag("hLag", Orientation.HORIZONTAL);
+        hLag.setRuns(
+                new RunsTable(
+                "hRuns",
+                Orientation.HORIZONTAL,
+                new Dimension(100, 200)));
+
+        Section sv = vLag.createSection(30, new Run(100, 10 * id, 127));
+        sv.append(new Run(101, 20, 100));
+
+        Section sh = hLag.createSection(50, new Run(40, 10, 127));
+        sh.append(new Run(42, 20 + id, 127));
+        sh.append(new Run(42, 20, 90));
+
+        SortedSet<Section> sections = new TreeSet<>();
+        sections.add(sv);
+        sections.add(sh);
+
+        return new BasicGlyph(
+                new GlyphValue(shape, 20, id, id % 2, id > 1, 0.5 * id, sections));
+    }
+}
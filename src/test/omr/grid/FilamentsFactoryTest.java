@@ -0,0 +1,141 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                  F i l a m e n t s F a c t o r y T e s t                   //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.grid;
+
+import omr.constant.ConstantContext;
+
+import omr.glyph.BasicNest;
+import omr.glyph.facets.Glyph;
+
+import omr.lag.BasicLag;
+import omr.lag.JunctionRatioPolicy;
+import omr.lag.Lag;
+import omr.lag.SectionsBuilder;
+
+import omr.run.Orientation;
+import omr.run.PixelsBuffer;
+
+import omr.sheet.Scale;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class {@code FilamentsFactoryTest} checks that the position sweep
+ * used in filaments expansion retrieves the same filaments as the
+ * exhaustive scan of all glyphs.
+ *
+ * @author Hervé Bitteur
+ */
+public class FilamentsFactoryTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final File IMAGE = new File("data/examples/chula.png");
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //---------------//
+    // testExpansion //
+    //---------------//
+    @Test
+    public void testExpansion ()
+            throws Exception
+    {
+        final PixelsBuffer buffer = binarize(ImageIO.read(IMAGE));
+
+        List<Rectangle> swept = retrieve(buffer);
+
+        Properties props = new Properties();
+        props.setProperty(
+                FilamentsFactory.class.getName() + ".sweepExpansion",
+                "false");
+
+        ConstantContext previous = ConstantContext.bind(
+                new ConstantContext(props));
+        List<Rectangle> scanned;
+
+        try {
+            scanned = retrieve(buffer);
+        } finally {
+            ConstantContext.bind(previous);
+        }
+
+        assertFalse("No filament retrieved.", scanned.isEmpty());
+        assertEquals("Filaments count.", scanned.size(), swept.size());
+        assertEquals("Filaments bounds.", scanned, swept);
+    }
+
+    //----------//
+    // binarize //
+    //----------//
+    private PixelsBuffer binarize (BufferedImage image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        PixelsBuffer buffer = new PixelsBuffer(new Dimension(width, height));
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int rgb = image.getRGB(x, y);
+                final int gray = (((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF)
+                                  + (rgb & 0xFF)) / 3;
+
+                if (gray < 140) {
+                    buffer.setPixel(x, y, (char) 0);
+                }
+            }
+        }
+
+        return buffer;
+    }
+
+    //----------//
+    // retrieve //
+    //----------//
+    /**
+     * Retrieve the horizontal filaments of the image.
+     *
+     * @return the filaments bounds, in retrieval order
+     */
+    private List<Rectangle> retrieve (PixelsBuffer buffer)
+            throws Exception
+    {
+        Lag hLag = new BasicLag("hLag", Orientation.HORIZONTAL);
+        new SectionsBuilder(hLag, new JunctionRatioPolicy(1.25)).
+                createSections("hRuns", buffer, 0);
+
+        FilamentsFactory factory = new FilamentsFactory(
+                new Scale(20, 3),
+                new BasicNest("nest", null),
+                Orientation.HORIZONTAL,
+                LineFilament.class);
+
+        List<Rectangle> bounds = new ArrayList<>();
+
+        for (Glyph fil : factory.retrieveFilaments(hLag.getSections(), true)) {
+            bounds.add(fil.getBounds());
+        }
+
+        return bounds;
+    }
+}
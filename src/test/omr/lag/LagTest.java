@@ -27,6 +27,7 @@ import java.awt.Rectangle;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 /**
@@ -409,6 +410,86 @@ public class LagTest
         assertEquals("Two sections.", 2, founds.size());
     }
 
+    //---------------------------//
+    // testLookupSectionsIndexed //
+    //---------------------------//
+    public void testLookupSectionsIndexed ()
+    {
+        final Random random = new Random(123);
+        final BasicLag lag = createBigLag(random);
+
+        // Compare indexed lookups with plain scans of all sections
+        for (Rectangle rect : createRects(random)) {
+            Set<Section> found = lag.lookupIntersectedSections(rect);
+            Set<Section> contained = lag.lookupSections(rect);
+            Set<Section> expFound = Sections.lookupIntersectedSections(
+                rect,
+                lag.getSections());
+            Set<Section> expContained = Sections.lookupSections(
+                rect,
+                lag.getSections());
+
+            assertEquals("Intersected sections.", expFound, found);
+            assertEquals("Contained sections.", expContained, contained);
+        }
+
+        // Index must follow section modifications
+        Section section = lag.createSection(5000, new Run(10, 10, 127));
+        Rectangle rect = new Rectangle(0, 5000, 30, 2);
+        assertEquals("New section.", 1, lag.lookupSections(rect).size());
+
+        section.append(new Run(15, 10, 127));
+        assertEquals(
+            "Grown section.",
+            1,
+            lag.lookupIntersectedSections(new Rectangle(20, 5001, 1, 1)).size());
+
+        section.translate(new Point(0, 100));
+        assertEquals("Moved section.", 0, lag.lookupSections(rect).size());
+        rect.translate(0, 100);
+        assertEquals("Moved section.", 1, lag.lookupSections(rect).size());
+
+        section.delete();
+        assertEquals("Deleted section.", 0, lag.lookupSections(rect).size());
+    }
+
+    //--------------------------//
+    // testLookupSectionsTiming //
+    //--------------------------//
+    public void testLookupSectionsTiming ()
+    {
+        final Random random = new Random(456);
+        final BasicLag lag = createBigLag(random);
+        final List<Rectangle> rects = createRects(random);
+
+        // Warm up both ways, then measure them
+        long indexed = 0;
+        long scanned = 0;
+
+        for (int pass = 0; pass < 3; pass++) {
+            long start = System.nanoTime();
+
+            for (Rectangle rect : rects) {
+                lag.lookupIntersectedSections(rect);
+            }
+
+            indexed = System.nanoTime() - start;
+            start = System.nanoTime();
+
+            for (Rectangle rect : rects) {
+                Sections.lookupIntersectedSections(rect, lag.getSections());
+            }
+
+            scanned = System.nanoTime() - start;
+        }
+
+        System.out.println(
+            rects.size() + " lookups among " + lag.getVertexCount() +
+            " sections, indexed: " + (indexed / 1000000) + " ms, scanned: " +
+            (scanned / 1000000) + " ms");
+        assertTrue("Indexed lookups slower than scans.", indexed < scanned);
+    }
+
     //    /**
     //     * Test of purgeSections method, of class Lag.
     //     */
@@ -635,6 +716,51 @@ public class LagTest
         assertEquals("Bad Weight", s.getWeight(), 30);
     }
 
+    //--------------//
+    // createBigLag //
+    //--------------//
+    /**
+     * Create a lag with a population of sections spread over a whole sheet.
+     */
+    private BasicLag createBigLag (Random random)
+    {
+        final BasicLag lag = new BasicLag("Big Lag", Orientation.HORIZONTAL);
+
+        for (int i = 0; i < 20000; i++) {
+            int pos = random.nextInt(3000);
+            int start = random.nextInt(2000);
+            Section section = lag.createSection(
+                pos,
+                new Run(start, 1 + random.nextInt(40), 127));
+
+            for (int j = random.nextInt(5); j > 0; j--) {
+                section.append(
+                    new Run(start + random.nextInt(5), 1 + random.nextInt(40), 127));
+            }
+        }
+
+        return lag;
+    }
+
+    //-------------//
+    // createRects //
+    //-------------//
+    private List<Rectangle> createRects (Random random)
+    {
+        List<Rectangle> rects = new ArrayList<>();
+
+        for (int i = 0; i < 500; i++) {
+            rects.add(
+                new Rectangle(
+                    random.nextInt(2000),
+                    random.nextInt(3000),
+                    random.nextInt(200),
+                    random.nextInt(200)));
+        }
+
+        return rects;
+    }
+
     //-----------//
     // createRun //
     //-----------//
@@ -11,6 +11,7 @@
 // </editor-fold>
 package omr.math;
 
+import omr.math.LinearEvaluator.CategoryDistance;
 import omr.math.LinearEvaluator.Printer;
 import omr.math.LinearEvaluator.Sample;
 
@@ -94,6 +95,23 @@ public class LinearEvaluatorTest
         assertEquals(expResult, result, 0.01);
     }
 
+    /**
+     * Test of categoryDistances method, of class LinearEvaluator.
+     */
+    @Test
+    public void testCategoryDistances ()
+    {
+        System.out.println("\n--categoryDistances");
+
+        double[]        pattern = new double[] { 14, 26 };
+        String[]        ids = new String[] { "C", "A" };
+        LinearEvaluator instance = createTrainedInstance();
+        double[]        result = instance.categoryDistances(pattern, ids);
+        assertEquals(2, result.length);
+        assertEquals(instance.categoryDistance(pattern, "C"), result[0], 0);
+        assertEquals(18.25, result[1], 0.01);
+    }
+
     /**
      * Test of dump method, of class LinearEvaluator.
      */
@@ -158,6 +176,45 @@ public class LinearEvaluatorTest
         os.close();
     }
 
+    /**
+     * Test of nearestCategories method, of class LinearEvaluator.
+     */
+    @Test
+    public void testNearestCategories ()
+    {
+        System.out.println("\n--nearestCategories");
+
+        double[]           pattern = new double[] { 10, 21 };
+        LinearEvaluator    instance = createTrainedInstance();
+        CategoryDistance[] result = instance.nearestCategories(pattern, 3);
+        System.out.println("nearest: " + Arrays.toString(result));
+        assertEquals(3, result.length);
+        assertEquals("A", result[0].category);
+
+        for (int i = 0; i < result.length; i++) {
+            assertEquals(
+                instance.categoryDistance(pattern, result[i].category),
+                result[i].distance,
+                0);
+
+            if (i > 0) {
+                assertTrue(result[i - 1].distance <= result[i].distance);
+            }
+        }
+
+        // Every other category is farther
+        for (String id : instance.getCategoryNames()) {
+            if (!Arrays.asList("A", result[1].category, result[2].category)
+                       .contains(id)) {
+                assertTrue(
+                    instance.categoryDistance(pattern, id) >= result[2].distance);
+            }
+        }
+
+        assertEquals(5, instance.nearestCategories(pattern, 10).length);
+        assertEquals(0, instance.nearestCategories(pattern, 0).length);
+    }
+
     /**
      * Test of patternDistance method, of class LinearEvaluator.
      */
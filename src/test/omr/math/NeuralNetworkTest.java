@@ -120,6 +120,79 @@ public class NeuralNetworkTest
                 0.1d);
     }
 
+    //--------------//
+    // testBatchRun //
+    //--------------//
+    //@Test
+    public void testBatchRun ()
+    {
+        NeuralNetwork net = createNetwork(5, 7, 3);
+        double[][] inputs = new double[][]{
+            {0, 0, 0, 0, 0},
+            {1, 0.5, -2, 3, 0.25},
+            {-1, 2, 0, 0.75, 9}
+        };
+
+        double[][] outputs = net.run(inputs);
+        assertEquals(inputs.length, outputs.length);
+
+        for (int p = 0; p < inputs.length; p++) {
+            double[] single = net.run(inputs[p], null, null);
+
+            for (int o = 0; o < single.length; o++) {
+                assertEquals(single[o], outputs[p][o], 0d);
+            }
+        }
+
+        assertEquals(0, net.run(new double[0][]).length);
+    }
+
+    //-------------------//
+    // testParallelTrain //
+    //-------------------//
+    //@Test
+    public void testParallelTrain ()
+    {
+        double[][] inputs = new double[][]{
+            {0, 0},
+            {1, 0},
+            {0, 1},
+            {1, 1}
+        };
+
+        double[][] desiredOutputs = new double[][]{
+            {0},
+            {1},
+            {1},
+            {1}
+        };
+        NeuralNetwork.Monitor monitor = new MyMonitor();
+        double mse;
+
+        do {
+            nn = createNetwork();
+            nn.setLearningRate(2.0);
+            nn.setEpochs(20000);
+
+            ParallelTrainer trainer = new ParallelTrainer(nn);
+            trainer.setBatchSize(2);
+            trainer.setValidationRatio(0);
+            mse = trainer.train(inputs, desiredOutputs, null, monitor);
+        } while (mse > maxMSE);
+
+        assertNears(
+                "0 or 0 should be 0",
+                0d,
+                nn.run(new double[]{0, 0}, null, null)[0],
+                0.1d);
+
+        assertNears(
+                "1 or 1 should be 1",
+                1d,
+                nn.run(new double[]{1, 1}, null, null)[0],
+                0.1d);
+    }
+
     //-----------------//
     // testMarshalling //
     //-----------------//
@@ -7,8 +7,10 @@ package omr.moment;
 import omr.moments.ARTMoments;
 import omr.moments.BasicARTExtractor;
 import omr.moments.BasicARTMoments;
+import omr.moments.GeometricMoments;
 
 import org.junit.*;
+import static org.junit.Assert.*;
 
 /**
  * Unit test for (Basic) ARTExtractor.
@@ -40,4 +42,38 @@ public class ARTExtractorTest
             new BasicARTExtractor(),
             BasicARTMoments.class);
     }
+
+    /**
+     * Check that ART moments extracted along with geometric moments are
+     * identical to ART moments extracted on their own.
+     */
+    @Test
+    public void testSinglePass ()
+    {
+        final int[] xx = new int[] { 10, 11, 12, 13, 12, 11, 14, 15, 15, 16 };
+        final int[] yy = new int[] { 20, 20, 21, 25, 26, 30, 31, 31, 32, 40 };
+
+        ARTMoments alone = new BasicARTMoments();
+        BasicARTExtractor extractor = new BasicARTExtractor();
+        extractor.setDescriptor(alone);
+        extractor.extract(xx, yy, xx.length);
+
+        ARTMoments fused = new BasicARTMoments();
+        extractor = new BasicARTExtractor();
+        extractor.setDescriptor(fused);
+
+        GeometricMoments geo = new GeometricMoments(
+            xx,
+            yy,
+            xx.length,
+            5,
+            extractor);
+        assertEquals(new GeometricMoments(xx, yy, xx.length, 5), geo);
+
+        for (int p = 0; p < ARTMoments.ANGULAR; p++) {
+            for (int r = 0; r < ARTMoments.RADIAL; r++) {
+                assertEquals(alone.getMoment(p, r), fused.getMoment(p, r), 0);
+            }
+        }
+    }
 }
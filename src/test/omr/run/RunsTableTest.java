@@ -13,12 +13,26 @@ package omr.run;
 
 import static omr.run.Orientation.*;
 
+import omr.util.Predicate;
+
 import static org.junit.Assert.*;
 import org.junit.Test;
 
 import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -80,6 +94,63 @@ public class RunsTableTest
         System.out.println(instance.dumpOf());
     }
 
+    //-------------//
+    // testBitonal //
+    //-------------//
+    /**
+     * Test of tables built from a bitonal image, against the tables
+     * built by the factory on the same image.
+     */
+    @Test
+    public void testBitonal ()
+    {
+        System.out.println("bitonal");
+
+        Random random = new Random(321);
+
+        for (int width : new int[]{64, 150}) {
+            BufferedImage img = new BufferedImage(
+                    width,
+                    90,
+                    BufferedImage.TYPE_BYTE_BINARY);
+            WritableRaster raster = img.getRaster();
+
+            for (int y = 0; y < img.getHeight(); y++) {
+                for (int x = 0; x < width; x++) {
+                    // Include full black rows and columns
+                    boolean black = (y == 10) || (x == (width - 1))
+                                    || random.nextBoolean();
+                    raster.setSample(x, y, 0, black ? 0 : 1);
+                }
+            }
+
+            BitonalFilter bitonal = new BitonalFilter(raster, 0);
+            for (int x = 0; x < width; x++) {
+                boolean black = raster.getSample(x, 0, 0) == 0;
+                assertEquals(black, bitonal.isFore(x, 0));
+                assertEquals(black ? 0 : 255, bitonal.getPixel(x, 0));
+            }
+
+            for (Orientation ori : Orientation.values()) {
+                for (int minLength : new int[]{0, 3}) {
+                    RunsTable expected = new RunsTableFactory(
+                            ori,
+                            bitonal,
+                            minLength).createTable("bitonal");
+                    RunsTable result = bitonal.createTable(
+                            "bitonal",
+                            ori,
+                            minLength);
+
+                    if (!expected.isIdentical(result)) {
+                        fail("Bitonal table differs " + ori + " width:"
+                             + width + " minLength:" + minLength);
+                    }
+                }
+            }
+        }
+    }
+
     //------------------//
     // testGetDimension //
     //------------------//
@@ -148,6 +219,43 @@ public class RunsTableTest
         assertEquals(expResult, result);
     }
 
+    //--------------------//
+    // testGetRowAndColumn //
+    //--------------------//
+    /**
+     * Test of getRow and getColumn bulk methods, of class RunsTable,
+     * against getPixel.
+     */
+    @Test
+    public void testGetRowAndColumn ()
+    {
+        System.out.println("getRowAndColumn");
+
+        for (RunsTable instance : new RunsTable[]{
+                    createHorizontalInstance(), createVerticalInstance()
+                }) {
+            int[] levels = new int[dim.width];
+
+            for (int y = 0; y < dim.height; y++) {
+                instance.getRow(y, 0, dim.width - 1, levels);
+
+                for (int x = 0; x < dim.width; x++) {
+                    assertEquals(instance.getPixel(x, y), levels[x]);
+                }
+            }
+
+            levels = new int[dim.height];
+
+            for (int x = 0; x < dim.width; x++) {
+                instance.getColumn(x, 1, dim.height - 1, levels);
+
+                for (int y = 1; y < dim.height; y++) {
+                    assertEquals(instance.getPixel(x, y), levels[y]);
+                }
+            }
+        }
+    }
+
     //-----------------//
     // testGetSequence //
     //-----------------//
@@ -207,6 +315,150 @@ public class RunsTableTest
         assertEquals(expResult, result);
     }
 
+    //------------//
+    // testPacked //
+    //------------//
+    /**
+     * Test of a packed table, against its unpacked counterpart.
+     */
+    @Test
+    public void testPacked ()
+    {
+        System.out.println("packed");
+
+        RunsTable hori = createHorizontalInstance();
+        RunsTable packed = createPackedInstance(hori);
+        assertTrue(packed.isIdentical(hori));
+        assertEquals(hori.getRunCount(), packed.getRunCount());
+        assertEquals(hori.getPixel(6, 2), packed.getPixel(6, 2));
+        assertEquals(hori.getPixel(2, 2), packed.getPixel(2, 2));
+
+        // Purge packed positions, keeping removed runs aside
+        Predicate<Run> predicate = new Predicate<Run>()
+        {
+            @Override
+            public boolean check (Run run)
+            {
+                return run.getLength() > 2;
+            }
+        };
+
+        RunsTable removed = new RunsTable("removed", HORIZONTAL, dim);
+        RunsTable copy = packed.copy();
+        copy.purge(predicate, removed);
+        assertTrue(packed.isIdentical(hori));
+        assertEquals(1, copy.getSequenceSize(2));
+        assertEquals(3, copy.getRunStart(2, 0));
+        assertEquals(5, removed.getSequence(2).get(0).getStart());
+
+        hori.purge(predicate);
+        assertTrue(copy.isIdentical(hori));
+
+        // Unpacked sequences are regular modifiable lists
+        List<Run> seq = copy.getSequence(3);
+        assertEquals(3, seq.size());
+        seq.remove(1);
+        assertEquals(8, copy.getRunStart(3, 1));
+    }
+
+    //----------------------//
+    // testConcurrentUnpack //
+    //----------------------//
+    /**
+     * Concurrent readers of a packed table, some of them converting the
+     * positions they read.
+     */
+    @Test
+    public void testConcurrentUnpack ()
+            throws Exception
+    {
+        System.out.println("concurrentUnpack");
+
+        final Dimension bigDim = new Dimension(100, 5000);
+        final RunsTable plain = new RunsTable("plain", HORIZONTAL, bigDim);
+
+        for (int pos = 0; pos < bigDim.height; pos++) {
+            for (int i = 0; i < 3; i++) {
+                plain.getSequence(pos)
+                        .add(new Run((30 * i) + (pos % 10), 5 + i, 127));
+            }
+        }
+
+        for (int iter = 0; iter < 20; iter++) {
+            final RunsTable packed = createPackedInstance(plain);
+            final AtomicInteger errors = new AtomicInteger();
+            List<Callable<Void>> readers = new ArrayList<>();
+
+            for (int t = 0; t < 8; t++) {
+                final boolean unpacking = (t % 2) == 0;
+                final int seed = t;
+
+                readers.add(
+                        new Callable<Void>()
+                {
+                    @Override
+                    public Void call ()
+                    {
+                        Random random = new Random(seed);
+
+                        for (int k = 0; k < bigDim.height; k++) {
+                            int pos = random.nextInt(bigDim.height);
+                            int start = unpacking
+                                        ? packed.getSequence(pos).get(1).getStart()
+                                        : packed.getRunStart(pos, 1);
+
+                            if ((packed.getSequenceSize(pos) != 3)
+                                || (start != (30 + (pos % 10)))) {
+                                errors.incrementAndGet();
+                            }
+                        }
+
+                        return null;
+                    }
+                });
+            }
+
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+
+            for (Future<Void> future : pool.invokeAll(readers)) {
+                future.get(); // Rethrow any exception
+            }
+
+            pool.shutdown();
+            assertEquals(0, errors.get());
+            assertTrue(packed.isIdentical(plain));
+        }
+    }
+
+    //---------------//
+    // testReadWrite //
+    //---------------//
+    /**
+     * Test of write then read methods, of class RunsTable.
+     */
+    @Test
+    public void testReadWrite ()
+            throws Exception
+    {
+        System.out.println("readWrite");
+
+        for (RunsTable table : new RunsTable[]{
+                    createHorizontalInstance(),
+                    createPackedInstance(createVerticalInstance())
+                }) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            table.write(new DataOutputStream(bytes));
+
+            RunsTable read = RunsTable.read(
+                    "read",
+                    new DataInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray())));
+            assertEquals(table.getOrientation(), read.getOrientation());
+            assertEquals(table.getDimension(), read.getDimension());
+            assertTrue(read.isIdentical(table));
+        }
+    }
+
     //    /**
     //     * Test of setMaxForeground method, of class RunsTable.
     //     */
@@ -332,6 +584,34 @@ public class RunsTableTest
         return instance;
     }
 
+    //----------------------//
+    // createPackedInstance //
+    //----------------------//
+    private RunsTable createPackedInstance (RunsTable table)
+    {
+        int[][] triplets = new int[table.getSize()][];
+        int[] counts = new int[table.getSize()];
+
+        for (int pos = 0; pos < table.getSize(); pos++) {
+            List<Run> seq = table.getSequence(pos);
+            triplets[pos] = new int[3 * seq.size()];
+            counts[pos] = seq.size();
+
+            for (int i = 0; i < seq.size(); i++) {
+                Run run = seq.get(i);
+                triplets[pos][3 * i] = run.getStart();
+                triplets[pos][(3 * i) + 1] = run.getLength();
+                triplets[pos][(3 * i) + 2] = run.getLevel();
+            }
+        }
+
+        return new RunsTable(
+                "packed",
+                table.getOrientation(),
+                table.getDimension(),
+                new PackedRuns(triplets, counts));
+    }
+
     //------------------------//
     // createVerticalInstance //
     //------------------------//
@@ -0,0 +1,211 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                       S t r i p F i l t e r T e s t                        //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.run;
+
+import omr.constant.ConstantContext;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Properties;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class {@code StripFilterTest} checks that {@link StripFilter} provides
+ * the same foreground pixels as {@link RandomFilter}, including the rows
+ * at strip boundaries and those whose window overlaps the halos.
+ *
+ * @author Hervé Bitteur
+ */
+public class StripFilterTest
+{
+    //~ Static fields/initializers ---------------------------------------------
+
+    private static final File IMAGE = new File("data/examples/chula.png");
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-----------//
+    // testImage //
+    //-----------//
+    @Test
+    public void testImage ()
+            throws Exception
+    {
+        PixelsBuffer buffer = readBuffer(ImageIO.read(IMAGE));
+
+        checkSame(
+                buffer,
+                AdaptiveFilter.getDefaultMeanCoeff(),
+                AdaptiveFilter.getDefaultStdDevCoeff(),
+                128,
+                18);
+    }
+
+    //--------------//
+    // testNegative //
+    //--------------//
+    @Test
+    public void testNegative ()
+    {
+        PixelsBuffer buffer = createBuffer(173, 131, 3);
+
+        // Negative coefficient for standard deviation
+        checkSame(buffer, 0.9, -0.3, 7, 5);
+        checkSame(buffer, 0.9, -0.3, 16, 18);
+    }
+
+    //------------//
+    // testStrips //
+    //------------//
+    @Test
+    public void testStrips ()
+    {
+        PixelsBuffer buffer = createBuffer(173, 131, 1);
+
+        // Strips smaller than, equal to, and larger than the window
+        checkSame(buffer, 0.7, 0.9, 1, 3);
+        checkSame(buffer, 0.7, 0.9, 7, 3);
+        checkSame(buffer, 0.7, 0.9, 7, 18);
+        checkSame(buffer, 0.7, 0.9, 37, 18);
+        checkSame(buffer, 0.7, 0.9, 200, 18);
+
+        // Window larger than the image
+        checkSame(buffer, 0.7, 0.9, 16, 100);
+
+        // Window whose squared sums exceed 32 bits
+        checkSame(createBuffer(400, 300, 2), 0.7, 0.9, 64, 120);
+    }
+
+    //-----------//
+    // checkSame //
+    //-----------//
+    /**
+     * Check that strip and random filters agree on every pixel.
+     */
+    private void checkSame (PixelsBuffer buffer,
+                            double meanCoeff,
+                            double stdDevCoeff,
+                            int stripHeight,
+                            int halfWindowSize)
+    {
+        Properties props = new Properties();
+        props.setProperty(
+                StripFilter.class.getName() + ".stripHeight",
+                Integer.toString(stripHeight));
+        props.setProperty(
+                AdaptiveFilter.class.getName() + ".halfWindowSize",
+                Integer.toString(halfWindowSize));
+
+        ConstantContext previous = ConstantContext.bind(
+                new ConstantContext(props));
+
+        try {
+            final PixelFilter random = new RandomFilter(
+                    buffer,
+                    meanCoeff,
+                    stdDevCoeff);
+            final PixelFilter strip = new StripFilter(
+                    buffer,
+                    meanCoeff,
+                    stdDevCoeff);
+            final int width = buffer.getWidth();
+            final int height = buffer.getHeight();
+            final int[] levels = new int[width];
+            final boolean[] fores = new boolean[width];
+            int foreCount = 0;
+
+            for (int y = 0; y < height; y++) {
+                strip.getForeRow(y, 0, width - 1, levels, fores);
+
+                for (int x = 0; x < width; x++) {
+                    final String where = "strip:" + stripHeight + " half:"
+                                         + halfWindowSize + " x:" + x + " y:"
+                                         + y;
+                    final boolean fore = random.isFore(x, y);
+                    assertEquals(where, fore, strip.isFore(x, y));
+                    assertEquals(where, fore, fores[x]);
+
+                    if (fore) {
+                        foreCount++;
+                    }
+                }
+            }
+
+            assertTrue("No foreground pixel.", foreCount > 0);
+        } finally {
+            ConstantContext.bind(previous);
+        }
+    }
+
+    //--------------//
+    // createBuffer //
+    //--------------//
+    /**
+     * Create a gray buffer with noisy background and dark blobs.
+     */
+    private PixelsBuffer createBuffer (int width,
+                                       int height,
+                                       long seed)
+    {
+        final Random random = new Random(seed);
+        PixelsBuffer buffer = new PixelsBuffer(new Dimension(width, height));
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                buffer.setPixel(x, y, (char) (200 + random.nextInt(56)));
+            }
+        }
+
+        for (int i = 0; i < 40; i++) {
+            final int x0 = random.nextInt(width);
+            final int y0 = random.nextInt(height);
+            final int w = 1 + random.nextInt(20);
+            final int h = 1 + random.nextInt(20);
+            final int level = random.nextInt(150);
+
+            for (int y = y0; y < Math.min(height, y0 + h); y++) {
+                for (int x = x0; x < Math.min(width, x0 + w); x++) {
+                    buffer.setPixel(x, y, (char) level);
+                }
+            }
+        }
+
+        return buffer;
+    }
+
+    //------------//
+    // readBuffer //
+    //------------//
+    private PixelsBuffer readBuffer (BufferedImage image)
+    {
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        PixelsBuffer buffer = new PixelsBuffer(new Dimension(width, height));
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int rgb = image.getRGB(x, y);
+                final int gray = (((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF)
+                                  + (rgb & 0xFF)) / 3;
+                buffer.setPixel(x, y, (char) gray);
+            }
+        }
+
+        return buffer;
+    }
+}
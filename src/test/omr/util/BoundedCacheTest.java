@@ -0,0 +1,65 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      B o u n d e d C a c h e T e s t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Class {@code BoundedCacheTest} checks the size bound and the statistics
+ * of a cache.
+ *
+ * @author Hervé Bitteur
+ */
+public class BoundedCacheTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    //-----------//
+    // testBound //
+    //-----------//
+    @Test
+    public void testBound ()
+    {
+        BoundedCache<Integer, String> cache = new BoundedCache<>("test", 10);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "v" + i);
+        }
+
+        assertEquals(10, cache.size());
+        assertEquals("v99", cache.get(99));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    //-------------//
+    // testHitRate //
+    //-------------//
+    @Test
+    public void testHitRate ()
+    {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10);
+        assertEquals(0, cache.getHitRate(), 0);
+
+        assertNull(cache.get("a"));
+        cache.put("a", "A");
+        assertEquals("A", cache.get("a"));
+        assertEquals("A", cache.get("a"));
+        assertNull(cache.get("b"));
+
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(0.5, cache.getHitRate(), 1e-9);
+    }
+}
@@ -0,0 +1,127 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                           M e t r i c s T e s t                            //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Class {@code MetricsTest} checks the recording and the export of
+ * timers and counters.
+ *
+ * @author Hervé Bitteur
+ */
+public class MetricsTest
+{
+    //~ Instance fields --------------------------------------------------------
+
+    private final Metrics metrics = Metrics.getInstance();
+
+    //~ Methods ----------------------------------------------------------------
+    //
+    //-------//
+    // setUp //
+    //-------//
+    @Before
+    public void setUp ()
+    {
+        metrics.reset();
+    }
+
+    //---------------------//
+    // testConcurrentCount //
+    //---------------------//
+    @Test
+    public void testConcurrentCount ()
+            throws Exception
+    {
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            tasks.add(
+                    new Callable<Void>()
+            {
+                @Override
+                public Void call ()
+                {
+                    for (int j = 0; j < 1000; j++) {
+                        Metrics.count("glyphs", null, 1);
+                    }
+
+                    return null;
+                }
+            });
+        }
+
+        OmrExecutors.getLowExecutor()
+                .invokeAll(tasks);
+        assertEquals(8000, metrics.getCounterValue("glyphs", null));
+    }
+
+    //------------------//
+    // testRecordedStep //
+    //------------------//
+    /**
+     * Elapsed times recorded by the caller report no allocated bytes,
+     * while sampled timers do.
+     */
+    @Test
+    public void testRecordedStep ()
+    {
+        Metrics.record("step", "GRID", 5000000);
+        Metrics.start()
+                .stop("step_systems", "GRID");
+
+        String text = metrics.getText();
+        assertTrue(text.contains("omr_step_calls_total{name=\"GRID\"} 1"));
+        assertTrue(text.contains("omr_step_systems_calls_total{name=\"GRID\"} 1"));
+        assertFalse(text.contains("omr_step_allocated_bytes_total"));
+    }
+
+    //----------//
+    // testText //
+    //----------//
+    @Test
+    public void testText ()
+            throws Exception
+    {
+        Metrics.Sample sample = Metrics.start();
+        Thread.sleep(5);
+        sample.stop("step", "GRID");
+        Metrics.count("sections", "hLag", 12);
+
+        assertTrue(metrics.getTimeSecs("step", "GRID") >= 0.005);
+
+        String text = metrics.getText();
+        assertTrue(text.contains("omr_step_calls_total{name=\"GRID\"} 1"));
+        assertTrue(text.contains("omr_step_seconds_total{name=\"GRID\"}"));
+        assertTrue(text.contains("omr_sections_total{name=\"hLag\"} 12"));
+
+        // Every series is typed
+        assertTrue(text.contains("# TYPE omr_step_calls_total counter"));
+        assertTrue(text.contains("# TYPE omr_step_seconds_total counter"));
+        assertTrue(text.contains("# TYPE omr_step_seconds_max gauge"));
+        assertTrue(text.contains("# TYPE omr_sections_total counter"));
+
+        for (String line : text.split("\n")) {
+            if (!line.startsWith("#")) {
+                String series = line.split("[{ ]")[0];
+                assertTrue(line, text.contains("# TYPE " + series + " "));
+            }
+        }
+    }
+}
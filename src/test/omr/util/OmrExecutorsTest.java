@@ -0,0 +1,209 @@
+//----------------------------------------------------------------------------//
+//                                                                            //
+//                      O m r E x e c u t o r s T e s t                       //
+//                                                                            //
+//----------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">                          //
+//  Copyright © Hervé Bitteur and others 2000-2013. All rights reserved.      //
+//  This software is released under the GNU General Public License.           //
+//  Goto http://kenai.com/projects/audiveris to report bugs or suggestions.   //
+//----------------------------------------------------------------------------//
+// </editor-fold>
+package omr.util;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class {@code OmrExecutorsTest} checks that nested fan-out on the
+ * work-stealing pools does not starve them.
+ *
+ * @author Hervé Bitteur
+ */
+public class OmrExecutorsTest
+{
+    //~ Methods ----------------------------------------------------------------
+
+    //-----------//
+    // testAwait //
+    //-----------//
+    /**
+     * More tasks than threads, all waiting on a latch released by
+     * tasks submitted afterwards to the same pool.
+     */
+    @Test(timeout = 60000)
+    public void testAwait ()
+            throws Exception
+    {
+        final ExecutorService pool = OmrExecutors.getLowExecutor();
+        final int count = 3 * OmrExecutors.getParallelism();
+        final CountDownLatch latch = new CountDownLatch(count);
+        List<Callable<Void>> waiters = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            waiters.add(
+                    new Callable<Void>()
+            {
+                @Override
+                public Void call ()
+                        throws Exception
+                {
+                    OmrExecutors.await(latch);
+
+                    return null;
+                }
+            });
+        }
+
+        List<Future<Void>> futures = new ArrayList<>();
+
+        for (Callable<Void> waiter : waiters) {
+            futures.add(pool.submit(waiter));
+        }
+
+        for (int i = 0; i < count; i++) {
+            pool.execute(
+                    new Runnable()
+            {
+                @Override
+                public void run ()
+                {
+                    latch.countDown();
+                }
+            });
+        }
+
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+
+        assertEquals(0, latch.getCount());
+    }
+
+    //-------------------//
+    // testInvokeBounded //
+    //-------------------//
+    /**
+     * Many more tasks than threads, no more than 2 of them in progress at
+     * any time, without the pool growing to compensate.
+     */
+    @Test(timeout = 60000)
+    public void testInvokeBounded ()
+            throws Exception
+    {
+        final ExecutorService pool = OmrExecutors.getLowExecutor();
+        final int count = 100 * OmrExecutors.getParallelism();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            tasks.add(
+                    new Callable<Integer>()
+            {
+                @Override
+                public Integer call ()
+                        throws Exception
+                {
+                    final int current = inFlight.incrementAndGet();
+
+                    while (current > maxInFlight.get()) {
+                        maxInFlight.compareAndSet(maxInFlight.get(), current);
+                    }
+
+                    Thread.sleep(1);
+                    inFlight.decrementAndGet();
+
+                    return index;
+                }
+            });
+        }
+
+        // Threads compensating for blocked tasks of previous tests may remain
+        final int poolSize = (pool instanceof ForkJoinPool)
+                             ? ((ForkJoinPool) pool).getPoolSize() : 0;
+        final int maxPoolSize = Math.max(
+                poolSize,
+                OmrExecutors.getParallelism());
+
+        List<Future<Integer>> futures = OmrExecutors.invokeBounded(
+                pool,
+                tasks,
+                2);
+
+        assertEquals(count, futures.size());
+
+        for (int i = 0; i < count; i++) {
+            assertTrue(futures.get(i).isDone());
+            assertEquals(i, (int) futures.get(i).get());
+        }
+
+        assertTrue(maxInFlight.get() <= 2);
+
+        if (pool instanceof ForkJoinPool) {
+            assertTrue(((ForkJoinPool) pool).getPoolSize() <= maxPoolSize);
+        }
+    }
+
+    //------------------//
+    // testNestedFanOut //
+    //------------------//
+    /**
+     * Tasks which fan out sub-tasks to the same pool and wait for
+     * them, with more outer tasks than threads.
+     */
+    @Test(timeout = 60000)
+    public void testNestedFanOut ()
+            throws Exception
+    {
+        final ExecutorService pool = OmrExecutors.getLowExecutor();
+        final int count = 3 * OmrExecutors.getParallelism();
+        final AtomicInteger done = new AtomicInteger();
+        List<Callable<Void>> outers = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            outers.add(
+                    new Callable<Void>()
+            {
+                @Override
+                public Void call ()
+                        throws Exception
+                {
+                    List<Callable<Void>> inners = new ArrayList<>();
+
+                    for (int j = 0; j < count; j++) {
+                        inners.add(
+                                new Callable<Void>()
+                        {
+                            @Override
+                            public Void call ()
+                            {
+                                done.incrementAndGet();
+
+                                return null;
+                            }
+                        });
+                    }
+
+                    pool.invokeAll(inners);
+
+                    return null;
+                }
+            });
+        }
+
+        pool.invokeAll(outers);
+
+        assertEquals(count * count, done.get());
+    }
+}